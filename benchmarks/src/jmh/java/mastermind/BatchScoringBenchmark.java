@@ -0,0 +1,87 @@
+package mastermind;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// scores one guess against a batch of candidates, per candidate: through the
+// list path of countExact and countInexact, the packed CodeSpace.score one pair at
+// a time, and BatchScorer with its scalar and vector kernels
+@State(Scope.Thread)
+public class BatchScoringBenchmark {
+  static final int BATCH = 4096;
+
+  @Param({ "4", "8" })
+  int length;
+
+  @Param({ "6", "16" })
+  int colors;
+
+  Mastermind mastermind;
+  CodeSpace space;
+  long guess;
+  long[] candidates;
+  int[] scores;
+  ILoColor guessList;
+  ILoColor[] candidateLists;
+  BatchScorer scalar;
+  BatchScorer vector;
+
+  @Setup
+  public void setUp() {
+    Boards boards = new Boards();
+    this.mastermind = boards.mastermind(this.length, this.colors, 10);
+    this.space = this.mastermind.space();
+    SecretGenerator codes = new SecretGenerator(this.space, new Random(1).nextLong());
+    this.guess = codes.next();
+    this.candidates = new long[BATCH];
+    codes.fill(this.candidates, 0, BATCH);
+    this.scores = new int[BATCH];
+    this.guessList = this.space.unpack(this.guess, this.mastermind.colors);
+    this.candidateLists = new ILoColor[BATCH];
+    for (int i = 0; i < BATCH; i += 1) {
+      this.candidateLists[i] = this.space.unpack(this.candidates[i], this.mastermind.colors);
+    }
+    this.scalar = new BatchScorer(this.space, false);
+    this.vector = new BatchScorer(this.space, true);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int countExactInexact() {
+    int sum = 0;
+    for (ILoColor candidate : this.candidateLists) {
+      sum += this.guessList.countExact(candidate)
+          + this.guessList.countInexact(candidate, this.mastermind.colors);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int packedScore() {
+    int sum = 0;
+    for (long candidate : this.candidates) {
+      sum += this.space.score(this.guess, candidate);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int[] batchScalar() {
+    this.scalar.score(this.guess, this.candidates, 0, BATCH, this.scores);
+    return this.scores;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public int[] batchVector() {
+    this.vector.score(this.guess, this.candidates, 0, BATCH, this.scores);
+    return this.scores;
+  }
+}
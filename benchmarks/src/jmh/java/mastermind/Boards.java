@@ -0,0 +1,45 @@
+package mastermind;
+
+import java.awt.Color;
+import java.util.Random;
+
+// builds the boards the benchmarks run against
+class Boards {
+  // makes a palette of the given number of distinct colors
+  ILoColor palette(int colors) {
+    ILoColor result = new MtLoColor();
+    for (int i = colors - 1; i >= 0; i -= 1) {
+      result = new ConsLoColor(Color.getHSBColor((float) i / colors, 0.8f, 0.9f), result);
+    }
+    return result;
+  }
+
+  // makes a configuration with duplicates and the given number of guesses
+  Mastermind mastermind(int length, int colors, int guesses) {
+    return new Mastermind(true, length, guesses, this.palette(colors));
+  }
+
+  // makes a random code of the given configuration
+  ILoColor code(Mastermind m, Random random) {
+    return m.makeSequence(random.nextLong());
+  }
+
+  // makes a history of the given number of complete random guesses followed by a
+  // guess missing its last peg
+  ILoList history(Mastermind m, int depth, Random random) {
+    ILoList result = new ConsLoList(this.code(m, random).deleteLast(), new MtLoList());
+    for (int i = 0; i < depth; i += 1) {
+      result = new ConsLoList(this.code(m, random), result);
+    }
+    return result;
+  }
+
+  // makes the matches for a history of the given depth
+  ILoPair matches(int depth, Random random) {
+    ILoPair result = new MtLoPair();
+    for (int i = 0; i < depth; i += 1) {
+      result = new ConsLoPair(new PairOfNumbers(random.nextInt(2), random.nextInt(2)), result);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,61 @@
+package mastermind;
+
+import java.awt.Color;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// compares the linked ConsLoColor with the array-backed ArrayLoColor on the
+// operations a keystroke and a palette lookup use
+@State(Scope.Thread)
+public class ColorListBenchmark {
+  @Param({ "4", "16", "32" })
+  int length;
+
+  ILoColor cons;
+  ILoColor array;
+  ILoColor peg;
+
+  @Setup
+  public void setUp() {
+    Color[] colors = new Color[this.length];
+    for (int i = 0; i < this.length; i += 1) {
+      colors[i] = Color.getHSBColor((float) i / this.length, 0.8f, 0.9f);
+    }
+    this.cons = new Utils().listOf(colors, 0, colors.length, new MtLoColor());
+    this.array = new ArrayLoColor(colors);
+    this.peg = new ConsLoColor(colors[this.length - 1], new MtLoColor());
+  }
+
+  @Benchmark
+  public int consLength() {
+    return this.cons.length();
+  }
+
+  @Benchmark
+  public int arrayLength() {
+    return this.array.length();
+  }
+
+  @Benchmark
+  public Color consChooseLast() {
+    return this.cons.chooseColor(this.length, 1);
+  }
+
+  @Benchmark
+  public Color arrayChooseLast() {
+    return this.array.chooseColor(this.length, 1);
+  }
+
+  @Benchmark
+  public ILoColor consRetype() {
+    return this.cons.deleteLast().append(this.peg);
+  }
+
+  @Benchmark
+  public ILoColor arrayRetype() {
+    return this.array.deleteLast().append(this.peg);
+  }
+}
@@ -0,0 +1,50 @@
+package mastermind;
+
+import javalib.funworld.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// feeds keystrokes to a game with a history of the given depth: the pegs of a
+// row are entered and then deleted again, so the game never ends
+@State(Scope.Thread)
+public class KeyEventBenchmark {
+  @Param({ "4", "8" })
+  int length;
+
+  @Param({ "6", "9" })
+  int colors;
+
+  @Param({ "1", "10", "30" })
+  int depth;
+
+  World game;
+  String[] keys;
+  int next;
+
+  @Setup
+  public void setUp() {
+    Mastermind mastermind = new Boards().mastermind(this.length, this.colors, this.depth + 1);
+    this.game = new Game(mastermind, 1L);
+    for (int i = 0; i < this.depth; i += 1) {
+      for (int j = 0; j < this.length; j += 1) {
+        this.game = this.game.onKeyEvent("1");
+      }
+      this.game = this.game.onKeyEvent("enter");
+    }
+    this.keys = new String[2 * this.length];
+    for (int i = 0; i < this.length; i += 1) {
+      this.keys[i] = Integer.toString(1 + i % this.colors);
+      this.keys[this.length + i] = "backspace";
+    }
+  }
+
+  @Benchmark
+  public World onKeyEvent() {
+    this.game = this.game.onKeyEvent(this.keys[this.next]);
+    this.next = (this.next + 1) % this.keys.length;
+    return this.game;
+  }
+}
@@ -0,0 +1,56 @@
+package mastermind;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// measures how the list operations of a large board scale with the length of its
+// codes and the depth of its history; each should grow linearly in both
+@State(Scope.Thread)
+public class LargeBoardBenchmark {
+  @Param({ "8", "16", "32" })
+  int length;
+
+  @Param({ "100", "200", "400" })
+  int depth;
+
+  Mastermind mastermind;
+  ILoList history;
+  ILoPair matches;
+  ILoColor guess;
+  ILoColor secret;
+
+  @Setup
+  public void setUp() {
+    Boards boards = new Boards();
+    Random random = new Random(1);
+    this.mastermind = boards.mastermind(this.length, 64, this.depth + 1);
+    this.history = boards.history(this.mastermind, this.depth, random);
+    this.matches = boards.matches(this.depth, random);
+    this.guess = boards.code(this.mastermind, random);
+    this.secret = boards.code(this.mastermind, random);
+  }
+
+  @Benchmark
+  public ILoList addPeg() {
+    return this.history.makeGuesses("1", this.mastermind);
+  }
+
+  @Benchmark
+  public int historyLength() {
+    return this.history.length();
+  }
+
+  @Benchmark
+  public PairOfNumbers score() {
+    return this.mastermind.score(this.guess, this.secret);
+  }
+
+  @Benchmark
+  public Object makeScene() {
+    return this.mastermind.makeScene(this.history, this.matches, this.secret);
+  }
+}
@@ -0,0 +1,41 @@
+package mastermind;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// edits the last row of a history of the given depth with ILoList.makeGuesses
+@State(Scope.Thread)
+public class MakeGuessesBenchmark {
+  @Param({ "4", "8" })
+  int length;
+
+  @Param({ "6", "9" })
+  int colors;
+
+  @Param({ "1", "10", "30" })
+  int depth;
+
+  Mastermind mastermind;
+  ILoList history;
+
+  @Setup
+  public void setUp() {
+    Boards boards = new Boards();
+    this.mastermind = boards.mastermind(this.length, this.colors, this.depth + 1);
+    this.history = boards.history(this.mastermind, this.depth, new Random(1));
+  }
+
+  @Benchmark
+  public ILoList addPeg() {
+    return this.history.makeGuesses("1", this.mastermind);
+  }
+
+  @Benchmark
+  public ILoList deletePeg() {
+    return this.history.makeGuesses("backspace", this.mastermind);
+  }
+}
@@ -0,0 +1,57 @@
+package mastermind;
+
+import java.util.Random;
+import javalib.funworld.WorldScene;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// draws a board with a history of the given depth, from lists with
+// Mastermind.makeScene and from a game through its SceneCache
+@State(Scope.Thread)
+public class SceneBenchmark {
+  @Param({ "4", "8" })
+  int length;
+
+  @Param({ "6", "9" })
+  int colors;
+
+  @Param({ "1", "10", "30" })
+  int depth;
+
+  Mastermind mastermind;
+  ILoList guesses;
+  ILoPair matches;
+  ILoColor sequence;
+  Game game;
+
+  @Setup
+  public void setUp() {
+    Boards boards = new Boards();
+    Random random = new Random(1);
+    this.mastermind = boards.mastermind(this.length, this.colors, this.depth + 1);
+    this.guesses = boards.history(this.mastermind, this.depth, random);
+    this.matches = boards.matches(this.depth, random);
+    this.sequence = boards.code(this.mastermind, random);
+    this.game = new Game(this.mastermind, 1L);
+    for (int i = 0; i < this.depth; i += 1) {
+      for (int j = 0; j < this.length; j += 1) {
+        this.game.onKeyEvent(Integer.toString(1 + (i + j) % this.colors));
+      }
+      this.game.onKeyEvent("enter");
+    }
+    this.game.onKeyEvent("1");
+  }
+
+  @Benchmark
+  public WorldScene makeScene() {
+    return this.mastermind.makeScene(this.guesses, this.matches, this.sequence);
+  }
+
+  @Benchmark
+  public WorldScene gameScene() {
+    return this.game.makeScene();
+  }
+}
@@ -0,0 +1,59 @@
+package mastermind;
+
+import java.util.Random;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// scores a guess against a secret through the ILoColor list path, which walks
+// the lists in loops, and the packed CodeSpace path
+@State(Scope.Thread)
+public class ScoringBenchmark {
+  static final int PAIRS = 1024;
+
+  @Param({ "4", "6", "8" })
+  int length;
+
+  @Param({ "6", "8", "12" })
+  int colors;
+
+  Mastermind mastermind;
+  CodeSpace space;
+  ILoColor[] guesses;
+  ILoColor[] secrets;
+  long[] packedGuesses;
+  long[] packedSecrets;
+  int next;
+
+  @Setup
+  public void setUp() {
+    Boards boards = new Boards();
+    Random random = new Random(1);
+    this.mastermind = boards.mastermind(this.length, this.colors, 10);
+    this.space = this.mastermind.space();
+    this.guesses = new ILoColor[PAIRS];
+    this.secrets = new ILoColor[PAIRS];
+    this.packedGuesses = new long[PAIRS];
+    this.packedSecrets = new long[PAIRS];
+    for (int i = 0; i < PAIRS; i += 1) {
+      this.guesses[i] = boards.code(this.mastermind, random);
+      this.secrets[i] = boards.code(this.mastermind, random);
+      this.packedGuesses[i] = this.space.pack(this.guesses[i], this.mastermind.colors);
+      this.packedSecrets[i] = this.space.pack(this.secrets[i], this.mastermind.colors);
+    }
+  }
+
+  @Benchmark
+  public ILoPair compareWith() {
+    int i = this.next++ & (PAIRS - 1);
+    return this.guesses[i].compareWith(this.secrets[i], new MtLoPair(), this.mastermind.colors);
+  }
+
+  @Benchmark
+  public int packedScore() {
+    int i = this.next++ & (PAIRS - 1);
+    return this.space.score(this.packedGuesses[i], this.packedSecrets[i]);
+  }
+}
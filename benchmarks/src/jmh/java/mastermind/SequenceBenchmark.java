@@ -0,0 +1,54 @@
+package mastermind;
+
+import java.util.concurrent.ForkJoinPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// makes random secrets with Mastermind.makeSequence and as packed codes with a
+// SecretGenerator, one at a time and in bulk
+@State(Scope.Thread)
+public class SequenceBenchmark {
+  @Param({ "4", "6", "8" })
+  int length;
+
+  @Param({ "8", "12" })
+  int colors;
+
+  @Param({ "true", "false" })
+  boolean duplicates;
+
+  static final int BULK = 1 << 20;
+
+  Mastermind mastermind;
+  SecretGenerator generator;
+  long[] secrets;
+
+  @Setup
+  public void setUp() {
+    this.mastermind = new Mastermind(this.duplicates, this.length, 10,
+        new Boards().palette(this.colors));
+    this.generator = new SecretGenerator(this.mastermind.space(), 1L);
+    this.secrets = new long[BULK];
+  }
+
+  @Benchmark
+  public ILoColor makeSequence() {
+    return this.mastermind.makeSequence();
+  }
+
+  @Benchmark
+  public long next() {
+    return this.generator.next();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BULK)
+  public long[] parallelFill() {
+    this.generator.fill(this.secrets, ForkJoinPool.commonPool());
+    return this.secrets;
+  }
+}
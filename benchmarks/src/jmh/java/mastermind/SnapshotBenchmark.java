@@ -0,0 +1,54 @@
+package mastermind;
+
+import java.nio.ByteBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// writes the snapshot of a game with a history of the given depth into a reused
+// buffer, and reads it back into a game engine of the same configuration, as a
+// server saving and resuming sessions does
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+  @Param({ "4", "8" })
+  int length;
+
+  @Param({ "6", "9" })
+  int colors;
+
+  @Param({ "1", "10", "30" })
+  int depth;
+
+  Mastermind mastermind;
+  Game game;
+  ByteBuffer buffer;
+
+  @Setup
+  public void setUp() {
+    this.mastermind = new Boards().mastermind(this.length, this.colors, this.depth + 1);
+    this.game = new Game(this.mastermind, 1L);
+    for (int i = 0; i < this.depth; i += 1) {
+      for (int j = 0; j < this.length; j += 1) {
+        this.game.onKeyEvent(Integer.toString(1 + (i + j) % this.colors));
+      }
+      this.game.onKeyEvent("enter");
+    }
+    this.buffer = ByteBuffer.allocateDirect(GameSnapshot.size(this.game.engine));
+    GameSnapshot.write(this.game, this.buffer);
+  }
+
+  @Benchmark
+  public ByteBuffer write() {
+    this.buffer.clear();
+    GameSnapshot.write(this.game, this.buffer);
+    return this.buffer;
+  }
+
+  @Benchmark
+  public GameEngine read() {
+    return new GameSnapshot(this.buffer.position(0)).engine(this.mastermind);
+  }
+}
@@ -0,0 +1,251 @@
+package mastermind;
+
+import javalib.funworld.*;
+import javalib.worldimages.*;
+import java.awt.Color;
+import java.util.Arrays;
+
+// to represent a list of colors as a view of the first length colors of a shared
+// buffer: the length is stored, indexing is O(1), deleteLast() is a shorter view
+// of the same buffer, and appending to the longest view of a buffer fills its
+// spare capacity in place, so appending one color at a time is O(1) amortized.
+// views never change once made, since a view only ever sees the colors below its
+// length and those are never overwritten; appending the colors a longer view
+// already holds, as when retyping a peg after deleteLast(), shares that view
+class ArrayLoColor implements ILoColor {
+  ColorBuffer buffer;
+  int length;
+
+  ArrayLoColor(ColorBuffer buffer, int length) {
+    this.buffer = buffer;
+    this.length = length;
+  }
+
+  ArrayLoColor(Color[] colors) {
+    this(new ColorBuffer(Arrays.copyOf(colors, colors.length), colors.length), colors.length);
+  }
+
+  ArrayLoColor() {
+    this(new Color[0]);
+  }
+
+  // checks if the length of this list is valid
+  public ILoColor checkLength(int length, boolean duplicates) {
+    if (this.length == 0 || (!duplicates && this.length < length)) {
+      throw new IllegalArgumentException("Invalid list length");
+    }
+    else {
+      return this;
+    }
+  }
+
+  // draws this list of colors onto a given scene, last color first
+  public WorldScene drawColors(WorldScene scene, int right, int down) {
+    for (int i = this.length - 1; i >= 0; i -= 1) {
+      scene = scene.placeImageXY(new CircleImage(15, OutlineMode.SOLID, this.buffer.colors[i]),
+          right + (i * 40), down);
+    }
+    return scene;
+  }
+
+  // to determine the length of this list
+  public int length() {
+    return this.length;
+  }
+
+  // to determine whether this list is empty
+  public boolean isEmpty() {
+    return this.length == 0;
+  }
+
+  // copies the colors of this list into an array
+  public Color[] toArray() {
+    return Arrays.copyOf(this.buffer.colors, this.length);
+  }
+
+  // chooses the color at the given index, or null if there is none
+  public Color chooseColor(int index, int start) {
+    int i = index - start;
+    if (i < 0 || i >= this.length) {
+      return null;
+    }
+    else {
+      return this.buffer.colors[i];
+    }
+  }
+
+  // outputs a new list of colors for makeSequence() recursion
+  public ILoColor newColors(int colorIndex, boolean duplicates, int start) {
+    if (duplicates) {
+      return this;
+    }
+    else {
+      return this.dropIndex(colorIndex, start);
+    }
+  }
+
+  // deletes the last element of this list of Colors
+  public ILoColor deleteLast() {
+    if (this.length == 0) {
+      return this;
+    }
+    else {
+      return new ArrayLoColor(this.buffer, this.length - 1);
+    }
+  }
+
+  // appends that ILoColor to this ILoColor, in place in the buffer when this is
+  // its longest view and it has room
+  public ILoColor append(ILoColor that) {
+    if (that.isEmpty()) {
+      return this;
+    }
+    Color[] added = that.toArray();
+    int length = this.length + added.length;
+    synchronized (this.buffer) {
+      if (length <= this.buffer.used && Arrays.equals(this.buffer.colors, this.length, length,
+          added, 0, added.length)) {
+        // a longer view already holds the same colors, as after deleteLast()
+        return new ArrayLoColor(this.buffer, length);
+      }
+      if (this.buffer.used == this.length && length <= this.buffer.colors.length) {
+        System.arraycopy(added, 0, this.buffer.colors, this.length, added.length);
+        this.buffer.used = length;
+        return new ArrayLoColor(this.buffer, length);
+      }
+    }
+    Color[] colors = Arrays.copyOf(this.buffer.colors, Math.max(length, this.length * 2));
+    System.arraycopy(added, 0, colors, this.length, added.length);
+    return new ArrayLoColor(new ColorBuffer(colors, length), length);
+  }
+
+  // counts number of exact and inexact matches between this ILoColor and the
+  // given one
+  public ILoPair compareWith(ILoColor sequence, ILoPair matches, ILoColor colors) {
+    return new ConsLoPair(
+        new PairOfNumbers(this.countExact(sequence), this.countInexact(sequence, colors)), matches);
+  }
+
+  // computes number of exact matches this list of Colors has with the given one
+  public int countExact(ILoColor that) {
+    Color[] those = that.toArray();
+    int count = 0;
+    for (int i = 0; i < Math.min(this.length, those.length); i += 1) {
+      if (this.buffer.colors[i].equals(those[i])) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  // computes number of exact matches this list of Colors has with the given one
+  public int countExactHelper(Color first, ILoColor rest) {
+    return this.countExact(new ConsLoColor(first, rest));
+  }
+
+  // counts the number of inexact matches between this list and the given one
+  public int countInexact(ILoColor that, ILoColor colors) {
+    return colors.countEachColor(this.dropExact(that), that.dropExact(this));
+  }
+
+  // removes color at given index from this list
+  public ILoColor dropIndex(int i, int start) {
+    int index = i - start;
+    if (index < 0 || index >= this.length) {
+      return this;
+    }
+    else {
+      Color[] colors = new Color[this.length - 1];
+      System.arraycopy(this.buffer.colors, 0, colors, 0, index);
+      System.arraycopy(this.buffer.colors, index + 1, colors, index, colors.length - index);
+      return new ArrayLoColor(new ColorBuffer(colors, colors.length), colors.length);
+    }
+  }
+
+  // computes inexact matches by counting each color of this palette
+  public int countEachColor(ILoColor list1, ILoColor list2) {
+    int count = 0;
+    for (int i = 0; i < this.length; i += 1) {
+      count += list1.countColor(this.buffer.colors[i], list2);
+    }
+    return count;
+  }
+
+  // drops exact matches in this list with the given one, keeping the colors of
+  // this list at positions that the given one has a different color in
+  public ILoColor dropExact(ILoColor that) {
+    Color[] those = that.toArray();
+    Color[] kept = new Color[Math.min(this.length, those.length)];
+    int size = 0;
+    for (int i = 0; i < kept.length; i += 1) {
+      if (!this.buffer.colors[i].equals(those[i])) {
+        kept[size] = this.buffer.colors[i];
+        size += 1;
+      }
+    }
+    return new ArrayLoColor(new ColorBuffer(kept, size), size);
+  }
+
+  // drops exact matches in this list with the given one
+  public ILoColor dropExactHelper(Color first, ILoColor rest) {
+    return new ConsLoColor(first, rest).dropExact(this);
+  }
+
+  // counts the given color in both this list and the given one, returning the
+  // smaller count
+  public int countColor(Color first, ILoColor list) {
+    if (this.length == 0) {
+      return 0;
+    }
+    else {
+      return Math.min(this.countColorHelp(first), list.countColorHelp(first));
+    }
+  }
+
+  // counts the given color in this list
+  public int countColorHelp(Color color) {
+    int count = 0;
+    for (int i = 0; i < this.length; i += 1) {
+      if (this.buffer.colors[i].equals(color)) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  // returns the index of the given color in this list counting from start, or -1
+  // if it is not in this list
+  public int indexOf(Color color, int start) {
+    for (int i = 0; i < this.length; i += 1) {
+      if (this.buffer.colors[i].equals(color)) {
+        return start + i;
+      }
+    }
+    return -1;
+  }
+
+  // packs this list of colors into the pegs of a code from the given position on
+  public long pack(ILoColor palette, int position) {
+    long code = 0;
+    for (int i = 0; i < this.length; i += 1) {
+      int index = palette.indexOf(this.buffer.colors[i], 0);
+      if (index < 0) {
+        throw new IllegalArgumentException("Color not in palette");
+      }
+      code |= (long) index << ((position + i) * CodeSpace.BITS_PER_PEG);
+    }
+    return code;
+  }
+}
+
+// to represent the storage shared by the views of an ArrayLoColor: the colors and
+// how many of them some view has claimed
+class ColorBuffer {
+  Color[] colors;
+  int used;
+
+  ColorBuffer(Color[] colors, int used) {
+    this.colors = colors;
+    this.used = used;
+  }
+}
@@ -0,0 +1,75 @@
+package mastermind;
+
+// scores one guess against a batch of packed candidates at a time, writing the
+// feedback for each into an array: the guess is taken apart once per batch, into
+// the distinct colors it holds and how often, so each candidate only counts the
+// colors the guess has rather than every color of the palette. the batch runs on
+// the Vector API, several candidates per instruction, when the JVM was started
+// with --add-modules jdk.incubator.vector, and on a scalar loop otherwise. a
+// scorer takes the guess apart into arrays of its own, so it is used by one
+// thread at a time, as each task that scores makes its own
+class BatchScorer {
+  // whether the Vector API is available and not turned off with
+  // -Dmastermind.vector=false
+  static final boolean VECTOR_AVAILABLE = ModuleLayer.boot()
+      .findModule("jdk.incubator.vector").isPresent()
+      && !"false".equals(System.getProperty("mastermind.vector"));
+
+  CodeSpace space;
+  boolean vectorized;
+  // the distinct colors of the guess being scored, each repeated across every
+  // peg, and the number of pegs of the guess that hold it
+  long[] colors;
+  int[] counts;
+
+  BatchScorer(CodeSpace space, boolean vectorized) {
+    this.space = space;
+    this.vectorized = vectorized && VECTOR_AVAILABLE && VectorScorer.supported();
+    this.colors = new long[space.length];
+    this.counts = new int[space.length];
+  }
+
+  BatchScorer(CodeSpace space) {
+    this(space, true);
+  }
+
+  // writes the feedback of the given guess against each candidate from index from
+  // up to index to into the same index of the given array
+  void score(long guess, long[] candidates, int from, int to, int[] into) {
+    long[] colors = this.colors;
+    int[] counts = this.counts;
+    int distinct = 0;
+    for (int color = 0; color < this.space.colors && distinct < colors.length; color += 1) {
+      int count = this.space.count(guess, color);
+      if (count > 0) {
+        colors[distinct] = color * CodeSpace.LOW_BITS;
+        counts[distinct] = count;
+        distinct += 1;
+      }
+    }
+    int i = from;
+    if (this.vectorized) {
+      i = VectorScorer.score(this.space, guess, colors, counts, distinct, candidates, from, to,
+          into);
+    }
+    for (; i < to; i += 1) {
+      long candidate = candidates[i];
+      int exact = this.space.length
+          - Long.bitCount(this.space.nonZeroPegs(guess ^ candidate));
+      int common = 0;
+      for (int c = 0; c < distinct; c += 1) {
+        int count = this.space.length
+            - Long.bitCount(this.space.nonZeroPegs(candidate ^ colors[c]));
+        common += Math.min(counts[c], count);
+      }
+      into[i] = this.space.feedback(exact, common - exact);
+    }
+  }
+
+  // returns the feedback of the given guess against each of the given candidates
+  int[] score(long guess, long[] candidates) {
+    int[] result = new int[candidates.length];
+    this.score(guess, candidates, 0, candidates.length, result);
+    return result;
+  }
+}
@@ -0,0 +1,139 @@
+package mastermind;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// tracks the codes of a code space that are still consistent with every guess
+// and feedback of a game, as a bitset over the code space indices that each new
+// feedback filters in parallel
+class CandidateTracker {
+  // the number of bitset words filtered by one task
+  static final int WORDS_PER_TASK = 1024;
+
+  CodeSpace space;
+  ForkJoinPool pool;
+  long[] words;
+  int count;
+  // the guesses filtered by so far
+  long[] guesses;
+  int filtered;
+
+  CandidateTracker(CodeSpace space, ForkJoinPool pool) {
+    this.space = space;
+    this.pool = pool;
+    int size = space.size();
+    this.words = new long[(size + 63) >>> 6];
+    for (int i = 0; i < size >>> 6; i += 1) {
+      this.words[i] = -1L;
+    }
+    if ((size & 63) != 0) {
+      this.words[size >>> 6] = (1L << (size & 63)) - 1;
+    }
+    this.count = size;
+    this.guesses = new long[8];
+  }
+
+  CandidateTracker(CodeSpace space) {
+    this(space, ForkJoinPool.commonPool());
+  }
+
+  // removes the candidates that would not have given the given feedback to the
+  // given guess, returning how many are left
+  int filter(long guess, int feedback) {
+    if (this.filtered == this.guesses.length) {
+      this.guesses = Arrays.copyOf(this.guesses, this.filtered * 2);
+    }
+    this.guesses[this.filtered] = guess;
+    this.filtered += 1;
+    this.count = this.pool.invoke(new FilterWords(this, guess, feedback, 0, this.words.length));
+    return this.count;
+  }
+
+  // removes the candidates in the given range of words that would not have given
+  // the given feedback to the given guess, returning how many are left there
+  int filterWords(long guess, int feedback, int from, int to) {
+    int left = 0;
+    int scored = 0;
+    for (int w = from; w < to; w += 1) {
+      long word = this.words[w];
+      long bits = word;
+      while (bits != 0) {
+        int bit = Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+        scored += 1;
+        if (this.space.score(guess, this.space.codeAt((w << 6) + bit)) != feedback) {
+          word &= ~(1L << bit);
+        }
+      }
+      this.words[w] = word;
+      left += Long.bitCount(word);
+    }
+    if (GameMetrics.ENABLED) {
+      GameMetrics.GLOBAL.scored(scored);
+    }
+    return left;
+  }
+
+  // returns the number of codes still consistent
+  int count() {
+    return this.count;
+  }
+
+  // to determine whether the given code is still consistent
+  boolean isConsistent(long code) {
+    if (!this.space.contains(code)) {
+      return false;
+    }
+    int index = this.space.indexOf(code);
+    return (this.words[index >>> 6] & (1L << index)) != 0;
+  }
+
+  // returns the codes still consistent, in increasing order
+  long[] candidates() {
+    long[] result = new long[this.count];
+    int size = 0;
+    for (int w = 0; w < this.words.length; w += 1) {
+      long bits = this.words[w];
+      while (bits != 0) {
+        result[size] = this.space.codeAt((w << 6) + Long.numberOfTrailingZeros(bits));
+        size += 1;
+        bits &= bits - 1;
+      }
+    }
+    return result;
+  }
+}
+
+// filters a range of the words of a tracker, splitting it across the pool
+class FilterWords extends RecursiveTask<Integer> {
+  CandidateTracker tracker;
+  long guess;
+  int feedback;
+  int from;
+  int to;
+
+  FilterWords(CandidateTracker tracker, long guess, int feedback, int from, int to) {
+    this.tracker = tracker;
+    this.guess = guess;
+    this.feedback = feedback;
+    this.from = from;
+    this.to = to;
+  }
+
+  // returns the number of candidates left in this range
+  protected Integer compute() {
+    if (this.to - this.from > CandidateTracker.WORDS_PER_TASK) {
+      int middle = (this.from + this.to) >>> 1;
+      FilterWords right = new FilterWords(this.tracker, this.guess, this.feedback, middle,
+          this.to);
+      right.fork();
+      int left = new FilterWords(this.tracker, this.guess, this.feedback, this.from, middle)
+          .compute();
+      return left + right.join();
+    }
+    else {
+      return this.tracker.filterWords(this.guess, this.feedback, this.from, this.to);
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package mastermind;
+
+import java.util.Arrays;
+
+// represents the space of codes for a Mastermind configuration, where a code is
+// packed into a long holding one 4-bit palette index per peg (peg 0 in the
+// lowest bits) and feedback is packed into an int holding the number of exact
+// matches in bits 4-7 and the number of inexact matches in bits 0-3
+class CodeSpace {
+  static final int MAX_LENGTH = 15;
+  static final int MAX_COLORS = 16;
+  static final int BITS_PER_PEG = 4;
+  // the lowest bit of every peg
+  static final long LOW_BITS = 0x1111111111111111L;
+
+  int length;
+  int colors;
+  boolean duplicates;
+  // masks off the bits of unused pegs
+  long pegMask;
+  // every code in this space in increasing order, built on first use
+  long[] codes;
+
+  CodeSpace(int length, int colors, boolean duplicates) {
+    if (length < 1 || length > MAX_LENGTH) {
+      throw new IllegalArgumentException("Invalid packed length: " + Integer.toString(length));
+    }
+    if (colors < 1 || colors > MAX_COLORS || (!duplicates && colors < length)) {
+      throw new IllegalArgumentException("Invalid packed colors: " + Integer.toString(colors));
+    }
+    this.length = length;
+    this.colors = colors;
+    this.duplicates = duplicates;
+    this.pegMask = (1L << (length * BITS_PER_PEG)) - 1;
+  }
+
+  // returns the palette index of the peg at the given position of the given code
+  int peg(long code, int position) {
+    return (int) (code >>> (position * BITS_PER_PEG)) & 0xF;
+  }
+
+  // returns the given code with the peg at the given position set to the given
+  // palette index
+  long withPeg(long code, int position, int color) {
+    int shift = position * BITS_PER_PEG;
+    return (code & ~(0xFL << shift)) | ((long) color << shift);
+  }
+
+  // returns a word with the lowest bit of each peg set iff that peg of the given
+  // word is non-zero
+  long nonZeroPegs(long word) {
+    word |= word >>> 1;
+    word |= word >>> 2;
+    return word & LOW_BITS & this.pegMask;
+  }
+
+  // counts the pegs of the given code that have the given palette index
+  int count(long code, int color) {
+    return this.length - Long.bitCount(this.nonZeroPegs(code ^ (color * LOW_BITS)));
+  }
+
+  // scores the given guess against the given secret without allocating
+  int score(long guess, long secret) {
+    int exact = this.length - Long.bitCount(this.nonZeroPegs(guess ^ secret));
+    int common = 0;
+    for (int color = 0; color < this.colors; color += 1) {
+      common += Math.min(this.count(guess, color), this.count(secret, color));
+    }
+    return this.feedback(exact, common - exact);
+  }
+
+  // encodes the given number of exact and inexact matches as a feedback
+  int feedback(int exact, int inexact) {
+    return (exact << 4) | inexact;
+  }
+
+  // returns the number of exact matches in the given feedback
+  int exact(int feedback) {
+    return feedback >>> 4;
+  }
+
+  // returns the number of inexact matches in the given feedback
+  int inexact(int feedback) {
+    return feedback & 0xF;
+  }
+
+  // returns the feedback given to a correct guess
+  int solved() {
+    return this.feedback(this.length, 0);
+  }
+
+  // returns the number of distinct feedbacks, as a bound on feedback values
+  int feedbacks() {
+    return this.feedback(this.length, 0) + 1;
+  }
+
+  // converts the given feedback into a pair of numbers
+  PairOfNumbers toPair(int feedback) {
+    return new PairOfNumbers(this.exact(feedback), this.inexact(feedback));
+  }
+
+  // to determine whether the given code has a repeated color
+  boolean hasDuplicates(long code) {
+    int seen = 0;
+    for (int i = 0; i < this.length; i += 1) {
+      int bit = 1 << this.peg(code, i);
+      if ((seen & bit) != 0) {
+        return true;
+      }
+      seen |= bit;
+    }
+    return false;
+  }
+
+  // to determine whether the given code is a member of this space
+  boolean contains(long code) {
+    if ((code & ~this.pegMask) != 0) {
+      return false;
+    }
+    for (int i = 0; i < this.length; i += 1) {
+      if (this.peg(code, i) >= this.colors) {
+        return false;
+      }
+    }
+    return this.duplicates || !this.hasDuplicates(code);
+  }
+
+  // computes the number of codes in this space
+  int size() {
+    long size = 1;
+    for (int i = 0; i < this.length; i += 1) {
+      size *= this.duplicates ? this.colors : this.colors - i;
+      if (size > Integer.MAX_VALUE) {
+        throw new IllegalStateException("Code space too large");
+      }
+    }
+    return (int) size;
+  }
+
+  // returns the code at the given index of this space
+  long codeAt(int index) {
+    if (!this.duplicates) {
+      return this.enumerate()[index];
+    }
+    long code = 0;
+    for (int i = 0; i < this.length; i += 1) {
+      code |= (long) (index % this.colors) << (i * BITS_PER_PEG);
+      index /= this.colors;
+    }
+    return code;
+  }
+
+  // returns the index of the given code in this space
+  int indexOf(long code) {
+    if (!this.duplicates) {
+      return Arrays.binarySearch(this.enumerate(), code);
+    }
+    int index = 0;
+    for (int i = this.length - 1; i >= 0; i -= 1) {
+      index = index * this.colors + this.peg(code, i);
+    }
+    return index;
+  }
+
+  // returns every code of this space in increasing order
+  long[] enumerate() {
+    if (this.codes != null) {
+      return this.codes;
+    }
+    long[] result = new long[this.size()];
+    int count = 0;
+    long code = 0;
+    while (true) {
+      if (this.duplicates || !this.hasDuplicates(code)) {
+        result[count] = code;
+        count += 1;
+      }
+      // increments the code as a number in base colors, last peg most significant
+      int i = 0;
+      while (i < this.length && this.peg(code, i) == this.colors - 1) {
+        code = this.withPeg(code, i, 0);
+        i += 1;
+      }
+      if (i == this.length) {
+        break;
+      }
+      code = this.withPeg(code, i, this.peg(code, i) + 1);
+    }
+    this.codes = result;
+    return result;
+  }
+
+  // to determine whether the given code could be the secret given the first count
+  // guesses and the feedback each of them received
+  boolean consistent(long code, long[] guesses, int[] feedbacks, int count) {
+    for (int i = 0; i < count; i += 1) {
+      if (this.score(guesses[i], code) != feedbacks[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns every code of this space, in increasing order, that could be the
+  // secret given the first count guesses and their feedbacks
+  long[] consistent(long[] guesses, int[] feedbacks, int count) {
+    long[] all = this.enumerate();
+    long[] result = new long[all.length];
+    int size = 0;
+    for (long code : all) {
+      if (this.consistent(code, guesses, feedbacks, count)) {
+        result[size] = code;
+        size += 1;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  // packs the given list of colors into a code using the given palette
+  long pack(ILoColor code, ILoColor palette) {
+    if (code.length() != this.length) {
+      throw new IllegalArgumentException("Invalid code length: "
+          + Integer.toString(code.length()));
+    }
+    return code.pack(palette, 0);
+  }
+
+  // unpacks the given code into a list of colors from the given palette
+  ILoColor unpack(long code, ILoColor palette) {
+    return this.unpack(code, this.length, palette);
+  }
+
+  // unpacks the first given number of pegs of the given code into a list of
+  // colors from the given palette
+  ILoColor unpack(long code, int pegs, ILoColor palette) {
+    ILoColor result = new MtLoColor();
+    for (int i = pegs - 1; i >= 0; i -= 1) {
+      result = new ConsLoColor(palette.chooseColor(this.peg(code, i) + 1, 1), result);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,140 @@
+package mastermind;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+// represents the symmetries of a code space that a history of guesses leaves
+// intact: permuting the colors no guess has used yet, and permuting positions
+// that every guess holds the same color in. such a permutation maps the codes
+// consistent with the history onto themselves, so guesses it maps onto each
+// other split the candidates alike and a solver need only rank one of them. on
+// the first move every color is free and every position alike, so only the shape
+// of a guess matters: 5 pegs of 8 colors have 32768 codes but 7 shapes
+class CodeSymmetry {
+  CodeSpace space;
+  // the class of each position, where positions of a class are interchangeable,
+  // numbered by their first position
+  int[] classOf;
+  int classes;
+  // the colors no guess has used, as a bitmask
+  int free;
+
+  // finds the symmetries left by the first count of the given guesses
+  CodeSymmetry(CodeSpace space, long[] guesses, int count) {
+    this.space = space;
+    this.classOf = new int[space.length];
+    for (int i = 0; i < space.length; i += 1) {
+      this.classOf[i] = -1;
+      for (int j = 0; j < i && this.classOf[i] < 0; j += 1) {
+        if (this.alike(guesses, count, i, j)) {
+          this.classOf[i] = this.classOf[j];
+        }
+      }
+      if (this.classOf[i] < 0) {
+        this.classOf[i] = this.classes;
+        this.classes += 1;
+      }
+    }
+    this.free = (1 << space.colors) - 1;
+    for (int g = 0; g < count; g += 1) {
+      for (int i = 0; i < space.length; i += 1) {
+        this.free &= ~(1 << space.peg(guesses[g], i));
+      }
+    }
+  }
+
+  // to determine whether every one of the first count guesses holds the same
+  // color at the given positions
+  boolean alike(long[] guesses, int count, int i, int j) {
+    for (int g = 0; g < count; g += 1) {
+      if (this.space.peg(guesses[g], i) != this.space.peg(guesses[g], j)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // to determine whether these symmetries map some code onto another
+  boolean reduces() {
+    return this.classes < this.space.length || Integer.bitCount(this.free) > 1;
+  }
+
+  // returns the same code for every code these symmetries map onto each other: the
+  // free colors are relabeled in order of how they spread over the position
+  // classes, most spread first, and the pegs of each class are then sorted
+  long canonical(long code) {
+    int length = this.space.length;
+    // how often each free color of the code appears in each class, 4 bits a class
+    long[] spread = new long[this.space.colors];
+    for (int i = 0; i < length; i += 1) {
+      int color = this.space.peg(code, i);
+      if ((this.free & (1 << color)) != 0) {
+        spread[color] += 1L << (this.classOf[i] * CodeSpace.BITS_PER_PEG);
+      }
+    }
+    // the free colors of the code, ordered by their spread, largest first; free
+    // colors of equal spread end up alike once each class is sorted, so their
+    // order does not matter
+    int[] order = new int[this.space.colors];
+    int used = 0;
+    for (int color = 0; color < this.space.colors; color += 1) {
+      if (spread[color] != 0) {
+        int k = used;
+        while (k > 0 && spread[order[k - 1]] < spread[color]) {
+          order[k] = order[k - 1];
+          k -= 1;
+        }
+        order[k] = color;
+        used += 1;
+      }
+    }
+    int[] relabel = new int[this.space.colors];
+    int label = Integer.lowestOneBit(this.free);
+    for (int k = 0; k < used; k += 1) {
+      relabel[order[k]] = Integer.numberOfTrailingZeros(label);
+      label = Integer.lowestOneBit(this.free & ~((label << 1) - 1));
+    }
+    // the relabeled pegs of each class, sorted, back in the positions of the class
+    int[] pegs = new int[length];
+    for (int i = 0; i < length; i += 1) {
+      int color = this.space.peg(code, i);
+      int key = (this.free & (1 << color)) != 0 ? relabel[color] : color;
+      pegs[i] = (this.classOf[i] << 8) | key;
+    }
+    int[] sorted = pegs.clone();
+    Arrays.sort(sorted);
+    int[] next = new int[this.classes];
+    long result = 0;
+    for (int i = 0; i < length; i += 1) {
+      // the positions of a class take its sorted pegs in order
+      int c = this.classOf[i];
+      int rank = 0;
+      while (sorted[rank] >>> 8 != c) {
+        rank += 1;
+      }
+      result = this.space.withPeg(result, i, sorted[rank + next[c]] & 0xFF);
+      next[c] += 1;
+    }
+    return result;
+  }
+
+  // returns the first of the given codes in each set that these symmetries map
+  // onto each other, in the given order; given codes in increasing order, each
+  // kept code is the smallest of its set, so ranking only the kept codes finds the
+  // same earliest best guess as ranking them all
+  long[] representatives(long[] codes) {
+    if (!this.reduces()) {
+      return codes;
+    }
+    HashSet<Long> seen = new HashSet<Long>();
+    long[] result = new long[codes.length];
+    int size = 0;
+    for (long code : codes) {
+      if (seen.add(this.canonical(code))) {
+        result[size] = code;
+        size += 1;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+}
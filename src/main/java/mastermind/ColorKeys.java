@@ -0,0 +1,48 @@
+package mastermind;
+
+// reads colors, numbered from 1, typed as decimal numbers of as many digits as
+// the number of colors has, so palettes of more than 9 colors can be chosen from
+// the keyboard: with 64 colors, "0" then "7" selects the seventh color and "6"
+// then "4" the last
+class ColorKeys {
+  int colors;
+  int digits;
+  // the number typed so far and how many of its digits have been typed
+  int selection;
+  int typed;
+
+  ColorKeys(int colors) {
+    this.colors = colors;
+    this.digits = Integer.toString(colors).length();
+  }
+
+  // reads the given key, returning the color whose number it completes, 0 while a
+  // number is still being typed, or -1 if the key is not a digit or the number it
+  // completes is not a color
+  int press(String key) {
+    if (key.length() != 1 || key.charAt(0) < '0' || key.charAt(0) > '9') {
+      return -1;
+    }
+    this.selection = (this.selection * 10) + (key.charAt(0) - '0');
+    this.typed += 1;
+    if (this.typed < this.digits) {
+      return 0;
+    }
+    int color = this.selection;
+    this.clear();
+    if (color < 1 || color > this.colors) {
+      return -1;
+    }
+    else {
+      return color;
+    }
+  }
+
+  // forgets the number being typed, returning whether one was
+  boolean clear() {
+    boolean pending = this.typed > 0;
+    this.selection = 0;
+    this.typed = 0;
+    return pending;
+  }
+}
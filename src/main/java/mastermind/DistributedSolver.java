@@ -0,0 +1,572 @@
+package mastermind;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// a partition solver whose guesses are ranked by worker processes on the same
+// machine, for boards too large for one JVM to rank every guess of in time.
+// workers connect to the solver over the loopback address; for each move the
+// solver sends every worker the position, which is the configuration and the
+// history, and each worker works out the candidates and the guesses to rank from
+// it, so only the position and the bounds of each shard of the guesses cross the
+// socket. a worker answers a shard with the best guess in it and its rank, the
+// summary of its partition sizes the solver ranks by, and the solver keeps the
+// best of the shards in order, which picks the guess a local solver would
+//
+// a shard of a worker that dies is handed to another; once every shard is handed
+// out, an idle worker runs a second copy of a shard that has run for several
+// times as long as the shards ranked so far took, so a slow worker does not hold
+// up the move, and whichever copy answers first counts
+//
+// the messages are big-endian:
+//   worker hello:  int magic
+//   position:      byte POSITION, int move, byte length, byte colors,
+//                  byte duplicates, int count, then per guess long code, byte feedback
+//   shard:         byte SHARD, int move, int shard, int from, int to
+//   shard ranked:  int move, int shard, long guess, double rank, byte candidate
+class DistributedSolver implements ISolver, AutoCloseable {
+  static final int MAGIC = 0x4D4D5057;
+  static final byte POSITION = 1;
+  static final byte SHARD = 2;
+  // the number of shards per worker a move's guesses are split into, so faster
+  // workers take more of them
+  static final int SHARDS_PER_WORKER = 8;
+  // how many times the mean time of a shard a shard runs before it is run again
+  static final int STRAGGLER_FACTOR = 4;
+  // how long a worker is given to connect after it is started
+  static final int CONNECT_MILLIS = 30000;
+
+  String name;
+  ServerSocket socket;
+  List<Process> processes;
+  List<WorkerLink> workers;
+  // the move being ranked, if any, and the number of moves ranked
+  SolverRound round;
+  int moves;
+  boolean closed;
+  // shards handed to another worker after theirs died, and second copies run
+  long reassigned;
+  long backups;
+  // lets one move be ranked at a time
+  ReentrantLock calls;
+
+  // listens for workers ranking guesses for the partition solver of the given
+  // name, without starting any
+  DistributedSolver(String name) throws IOException {
+    if (!(SolverTournament.solverNamed(name) instanceof PartitionSolver)) {
+      throw new IllegalArgumentException("Not a partition solver: " + name);
+    }
+    this.name = name;
+    this.processes = new ArrayList<Process>();
+    this.workers = new ArrayList<WorkerLink>();
+    this.calls = new ReentrantLock();
+    this.socket = new ServerSocket();
+    this.socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+  }
+
+  // starts the given number of worker processes, each ranking on one thread
+  DistributedSolver(String name, int workers) throws IOException {
+    this(name);
+    this.spawn(workers, 1);
+  }
+
+  // returns the port workers connect to
+  int port() {
+    return this.socket.getLocalPort();
+  }
+
+  // starts the given number of worker processes, each ranking on the given number
+  // of threads, and waits for them to connect
+  void spawn(int workers, int threads) throws IOException {
+    if (workers < 1) {
+      throw new IllegalArgumentException("Invalid worker count: " + Integer.toString(workers));
+    }
+    List<String> command = new ArrayList<String>();
+    command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator
+        + "java");
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+      command.add("--add-modules");
+      command.add("jdk.incubator.vector");
+    }
+    command.add("-Djava.util.concurrent.ForkJoinPool.common.parallelism="
+        + Integer.toString(threads));
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add("mastermind.PartitionWorker");
+    command.add(Integer.toString(this.port()));
+    command.add(this.name);
+    for (int i = 0; i < workers; i += 1) {
+      Process process = new ProcessBuilder(command)
+          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+          .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+      synchronized (this) {
+        this.processes.add(process);
+      }
+    }
+    this.accept(workers);
+  }
+
+  // waits for the given number of workers to connect, however they were started
+  void accept(int workers) throws IOException {
+    this.socket.setSoTimeout(CONNECT_MILLIS);
+    for (int i = 0; i < workers; i += 1) {
+      Socket connection;
+      try {
+        connection = this.socket.accept();
+      }
+      catch (SocketTimeoutException e) {
+        throw new IOException("Worker did not connect", e);
+      }
+      WorkerLink link = new WorkerLink(this, connection);
+      if (link.in.readInt() != MAGIC) {
+        link.close();
+        throw new IOException("Not a partition worker");
+      }
+      synchronized (this) {
+        this.workers.add(link);
+      }
+      Thread thread = new Thread(link, "partition-worker-" + this.workers.size());
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  // returns the number of workers still connected
+  synchronized int live() {
+    return this.workers.size();
+  }
+
+  // chooses the guess the partition solver of this one's name would, having the
+  // workers rank the guesses
+  public long nextGuess(CodeSpace space, long[] guesses, int[] feedbacks, int count) {
+    long[] candidates = space.consistent(guesses, feedbacks, count);
+    if (candidates.length == 0) {
+      throw new IllegalStateException("No code is consistent with the feedback");
+    }
+    else if (candidates.length <= 2) {
+      return candidates[0];
+    }
+    int size = new CodeSymmetry(space, guesses, count).representatives(space.enumerate())
+        .length;
+    this.calls.lock();
+    try {
+      return this.rank(new SolverRound(space, guesses, feedbacks, count, size,
+          Math.min(size, Math.max(1, this.live()) * SHARDS_PER_WORKER))).guess;
+    }
+    finally {
+      this.calls.unlock();
+    }
+  }
+
+  // has the workers rank every shard of the given move and returns its best guess
+  synchronized RankedGuess rank(SolverRound round) {
+    if (this.workers.isEmpty()) {
+      throw new IllegalStateException("No workers left");
+    }
+    this.moves += 1;
+    round.move = this.moves;
+    this.round = round;
+    this.notifyAll();
+    while (round.remaining > 0 && round.failure == null) {
+      try {
+        this.wait();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        round.failure = new IllegalStateException("Interrupted");
+      }
+    }
+    this.round = null;
+    if (round.failure != null) {
+      throw round.failure;
+    }
+    RankedGuess best = null;
+    for (RankedGuess ranked : round.results) {
+      if (best == null || ranked.betterThan(best)) {
+        best = ranked;
+      }
+    }
+    return best;
+  }
+
+  // waits for a shard for the given worker: one not yet handed out, or else a
+  // second copy of the longest running straggler; returns false once this solver
+  // is closed
+  synchronized boolean take(WorkerLink link) {
+    while (!this.closed) {
+      SolverRound round = this.round;
+      long waitNanos = 0;
+      if (round != null && round.remaining > 0) {
+        int shard = -1;
+        if (!round.pending.isEmpty()) {
+          shard = round.pending.poll();
+        }
+        else if (round.ranked > 0) {
+          long now = System.nanoTime();
+          long straggling = STRAGGLER_FACTOR * round.rankedNanos / round.ranked;
+          for (int i = 0; i < round.results.length; i += 1) {
+            if (round.results[i] == null && round.running[i] == 1) {
+              long due = round.started[i] + straggling - now;
+              if (due <= 0 && (shard < 0 || round.started[i] < round.started[shard])) {
+                shard = i;
+              }
+              else if (due > 0 && (waitNanos == 0 || due < waitNanos)) {
+                waitNanos = due;
+              }
+            }
+          }
+          if (shard >= 0) {
+            this.backups += 1;
+          }
+        }
+        if (shard >= 0) {
+          if (round.running[shard] == 0) {
+            round.started[shard] = System.nanoTime();
+          }
+          round.running[shard] += 1;
+          link.round = round;
+          link.shard = shard;
+          return true;
+        }
+      }
+      try {
+        this.wait(waitNanos == 0 ? 0 : Math.max(1, waitNanos / 1000000));
+      }
+      catch (InterruptedException e) {
+        return false;
+      }
+    }
+    return false;
+  }
+
+  // records the given worker's best guess of the shard it was given
+  synchronized void ranked(WorkerLink link, RankedGuess ranked) {
+    SolverRound round = link.round;
+    round.running[link.shard] -= 1;
+    if (round.results[link.shard] == null) {
+      round.results[link.shard] = ranked;
+      round.remaining -= 1;
+      round.ranked += 1;
+      round.rankedNanos += System.nanoTime() - round.started[link.shard];
+      this.notifyAll();
+    }
+    link.round = null;
+  }
+
+  // drops the given worker, which died, handing the shard it held to another
+  // worker if no other is running it
+  synchronized void died(WorkerLink link) {
+    this.workers.remove(link);
+    SolverRound round = link.round;
+    if (round != null) {
+      round.running[link.shard] -= 1;
+      if (round.results[link.shard] == null && round.running[link.shard] == 0) {
+        round.pending.addFirst(link.shard);
+        this.reassigned += 1;
+      }
+      link.round = null;
+    }
+    if (this.round != null && this.workers.isEmpty()) {
+      this.round.failure = new IllegalStateException("No workers left");
+    }
+    this.notifyAll();
+  }
+
+  // disconnects the workers and stops the processes this solver started
+  public void close() throws IOException {
+    List<WorkerLink> links;
+    synchronized (this) {
+      this.closed = true;
+      links = new ArrayList<WorkerLink>(this.workers);
+      this.notifyAll();
+    }
+    for (WorkerLink link : links) {
+      link.close();
+    }
+    this.socket.close();
+    synchronized (this) {
+      for (Process process : this.processes) {
+        process.destroy();
+      }
+    }
+  }
+
+  // reports how the time to choose a guess scales from 1 to the given number of
+  // worker processes, as CSV on standard output, after a row for the solver
+  // ranking in this process as 0 workers: the position is the second move of a
+  // game of a seeded secret, after the solver's opening
+  //   length colors duplicates solver workers [threads per worker] [seed]
+  public static void main(String[] args) throws IOException {
+    CodeSpace space = new CodeSpace(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+        Boolean.parseBoolean(args[2]));
+    String name = args[3];
+    int most = Integer.parseInt(args[4]);
+    int threads = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+    long seed = args.length > 6 ? Long.parseLong(args[6]) : 1;
+    long[] guesses = new long[] { SolverTournament.solverNamed(name).nextGuess(space,
+        new long[0], new int[0], 0) };
+    int[] feedbacks = new int[] { space.score(guesses[0],
+        new SecretGenerator(space, seed).next()) };
+    System.out.println("workers,millis,speedup,efficiency,reassigned,backups");
+    ISolver local = SolverTournament.solverNamed(name);
+    long expected = local.nextGuess(space, guesses, feedbacks, 1);
+    long localStarted = System.nanoTime();
+    local.nextGuess(space, guesses, feedbacks, 1);
+    System.out.printf("0,%.1f,,,,%n", (System.nanoTime() - localStarted) / 1e6);
+    double single = 0;
+    for (int workers = 1; workers <= most; workers += 1) {
+      try (DistributedSolver solver = new DistributedSolver(name)) {
+        solver.spawn(workers, threads);
+        long guess = solver.nextGuess(space, guesses, feedbacks, 1);
+        long started = System.nanoTime();
+        if (guess != expected || solver.nextGuess(space, guesses, feedbacks, 1) != guess) {
+          throw new IllegalStateException("Workers disagree on the guess");
+        }
+        double millis = (System.nanoTime() - started) / 1e6;
+        if (workers == 1) {
+          single = millis;
+        }
+        System.out.printf("%d,%.1f,%.2f,%.2f,%d,%d%n", workers, millis, single / millis,
+            single / millis / workers, solver.reassigned, solver.backups);
+      }
+    }
+  }
+}
+
+// represents the ranking of one move: the position, the bounds of its shards,
+// the best guess of each shard ranked so far, and how many workers run each and
+// since when
+class SolverRound {
+  int move;
+  CodeSpace space;
+  long[] guesses;
+  int[] feedbacks;
+  int count;
+  int[] from;
+  int[] to;
+  RankedGuess[] results;
+  int[] running;
+  long[] started;
+  ArrayDeque<Integer> pending;
+  int remaining;
+  // the shards ranked and the time they took
+  int ranked;
+  long rankedNanos;
+  RuntimeException failure;
+
+  // splits the given number of guesses to rank into the given number of shards
+  SolverRound(CodeSpace space, long[] guesses, int[] feedbacks, int count, int size,
+      int shards) {
+    this.space = space;
+    this.guesses = guesses;
+    this.feedbacks = feedbacks;
+    this.count = count;
+    this.from = new int[shards];
+    this.to = new int[shards];
+    this.results = new RankedGuess[shards];
+    this.running = new int[shards];
+    this.started = new long[shards];
+    this.pending = new ArrayDeque<Integer>();
+    for (int i = 0; i < shards; i += 1) {
+      this.from[i] = (int) ((long) size * i / shards);
+      this.to[i] = (int) ((long) size * (i + 1) / shards);
+      this.pending.add(i);
+    }
+    this.remaining = shards;
+  }
+}
+
+// represents the solver's end of the connection to one worker, which hands the
+// worker shards for as long as both are up
+class WorkerLink implements Runnable {
+  DistributedSolver solver;
+  Socket socket;
+  DataInputStream in;
+  DataOutputStream out;
+  // the move whose position the worker holds
+  int move;
+  // the move and the shard the worker is ranking, if any
+  SolverRound round;
+  int shard;
+  // the shards the worker ranked and the time it spent on them
+  int shards;
+  long nanos;
+
+  WorkerLink(DistributedSolver solver, Socket socket) throws IOException {
+    this.solver = solver;
+    this.socket = socket;
+    socket.setTcpNoDelay(true);
+    this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+  }
+
+  // hands the worker shards until it dies or the solver closes
+  public void run() {
+    while (this.solver.take(this)) {
+      try {
+        this.rank(this.round, this.shard);
+      }
+      catch (IOException e) {
+        this.solver.died(this);
+        this.close();
+        return;
+      }
+    }
+  }
+
+  // sends the worker the given shard, and the position first if it does not hold
+  // it, and hands its answer to the solver
+  void rank(SolverRound round, int shard) throws IOException {
+    long started = System.nanoTime();
+    if (this.move != round.move) {
+      this.out.writeByte(DistributedSolver.POSITION);
+      this.out.writeInt(round.move);
+      this.out.writeByte(round.space.length);
+      this.out.writeByte(round.space.colors);
+      this.out.writeByte(round.space.duplicates ? 1 : 0);
+      this.out.writeInt(round.count);
+      for (int i = 0; i < round.count; i += 1) {
+        this.out.writeLong(round.guesses[i]);
+        this.out.writeByte(round.feedbacks[i]);
+      }
+      this.move = round.move;
+    }
+    this.out.writeByte(DistributedSolver.SHARD);
+    this.out.writeInt(round.move);
+    this.out.writeInt(shard);
+    this.out.writeInt(round.from[shard]);
+    this.out.writeInt(round.to[shard]);
+    this.out.flush();
+    if (this.in.readInt() != round.move || this.in.readInt() != shard) {
+      throw new IOException("Worker answered another shard");
+    }
+    RankedGuess ranked = new RankedGuess(this.in.readLong(), this.in.readDouble(),
+        this.in.readByte() != 0);
+    this.shards += 1;
+    this.nanos += System.nanoTime() - started;
+    this.solver.ranked(this, ranked);
+  }
+
+  // closes the connection, which stops the worker
+  void close() {
+    try {
+      this.socket.close();
+    }
+    catch (IOException e) {
+      // already closed
+    }
+  }
+}
+
+// ranks shards of the guesses of the positions a distributed solver sends it,
+// until the solver disconnects: a worker process is started as
+//   mastermind.PartitionWorker <port> <solver> [delay millis [shards]]
+// where a delay before each answer and a number of shards after which the worker
+// dies mid-shard simulate slow and failing workers
+class PartitionWorker implements Runnable {
+  int port;
+  PartitionSolver solver;
+  long delayMillis;
+  int lifetime;
+  // the position held and the guesses to rank in it
+  CodeSpace space;
+  long[] candidates;
+  long[] guesses;
+
+  PartitionWorker(int port, String name, long delayMillis, int lifetime) {
+    this.port = port;
+    this.solver = (PartitionSolver) SolverTournament.solverNamed(name);
+    this.delayMillis = delayMillis;
+    this.lifetime = lifetime;
+  }
+
+  // connects to the solver and ranks the shards it sends until it disconnects
+  public void run() {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.port)) {
+      socket.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(socket.getOutputStream()));
+      out.writeInt(DistributedSolver.MAGIC);
+      out.flush();
+      int ranked = 0;
+      while (true) {
+        byte kind = in.readByte();
+        if (kind == DistributedSolver.POSITION) {
+          this.position(in);
+        }
+        else if (kind == DistributedSolver.SHARD) {
+          int move = in.readInt();
+          int shard = in.readInt();
+          int from = in.readInt();
+          int to = in.readInt();
+          if (ranked == this.lifetime) {
+            return;
+          }
+          RankedGuess best = this.solver.pool.invoke(new RankGuesses(this.solver, this.space,
+              this.guesses, this.candidates, from, to));
+          if (this.delayMillis > 0) {
+            Thread.sleep(this.delayMillis);
+          }
+          out.writeInt(move);
+          out.writeInt(shard);
+          out.writeLong(best.guess);
+          out.writeDouble(best.rank);
+          out.writeByte(best.candidate ? 1 : 0);
+          out.flush();
+          ranked += 1;
+        }
+        else {
+          throw new IOException("Unknown message: " + Byte.toString(kind));
+        }
+      }
+    }
+    catch (IOException e) {
+      // the solver disconnected
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // reads a position and works out its candidates and the guesses to rank
+  void position(DataInputStream in) throws IOException {
+    in.readInt();
+    int length = in.readByte();
+    int colors = in.readByte();
+    boolean duplicates = in.readByte() != 0;
+    int count = in.readInt();
+    long[] guesses = new long[count];
+    int[] feedbacks = new int[count];
+    for (int i = 0; i < count; i += 1) {
+      guesses[i] = in.readLong();
+      feedbacks[i] = in.readByte() & 0xFF;
+    }
+    if (this.space == null || this.space.length != length || this.space.colors != colors
+        || this.space.duplicates != duplicates) {
+      this.space = new CodeSpace(length, colors, duplicates);
+    }
+    this.candidates = this.space.consistent(guesses, feedbacks, count);
+    this.guesses = new CodeSymmetry(this.space, guesses, count)
+        .representatives(this.space.enumerate());
+  }
+
+  public static void main(String[] args) {
+    new PartitionWorker(Integer.parseInt(args[0]), args[1],
+        args.length > 2 ? Long.parseLong(args[2]) : 0,
+        args.length > 3 ? Integer.parseInt(args[3]) : -1).run();
+  }
+}
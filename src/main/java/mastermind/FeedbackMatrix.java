@@ -0,0 +1,213 @@
+package mastermind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32C;
+
+// represents the table of feedbacks for every guess against every secret of a
+// code space, read straight out of a memory-mapped file
+//
+// the file is a header followed by one row per guess, in code space order, of one
+// feedback byte per secret, in code space order:
+//   int magic, int version, int length, int colors, int duplicates, int size,
+//   long checksum (CRC32C of the rows)
+class FeedbackMatrix {
+  static final int MAGIC = 0x4D4D4642;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 32;
+  // the largest number of bytes mapped by one segment
+  static final int SEGMENT_BYTES = 1 << 30;
+
+  CodeSpace space;
+  int size;
+  long checksum;
+  // the rows of the table, split into segments of 2^rowShift rows each
+  MappedByteBuffer[] segments;
+  int rowShift;
+  int rowMask;
+
+  // makes an unmapped matrix of the given size for the given space, to be built
+  FeedbackMatrix(CodeSpace space, int size) {
+    this.space = space;
+    this.size = size;
+  }
+
+  // opens the feedback matrix in the given file, checking its checksum if asked
+  FeedbackMatrix(Path path, boolean verify) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        continue;
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new IOException("Not a feedback matrix: " + path);
+      }
+      if (header.getInt() != VERSION) {
+        throw new IOException("Unsupported feedback matrix version: " + path);
+      }
+      this.space = new CodeSpace(header.getInt(), header.getInt(), header.getInt() != 0);
+      this.size = header.getInt();
+      this.checksum = header.getLong();
+      if (this.size != this.space.size()
+          || channel.size() != HEADER_BYTES + (long) this.size * this.size) {
+        throw new IOException("Truncated feedback matrix: " + path);
+      }
+      this.map(channel, FileChannel.MapMode.READ_ONLY);
+    }
+    if (verify && this.computeChecksum() != this.checksum) {
+      throw new IOException("Corrupt feedback matrix: " + path);
+    }
+  }
+
+  // maps the rows of the given channel into segments
+  void map(FileChannel channel, FileChannel.MapMode mode) throws IOException {
+    this.rowShift = 31 - Integer.numberOfLeadingZeros(Math.max(1, SEGMENT_BYTES / this.size));
+    this.rowMask = (1 << this.rowShift) - 1;
+    int rowsPerSegment = 1 << this.rowShift;
+    int count = (this.size + rowsPerSegment - 1) / rowsPerSegment;
+    this.segments = new MappedByteBuffer[count];
+    for (int i = 0; i < count; i += 1) {
+      int rows = Math.min(rowsPerSegment, this.size - i * rowsPerSegment);
+      this.segments[i] = channel.map(mode,
+          HEADER_BYTES + (long) i * rowsPerSegment * this.size, (long) rows * this.size);
+    }
+  }
+
+  // returns the feedback for the guess and secret at the given code space indices
+  int get(int guess, int secret) {
+    return this.segments[guess >>> this.rowShift]
+        .get((guess & this.rowMask) * this.size + secret) & 0xFF;
+  }
+
+  // returns the feedback for the given packed guess and secret
+  int score(long guess, long secret) {
+    return this.get(this.space.indexOf(guess), this.space.indexOf(secret));
+  }
+
+  // computes the checksum of the rows of this matrix
+  long computeChecksum() {
+    CRC32C crc = new CRC32C();
+    for (MappedByteBuffer segment : this.segments) {
+      crc.update(segment.duplicate().clear());
+    }
+    return crc.getValue();
+  }
+
+  // to determine whether this matrix was built for the given code space
+  boolean matches(CodeSpace that) {
+    return this.space.length == that.length && this.space.colors == that.colors
+        && this.space.duplicates == that.duplicates;
+  }
+}
+
+// builds feedback matrix files for a code space, in parallel across rows
+class FeedbackMatrixBuilder {
+  // the number of rows filled by one task
+  static final int ROWS_PER_TASK = 16;
+
+  CodeSpace space;
+  ForkJoinPool pool;
+
+  FeedbackMatrixBuilder(CodeSpace space, ForkJoinPool pool) {
+    this.space = space;
+    this.pool = pool;
+  }
+
+  FeedbackMatrixBuilder(CodeSpace space) {
+    this(space, ForkJoinPool.commonPool());
+  }
+
+  // opens the matrix in the given file if it was built for this space, or builds
+  // it there otherwise
+  FeedbackMatrix openOrBuild(Path path) throws IOException {
+    if (Files.exists(path)) {
+      try {
+        FeedbackMatrix matrix = new FeedbackMatrix(path, false);
+        if (matrix.matches(this.space)) {
+          return matrix;
+        }
+      }
+      catch (IOException e) {
+        // falls through to rebuild a stale or damaged file
+      }
+    }
+    return this.build(path);
+  }
+
+  // builds the matrix for this space into the given file and opens it
+  FeedbackMatrix build(Path path) throws IOException {
+    int size = this.space.size();
+    long[] codes = this.space.enumerate();
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      FeedbackMatrix matrix = new FeedbackMatrix(this.space, size);
+      matrix.map(channel, FileChannel.MapMode.READ_WRITE);
+      this.pool.invoke(new FillRows(matrix, codes, 0, size));
+      for (MappedByteBuffer segment : matrix.segments) {
+        segment.force();
+      }
+      ByteBuffer header = ByteBuffer.allocate(FeedbackMatrix.HEADER_BYTES)
+          .putInt(FeedbackMatrix.MAGIC).putInt(FeedbackMatrix.VERSION)
+          .putInt(this.space.length).putInt(this.space.colors)
+          .putInt(this.space.duplicates ? 1 : 0).putInt(size)
+          .putLong(matrix.computeChecksum());
+      header.flip();
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+      channel.force(true);
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return new FeedbackMatrix(path, false);
+  }
+}
+
+// fills a range of rows of a feedback matrix, splitting it across the pool
+class FillRows extends RecursiveAction {
+  FeedbackMatrix matrix;
+  long[] codes;
+  int from;
+  int to;
+
+  FillRows(FeedbackMatrix matrix, long[] codes, int from, int to) {
+    this.matrix = matrix;
+    this.codes = codes;
+    this.from = from;
+    this.to = to;
+  }
+
+  // scores every guess in this range against every secret
+  protected void compute() {
+    if (this.to - this.from > FeedbackMatrixBuilder.ROWS_PER_TASK) {
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new FillRows(this.matrix, this.codes, this.from, middle),
+          new FillRows(this.matrix, this.codes, middle, this.to));
+      return;
+    }
+    BatchScorer scorer = new BatchScorer(this.matrix.space);
+    int[] scores = new int[this.codes.length];
+    byte[] row = new byte[this.codes.length];
+    for (int guess = this.from; guess < this.to; guess += 1) {
+      scorer.score(this.codes[guess], this.codes, 0, this.codes.length, scores);
+      for (int secret = 0; secret < row.length; secret += 1) {
+        row[secret] = (byte) scores[secret];
+      }
+      this.matrix.segments[guess >>> this.matrix.rowShift]
+          .put((guess & this.matrix.rowMask) * row.length, row);
+    }
+    if (GameMetrics.ENABLED) {
+      GameMetrics.GLOBAL.scored((long) (this.to - this.from) * row.length);
+    }
+  }
+}
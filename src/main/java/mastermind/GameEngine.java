@@ -0,0 +1,155 @@
+package mastermind;
+
+// represents the state of one game of Mastermind, independent of how it is drawn
+// or played: the secret, the guesses submitted so far with their feedback, and
+// the guess being entered, all as packed codes of the configuration's code space
+class GameEngine {
+  // the most guesses a game accepted from outside, over the network or from a
+  // snapshot, may allow, since the engine allocates room for all of them
+  static final int MAX_GUESSES = 1000;
+
+  Mastermind mastermind;
+  CodeSpace space;
+  long seed;
+  long secret;
+  // the submitted guesses and their feedbacks, oldest first
+  long[] guesses;
+  int[] feedbacks;
+  int submitted;
+  // the guess being entered and how many of its pegs have been entered
+  long current;
+  int pegs;
+  // the codes still consistent with the feedback and how many there were after
+  // each submitted guess, when tracked
+  CandidateTracker candidates;
+  int[] remaining;
+
+  GameEngine(Mastermind mastermind, long seed) {
+    this(mastermind, seed, new SecretGenerator(mastermind.space(), seed).next());
+  }
+
+  // makes the game the given seed started, whose secret is already known
+  GameEngine(Mastermind mastermind, long seed, long secret) {
+    this.mastermind = mastermind;
+    this.space = mastermind.space();
+    this.seed = seed;
+    this.secret = secret;
+    this.guesses = new long[mastermind.guesses];
+    this.feedbacks = new int[mastermind.guesses];
+  }
+
+  // starts tracking the codes still consistent with the feedback, returning this
+  // engine
+  GameEngine trackCandidates() {
+    if (this.candidates == null) {
+      this.candidates = new CandidateTracker(this.space);
+      this.remaining = new int[this.guesses.length];
+      for (int i = 0; i < this.submitted; i += 1) {
+        this.remaining[i] = this.candidates.filter(this.guesses[i], this.feedbacks[i]);
+      }
+    }
+    return this;
+  }
+
+  // applies the given key, as the javalib and terminal frontends read it: enter
+  // submits the guess, backspace forgets a half-typed color number or else deletes
+  // the last peg, and any other key is typed into the given keys, adding the peg
+  // of the color whose number it completes
+  void onKey(String key, ColorKeys keys) {
+    if (key.equals("enter")) {
+      this.submitGuess();
+    }
+    else if (key.equals("backspace")) {
+      if (!keys.clear()) {
+        this.deletePeg();
+      }
+    }
+    else {
+      this.addPeg(keys.press(key));
+    }
+  }
+
+  // adds a peg of the given color, numbered from 1, to the guess being entered,
+  // returning whether it was added
+  boolean addPeg(int color) {
+    if (this.isOver() || this.pegs == this.space.length || color < 1
+        || color > this.space.colors) {
+      return false;
+    }
+    else {
+      this.current = this.space.withPeg(this.current, this.pegs, color - 1);
+      this.pegs += 1;
+      return true;
+    }
+  }
+
+  // deletes the last peg of the guess being entered, returning whether there was
+  // one to delete
+  boolean deletePeg() {
+    if (this.isOver() || this.pegs == 0) {
+      return false;
+    }
+    else {
+      this.pegs -= 1;
+      this.current = this.space.withPeg(this.current, this.pegs, 0);
+      return true;
+    }
+  }
+
+  // submits the guess being entered and returns its feedback, or -1 if the guess
+  // is incomplete or the game is over
+  int submitGuess() {
+    if (GameMetrics.ENABLED) {
+      long nanos = System.nanoTime();
+      long bytes = GameMetrics.GLOBAL.allocatedBytes();
+      int feedback = this.submit();
+      GameMetrics.GLOBAL.guesses.end(nanos, bytes);
+      return feedback;
+    }
+    else {
+      return this.submit();
+    }
+  }
+
+  // submits the guess being entered, as submitGuess does
+  int submit() {
+    if (this.isOver() || this.pegs != this.space.length) {
+      return -1;
+    }
+    else {
+      int feedback = this.space.score(this.current, this.secret);
+      if (GameMetrics.ENABLED) {
+        GameMetrics.GLOBAL.scored(1);
+      }
+      this.guesses[this.submitted] = this.current;
+      this.feedbacks[this.submitted] = feedback;
+      if (this.candidates != null) {
+        this.remaining[this.submitted] = this.candidates.filter(this.current, feedback);
+      }
+      this.submitted += 1;
+      this.current = 0;
+      this.pegs = 0;
+      return feedback;
+    }
+  }
+
+  // to determine whether the last submitted guess was the secret
+  boolean isWon() {
+    return this.submitted > 0 && this.feedbacks[this.submitted - 1] == this.space.solved();
+  }
+
+  // to determine whether every guess was used without finding the secret
+  boolean isLost() {
+    return this.submitted == this.guesses.length && !this.isWon();
+  }
+
+  // to determine whether this game has ended
+  boolean isOver() {
+    return this.isWon() || this.isLost();
+  }
+
+  // returns the number of guesses that may still be submitted
+  int remainingGuesses() {
+    return this.isOver() ? 0 : this.guesses.length - this.submitted;
+  }
+}
@@ -0,0 +1,366 @@
+package mastermind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// appends finished games to a binary journal file, batching records in memory
+// and making each batch durable with one fsync (group commit)
+//
+// the file is a header of int magic and int version followed by one record per
+// game, each an int payload length, the payload and an int CRC32C of the payload:
+//   byte length, byte colors, byte duplicates, byte unused,
+//   int guesses allowed, int guesses made, long seed, long secret,
+//   then per guess made: long guess, byte feedback
+class GameJournal implements AutoCloseable {
+  static final int MAGIC = 0x4D4D4A31;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 8;
+  static final int FIXED_PAYLOAD_BYTES = 28;
+  static final int GUESS_BYTES = 9;
+  // the bytes a record adds around its payload
+  static final int FRAME_BYTES = 8;
+  static final int BATCH_BYTES = 1 << 20;
+
+  FileChannel channel;
+  // appenders fill pending while the committer writes the other batch out
+  ByteBuffer pending;
+  ByteBuffer writing;
+  // the number of records appended and the number made durable so far
+  long appended;
+  long durable;
+  // whether appending has stopped, and whether the journal is done, so a record
+  // not yet durable never will be
+  boolean stopping;
+  boolean closed;
+  Object lock;
+  Object commitLock;
+  Thread flusher;
+  CRC32C crc;
+
+  // opens the journal in the given file for appending, creating it if needed and
+  // cutting off a record left torn by a crash, and commits every given number of
+  // milliseconds in the background; a bad record that is not the last thing in
+  // the file is damage rather than a torn write, and the journal is not opened,
+  // since cutting it off would drop the durable records after it
+  GameJournal(Path path, long commitMillis) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    this.lock = new Object();
+    this.commitLock = new Object();
+    this.crc = new CRC32C();
+    if (this.channel.size() == 0) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+      header.flip();
+      this.channel.write(header, 0);
+      this.channel.force(false);
+    }
+    long end;
+    try (JournalReader reader = new JournalReader(this.channel)) {
+      while (reader.next()) {
+        continue;
+      }
+      end = reader.end();
+      if (!reader.torn()) {
+        this.channel.close();
+        throw new IOException("Corrupt game journal record at offset " + Long.toString(end));
+      }
+    }
+    this.channel.truncate(end);
+    this.channel.position(end);
+    this.pending = ByteBuffer.allocateDirect(BATCH_BYTES);
+    this.writing = ByteBuffer.allocateDirect(BATCH_BYTES);
+    this.flusher = new Thread(() -> this.flushEvery(commitMillis), "journal-flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  // appends the given game and returns its sequence number, for awaitDurable
+  long append(GameEngine engine) throws IOException {
+    int size = FRAME_BYTES + FIXED_PAYLOAD_BYTES + GUESS_BYTES * engine.submitted;
+    if (size > BATCH_BYTES) {
+      throw new IllegalArgumentException("Game too long to journal");
+    }
+    while (true) {
+      synchronized (this.lock) {
+        if (this.stopping || this.closed) {
+          throw new IOException("Journal closed");
+        }
+        if (this.pending.remaining() >= size) {
+          this.encode(engine, this.pending);
+          this.appended += 1;
+          this.lock.notifyAll();
+          return this.appended;
+        }
+      }
+      this.commit();
+    }
+  }
+
+  // writes the record of the given game into the given buffer
+  void encode(GameEngine engine, ByteBuffer into) {
+    int start = into.position();
+    into.putInt(FIXED_PAYLOAD_BYTES + GUESS_BYTES * engine.submitted)
+        .put((byte) engine.space.length).put((byte) engine.space.colors)
+        .put((byte) (engine.space.duplicates ? 1 : 0)).put((byte) 0)
+        .putInt(engine.guesses.length).putInt(engine.submitted).putLong(engine.seed)
+        .putLong(engine.secret);
+    for (int i = 0; i < engine.submitted; i += 1) {
+      into.putLong(engine.guesses[i]).put((byte) engine.feedbacks[i]);
+    }
+    this.crc.reset();
+    this.crc.update(into.duplicate().position(start + 4).limit(into.position()));
+    into.putInt((int) this.crc.getValue());
+  }
+
+  // writes out and fsyncs every record appended so far
+  void commit() throws IOException {
+    synchronized (this.commitLock) {
+      long upTo;
+      ByteBuffer batch;
+      synchronized (this.lock) {
+        if (this.pending.position() == 0) {
+          return;
+        }
+        batch = this.pending;
+        this.pending = this.writing;
+        this.writing = batch;
+        upTo = this.appended;
+      }
+      batch.flip();
+      while (batch.hasRemaining()) {
+        this.channel.write(batch);
+      }
+      this.channel.force(false);
+      batch.clear();
+      synchronized (this.lock) {
+        this.durable = upTo;
+        this.lock.notifyAll();
+      }
+    }
+  }
+
+  // waits until the record with the given sequence number is durable
+  void awaitDurable(long sequence) throws IOException, InterruptedException {
+    synchronized (this.lock) {
+      while (this.durable < sequence) {
+        if (this.closed) {
+          throw new IOException("Journal closed");
+        }
+        this.lock.wait();
+      }
+    }
+  }
+
+  // commits whatever has been appended every given number of milliseconds,
+  // until the journal stops; it is never interrupted, since an interrupt in the
+  // middle of a write closes the channel and loses the batch
+  void flushEvery(long millis) {
+    try {
+      while (true) {
+        synchronized (this.lock) {
+          while (this.pending.position() == 0 && !this.stopping && !this.closed) {
+            this.lock.wait();
+          }
+          long deadline = System.nanoTime() + millis * 1000000L;
+          long left = millis;
+          while (left > 0 && !this.stopping && !this.closed) {
+            this.lock.wait(left);
+            left = (deadline - System.nanoTime()) / 1000000L;
+          }
+          if (this.stopping || this.closed) {
+            return;
+          }
+        }
+        this.commit();
+      }
+    }
+    catch (InterruptedException e) {
+      // the flusher is not interrupted
+    }
+    catch (IOException e) {
+      synchronized (this.lock) {
+        this.closed = true;
+        this.lock.notifyAll();
+      }
+    }
+  }
+
+  // stops appending and the flusher, waiting for a commit it has begun, then
+  // commits what is left and closes the file
+  public void close() throws IOException {
+    synchronized (this.lock) {
+      this.stopping = true;
+      this.lock.notifyAll();
+    }
+    try {
+      this.flusher.join();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      this.commit();
+    }
+    finally {
+      synchronized (this.lock) {
+        this.closed = true;
+        this.lock.notifyAll();
+      }
+      this.channel.close();
+    }
+  }
+}
+
+// reads the records of a game journal through a memory mapping, one at a time,
+// without turning them into objects: the accessors read the current record in
+// place, and a torn or corrupt record ends the journal
+class JournalReader implements AutoCloseable {
+  // the largest number of bytes mapped at once
+  static final int WINDOW_BYTES = 1 << 30;
+
+  FileChannel channel;
+  boolean owned;
+  long size;
+  // the mapped window of the file and its offset in the file
+  MappedByteBuffer window;
+  long windowStart;
+  // the offset of the current record and of the one after it
+  long record;
+  long end;
+  CRC32C crc;
+
+  JournalReader(FileChannel channel) throws IOException {
+    this.channel = channel;
+    this.size = channel.size();
+    this.crc = new CRC32C();
+    this.end = GameJournal.HEADER_BYTES;
+    this.record = -1;
+    ByteBuffer header = ByteBuffer.allocate(GameJournal.HEADER_BYTES);
+    channel.read(header, 0);
+    header.flip();
+    if (header.remaining() < GameJournal.HEADER_BYTES || header.getInt() != GameJournal.MAGIC
+        || header.getInt() != GameJournal.VERSION) {
+      throw new IOException("Not a game journal");
+    }
+  }
+
+  JournalReader(Path path) throws IOException {
+    this(FileChannel.open(path, StandardOpenOption.READ));
+    this.owned = true;
+  }
+
+  // maps the part of the file holding the given range, returning the offset of
+  // its start in the window
+  int map(long offset, int length) throws IOException {
+    if (this.window == null || offset < this.windowStart
+        || offset + length > this.windowStart + this.window.limit()) {
+      this.windowStart = offset;
+      this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, offset,
+          Math.min(WINDOW_BYTES, this.size - offset));
+    }
+    return (int) (offset - this.windowStart);
+  }
+
+  // moves on to the next record, returning false at the end of the journal
+  boolean next() throws IOException {
+    if (this.end + GameJournal.FRAME_BYTES + GameJournal.FIXED_PAYLOAD_BYTES > this.size) {
+      return false;
+    }
+    int start = this.map(this.end, 4);
+    int payload = this.window.getInt(start);
+    if (payload < GameJournal.FIXED_PAYLOAD_BYTES
+        || this.end + GameJournal.FRAME_BYTES + payload > this.size) {
+      return false;
+    }
+    int at = this.map(this.end, GameJournal.FRAME_BYTES + payload);
+    this.crc.reset();
+    this.crc.update(this.window.duplicate().position(at + 4).limit(at + 4 + payload));
+    if ((int) this.crc.getValue() != this.window.getInt(at + 4 + payload)) {
+      return false;
+    }
+    this.record = this.end;
+    this.end += GameJournal.FRAME_BYTES + payload;
+    return true;
+  }
+
+  // to determine whether what follows the last valid record read is at most a
+  // record cut short by the end of the file, as a crash while appending leaves,
+  // rather than a whole record that is damaged
+  boolean torn() throws IOException {
+    if (this.end + GameJournal.FRAME_BYTES + GameJournal.FIXED_PAYLOAD_BYTES > this.size) {
+      return true;
+    }
+    int payload = this.window.getInt(this.map(this.end, 4));
+    return payload >= GameJournal.FIXED_PAYLOAD_BYTES
+        && this.end + GameJournal.FRAME_BYTES + payload > this.size;
+  }
+
+  // returns the offset just past the last valid record read
+  long end() {
+    return this.end;
+  }
+
+  // returns the position in the window of the given field of the current record
+  int at(int field) {
+    return (int) (this.record - this.windowStart) + 4 + field;
+  }
+
+  // returns the code length of the current record's game
+  int length() {
+    return this.window.get(this.at(0));
+  }
+
+  // returns the palette size of the current record's game
+  int colors() {
+    return this.window.get(this.at(1));
+  }
+
+  // to determine whether the current record's game allowed duplicates
+  boolean duplicates() {
+    return this.window.get(this.at(2)) != 0;
+  }
+
+  // returns the number of guesses made in the current record's game
+  int guessCount() {
+    return this.window.getInt(this.at(8));
+  }
+
+  // returns the number of guesses the current record's game allowed
+  int guessesAllowed() {
+    return this.window.getInt(this.at(4));
+  }
+
+  // returns the seed of the current record's game
+  long seed() {
+    return this.window.getLong(this.at(12));
+  }
+
+  // returns the secret of the current record's game
+  long secret() {
+    return this.window.getLong(this.at(20));
+  }
+
+  // returns the guess with the given index in the current record's game
+  long guess(int index) {
+    return this.window.getLong(this.at(GameJournal.FIXED_PAYLOAD_BYTES
+        + index * GameJournal.GUESS_BYTES));
+  }
+
+  // returns the feedback of the guess with the given index
+  int feedback(int index) {
+    return this.window.get(this.at(GameJournal.FIXED_PAYLOAD_BYTES
+        + index * GameJournal.GUESS_BYTES + 8)) & 0xFF;
+  }
+
+  // closes the file if this reader opened it
+  public void close() throws IOException {
+    if (this.owned) {
+      this.channel.close();
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package mastermind;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// collects metrics of the hot paths of the game: latency and allocation
+// histograms of keystrokes, guesses and frames, and counts of the feedback scores
+// computed and the secrets drawn
+//
+// metrics are off unless the JVM runs with -Dmastermind.metrics=true; call sites
+// test the constant ENABLED, so when it is false the JIT drops them entirely.
+// when on, the metrics are published through JMX, and printed to stderr every
+// -Dmastermind.metrics.report=<millis> if that is set
+class GameMetrics implements GameMetricsMBean {
+  static final boolean ENABLED = Boolean.getBoolean("mastermind.metrics");
+  static final GameMetrics GLOBAL = new GameMetrics().startIfEnabled();
+
+  OperationMetrics keyEvents;
+  OperationMetrics guesses;
+  OperationMetrics frames;
+  LongAdder scores;
+  LongAdder secrets;
+  // measures the bytes allocated by the current thread, where the JVM can
+  com.sun.management.ThreadMXBean threads;
+
+  GameMetrics() {
+    this.keyEvents = new OperationMetrics("keystroke", this);
+    this.guesses = new OperationMetrics("guess", this);
+    this.frames = new OperationMetrics("frame", this);
+    this.scores = new LongAdder();
+    this.secrets = new LongAdder();
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+      this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    }
+  }
+
+  // publishes and reports these metrics if they are enabled, returning them
+  GameMetrics startIfEnabled() {
+    if (ENABLED) {
+      this.register();
+      long period = Long.getLong("mastermind.metrics.report", 0);
+      if (period > 0) {
+        this.report(System.err, period);
+      }
+    }
+    return this;
+  }
+
+  // returns the bytes the current thread has allocated so far
+  long allocatedBytes() {
+    return this.threads == null ? 0 : this.threads.getCurrentThreadAllocatedBytes();
+  }
+
+  // counts the given number of feedback scores
+  void scored(long count) {
+    this.scores.add(count);
+  }
+
+  // counts the given number of secrets drawn
+  void drew(long count) {
+    this.secrets.add(count);
+  }
+
+  // publishes these metrics through the platform MBean server
+  void register() {
+    try {
+      ObjectName name = new ObjectName("mastermind:type=GameMetrics");
+      if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+      }
+    }
+    catch (JMException e) {
+      throw new IllegalStateException("Could not register metrics", e);
+    }
+  }
+
+  // prints a snapshot of these metrics to the given stream every given number of
+  // milliseconds, until the returned executor is shut down
+  ScheduledExecutorService report(PrintStream out, long periodMillis) {
+    ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "metrics-reporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    reporter.scheduleAtFixedRate(() -> out.println(this.getSnapshot()), periodMillis,
+        periodMillis, TimeUnit.MILLISECONDS);
+    return reporter;
+  }
+
+  public long getKeyEvents() {
+    return this.keyEvents.nanos.count.sum();
+  }
+
+  public long getKeyEventP99Nanos() {
+    return this.keyEvents.nanos.percentile(0.99);
+  }
+
+  public double getKeyEventAllocatedBytes() {
+    return this.keyEvents.bytes.mean();
+  }
+
+  public long getGuesses() {
+    return this.guesses.nanos.count.sum();
+  }
+
+  public long getGuessP99Nanos() {
+    return this.guesses.nanos.percentile(0.99);
+  }
+
+  public long getFrames() {
+    return this.frames.nanos.count.sum();
+  }
+
+  public long getFrameP99Nanos() {
+    return this.frames.nanos.percentile(0.99);
+  }
+
+  public double getFrameAllocatedBytes() {
+    return this.frames.bytes.mean();
+  }
+
+  public long getScoreEvaluations() {
+    return this.scores.sum();
+  }
+
+  public long getSecretsDrawn() {
+    return this.secrets.sum();
+  }
+
+  public String getSnapshot() {
+    return this.keyEvents.describe() + "\n" + this.guesses.describe() + "\n"
+        + this.frames.describe() + "\n" + "scores " + this.getScoreEvaluations() + ", secrets "
+        + this.getSecretsDrawn();
+  }
+}
+
+// represents the latency and allocation histograms of one kind of operation
+class OperationMetrics {
+  String name;
+  GameMetrics owner;
+  Histogram nanos;
+  Histogram bytes;
+
+  OperationMetrics(String name, GameMetrics owner) {
+    this.name = name;
+    this.owner = owner;
+    this.nanos = new Histogram();
+    this.bytes = new Histogram();
+  }
+
+  // records an operation that started at the given time, when the current thread
+  // had allocated the given number of bytes
+  void end(long startNanos, long startBytes) {
+    this.nanos.record(System.nanoTime() - startNanos);
+    this.bytes.record(this.owner.allocatedBytes() - startBytes);
+  }
+
+  // describes these metrics on one line
+  String describe() {
+    return String.format("%s: %d, p50 %d ns, p99 %d ns, max %d ns, %.1f B/op", this.name,
+        this.nanos.count.sum(), this.nanos.percentile(0.5), this.nanos.percentile(0.99),
+        this.nanos.percentile(1.0), this.bytes.mean());
+  }
+}
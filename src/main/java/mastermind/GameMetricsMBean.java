@@ -0,0 +1,37 @@
+package mastermind;
+
+// the view of GameMetrics published through JMX
+public interface GameMetricsMBean {
+  // the number of keystrokes handled
+  long getKeyEvents();
+
+  // the 99th percentile of the time taken by a keystroke, in nanoseconds
+  long getKeyEventP99Nanos();
+
+  // the mean number of bytes allocated by a keystroke
+  double getKeyEventAllocatedBytes();
+
+  // the number of guesses submitted
+  long getGuesses();
+
+  // the 99th percentile of the time taken to submit a guess, in nanoseconds
+  long getGuessP99Nanos();
+
+  // the number of frames drawn
+  long getFrames();
+
+  // the 99th percentile of the time taken to draw a frame, in nanoseconds
+  long getFrameP99Nanos();
+
+  // the mean number of bytes allocated by a frame
+  double getFrameAllocatedBytes();
+
+  // the number of feedback scores computed
+  long getScoreEvaluations();
+
+  // the number of secrets drawn
+  long getSecretsDrawn();
+
+  // every metric, as text
+  String getSnapshot();
+}
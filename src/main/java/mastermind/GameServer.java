@@ -0,0 +1,411 @@
+package mastermind;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// hosts many games of Mastermind at once over a line-based TCP protocol, one
+// request line and one response line at a time:
+//   NEW <length> <colors> <guesses> <duplicates> [seed]  ->  OK <game>
+//   PEG <game> <color>                                  ->  OK
+//   DEL <game>                                          ->  OK
+//   GUESS <game>                         ->  FEEDBACK <exact> <inexact> <status>
+//   BOARD <game>  ->  BOARD <status> <remaining> [<guess>:<exact>,<inexact>]...
+//   END <game>                                          ->  OK
+//   SAVE <game>                                         ->  SNAPSHOT <snapshot>
+//   LOAD <snapshot>                                     ->  OK <game>
+//   STATS <length> <colors> <duplicates>                ->  STATS <summary>
+//   HINT <game>                                         ->  HINT <guess>
+//   HINTS                                               ->  HINTS <summary>
+// where colors are numbered from 1, a guess is written as its color numbers, a
+// snapshot is a GameSnapshot in base64, so a game can move to another server,
+// status is one of PLAYING, WON or LOST, duplicates is true or false, a game
+// may allow at most GameEngine.MAX_GUESSES guesses, games given a seed or
+// loaded, whose secret the client may know, are left out of the statistics,
+// games left idle for IDLE_MINUTES end, a hint is the guess minimax chooses,
+// remembered for every game that reaches the same position, given only on
+// boards of at most HINT_MAX_CODES codes, and any failure answers ERR <reason>
+class GameServer {
+  // the most positions whose hints are remembered, and the most codes a
+  // configuration may have to be given hints, since minimax scores every code
+  // against every candidate and a request waits for it
+  static final int HINT_CAPACITY = 1 << 16;
+  static final int HINT_MAX_CODES = 1 << 15;
+  // how long a game may go without a request before it ends
+  static final long IDLE_MINUTES = 30;
+
+  ConcurrentHashMap<Long, Session> sessions;
+  // the palettes and code spaces in use, by length, colors and duplicates, shared
+  // by every game that plays them; there are at most as many as valid triples
+  ConcurrentHashMap<String, Mastermind> configs;
+  AtomicLong ids;
+  ServerSocket socket;
+  ExecutorService connections;
+  // released when the server is closed, as the threads serving it may all be
+  // daemons, such as virtual threads
+  CountDownLatch stopped;
+  // where finished games are recorded, if anywhere, and their statistics
+  GameJournal journal;
+  GameStatistics statistics;
+  HintCache hints;
+  // how long, in nanoseconds, a game may go idle, and when idle games were last
+  // looked for
+  long idleNanos;
+  AtomicLong swept;
+
+  GameServer(GameJournal journal) {
+    this.sessions = new ConcurrentHashMap<Long, Session>();
+    this.configs = new ConcurrentHashMap<String, Mastermind>();
+    this.ids = new AtomicLong();
+    this.journal = journal;
+    this.statistics = new GameStatistics(10);
+    this.hints = new HintCache(new MinimaxSolver(), HINT_CAPACITY);
+    this.idleNanos = TimeUnit.MINUTES.toNanos(IDLE_MINUTES);
+    this.swept = new AtomicLong(System.nanoTime());
+  }
+
+  GameServer() {
+    this(null);
+  }
+
+  // serves games on the given port of the loopback address, or on any free port
+  // if it is 0, until closed
+  void start(int port) throws IOException {
+    this.socket = new ServerSocket();
+    this.socket.bind(new InetSocketAddress("127.0.0.1", port), 1024);
+    this.connections = new Utils().threadPerTaskExecutor();
+    this.stopped = new CountDownLatch(1);
+    this.connections.execute(this::accept);
+  }
+
+  // waits until the server is closed
+  void await() throws InterruptedException {
+    this.stopped.await();
+  }
+
+  // returns the port this server listens on
+  int port() {
+    return this.socket.getLocalPort();
+  }
+
+  // stops accepting connections and closes the ones being served
+  void close() throws IOException {
+    this.socket.close();
+    this.connections.shutdownNow();
+    this.stopped.countDown();
+  }
+
+  // accepts connections until the server socket is closed
+  void accept() {
+    try {
+      while (true) {
+        Socket connection = this.socket.accept();
+        this.connections.execute(() -> this.serve(connection));
+      }
+    }
+    catch (IOException e) {
+      // the server socket was closed
+    }
+  }
+
+  // answers the requests of the given connection until it closes
+  void serve(Socket connection) {
+    try (Socket open = connection;
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(open.getInputStream(), StandardCharsets.US_ASCII));
+        BufferedWriter out = new BufferedWriter(
+            new OutputStreamWriter(open.getOutputStream(), StandardCharsets.US_ASCII))) {
+      open.setTcpNoDelay(true);
+      String line = in.readLine();
+      while (line != null) {
+        out.write(this.handle(line));
+        out.write('\n');
+        if (!in.ready()) {
+          out.flush();
+        }
+        line = in.readLine();
+      }
+    }
+    catch (SocketException e) {
+      // the client went away
+    }
+    catch (IOException e) {
+      // the client went away
+    }
+  }
+
+  // answers the given request line
+  String handle(String line) {
+    String[] words = line.trim().split(" +");
+    try {
+      if (words[0].equals("NEW")) {
+        return this.newGame(words);
+      }
+      else if (words[0].equals("LOAD")) {
+        return this.load(words);
+      }
+      else if (words[0].equals("STATS")) {
+        int length = this.length(words[1]);
+        int colors = this.colors(words[2]);
+        return "STATS " + this.statistics.of(length, colors, this.duplicates(words[3]))
+            .describe();
+      }
+      else if (words[0].equals("HINTS")) {
+        return "HINTS " + this.hints.describe();
+      }
+      Session session = this.sessions.get(Long.parseLong(words[1]));
+      if (session == null) {
+        return "ERR unknown game";
+      }
+      session.used = System.nanoTime();
+      if (words[0].equals("END")) {
+        this.sessions.remove(Long.parseLong(words[1]));
+        return "OK";
+      }
+      else if (words[0].equals("HINT")) {
+        return this.hint(session);
+      }
+      session.lock.lock();
+      try {
+        return this.play(session, words);
+      }
+      finally {
+        session.lock.unlock();
+      }
+    }
+    catch (IllegalArgumentException e) {
+      return "ERR " + e.getMessage();
+    }
+    catch (IndexOutOfBoundsException e) {
+      return "ERR missing argument";
+    }
+    catch (IOException e) {
+      return "ERR " + e.getMessage();
+    }
+    catch (RuntimeException e) {
+      // any other request the server cannot make sense of
+      return "ERR " + (e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+    }
+  }
+
+  // starts a game for the given NEW request
+  String newGame(String[] words) {
+    int length = this.length(words[1]);
+    int colors = this.colors(words[2]);
+    int guesses = Integer.parseInt(words[3]);
+    boolean duplicates = this.duplicates(words[4]);
+    if (guesses < 1 || guesses > GameEngine.MAX_GUESSES) {
+      throw new IllegalArgumentException("Invalid Guesses: " + Integer.toString(guesses));
+    }
+    Mastermind shared = this.shared(length, colors, duplicates);
+    Mastermind mastermind = new Mastermind(duplicates, length, guesses, shared.colors);
+    mastermind.space = shared.space;
+    boolean seeded = words.length > 5;
+    long seed;
+    if (seeded) {
+      seed = Long.parseLong(words[5]);
+    }
+    else {
+      seed = ThreadLocalRandom.current().nextLong();
+    }
+    return this.open(new Session(new GameEngine(mastermind, seed), !seeded));
+  }
+
+  // returns the code length given, which must fit a packed code
+  int length(String word) {
+    int length = Integer.parseInt(word);
+    if (length < 1 || length > CodeSpace.MAX_LENGTH) {
+      throw new IllegalArgumentException("Invalid Length: " + Integer.toString(length));
+    }
+    return length;
+  }
+
+  // returns the palette size given, which must fit a packed code
+  int colors(String word) {
+    int colors = Integer.parseInt(word);
+    if (colors < 1 || colors > CodeSpace.MAX_COLORS) {
+      throw new IllegalArgumentException("Invalid Colors: " + Integer.toString(colors));
+    }
+    return colors;
+  }
+
+  // returns whether a game allows duplicates, given as true or false in any case
+  boolean duplicates(String word) {
+    if (word.equalsIgnoreCase("true")) {
+      return true;
+    }
+    else if (word.equalsIgnoreCase("false")) {
+      return false;
+    }
+    throw new IllegalArgumentException("Invalid duplicates: " + word);
+  }
+
+  // resumes the game of the given LOAD request in a new session
+  String load(String[] words) {
+    GameSnapshot snapshot = new GameSnapshot(ByteBuffer.wrap(
+        Base64.getDecoder().decode(words[1])));
+    Mastermind mastermind = snapshot.mastermind();
+    mastermind.space = this.shared(snapshot.length(), snapshot.colors(),
+        snapshot.duplicates()).space;
+    return this.open(new Session(snapshot.engine(mastermind), false));
+  }
+
+  // returns the configuration holding the palette and code space of games of the
+  // given valid length, colors and duplicates, which they share; a game makes its
+  // own configuration around them for the guesses it allows
+  Mastermind shared(int length, int colors, boolean duplicates) {
+    // keyed by the parsed values, so every spelling of a configuration shares it
+    return this.configs.computeIfAbsent(length + " " + colors + " " + duplicates, key -> {
+      Mastermind m = new Mastermind(duplicates, length, 1, new Utils().makePalette(colors));
+      m.space();
+      return m;
+    });
+  }
+
+  // hosts the given session under a new id, first ending the games left idle if
+  // they have not been looked for in a while
+  String open(Session session) {
+    long now = System.nanoTime();
+    long swept = this.swept.get();
+    if (now - swept > this.idleNanos / 4 && this.swept.compareAndSet(swept, now)) {
+      this.sessions.values().removeIf(idle -> now - idle.used > this.idleNanos);
+    }
+    long id = this.ids.incrementAndGet();
+    this.sessions.put(id, session);
+    return "OK " + id;
+  }
+
+  // applies the given request to the given session, which the caller has locked
+  String play(Session session, String[] words) throws IOException {
+    GameEngine engine = session.engine;
+    if (words[0].equals("PEG")) {
+      return engine.addPeg(Integer.parseInt(words[2])) ? "OK" : "ERR peg rejected";
+    }
+    else if (words[0].equals("DEL")) {
+      return engine.deletePeg() ? "OK" : "ERR nothing to delete";
+    }
+    else if (words[0].equals("GUESS")) {
+      int feedback = engine.submitGuess();
+      if (feedback < 0) {
+        return "ERR guess rejected";
+      }
+      if (engine.isOver()) {
+        if (session.ranked) {
+          this.statistics.record(engine, "game " + words[1], System.nanoTime() - session.started);
+        }
+        if (this.journal != null) {
+          this.journal.append(engine);
+        }
+      }
+      return "FEEDBACK " + engine.space.exact(feedback) + " " + engine.space.inexact(feedback)
+          + " " + this.status(engine);
+    }
+    else if (words[0].equals("BOARD")) {
+      StringBuilder board = new StringBuilder("BOARD ").append(this.status(engine))
+          .append(' ').append(engine.remainingGuesses());
+      for (int i = 0; i < engine.submitted; i += 1) {
+        board.append(' ');
+        for (int j = 0; j < engine.space.length; j += 1) {
+          board.append(engine.space.peg(engine.guesses[i], j) + 1);
+        }
+        board.append(':').append(engine.space.exact(engine.feedbacks[i])).append(',')
+            .append(engine.space.inexact(engine.feedbacks[i]));
+      }
+      return board.toString();
+    }
+    else if (words[0].equals("SAVE")) {
+      ByteBuffer snapshot = ByteBuffer.allocate(GameSnapshot.size(engine));
+      GameSnapshot.write(engine, null, snapshot);
+      return "SNAPSHOT " + Base64.getEncoder().encodeToString(snapshot.array());
+    }
+    else {
+      return "ERR unknown request";
+    }
+  }
+
+  // answers a HINT request for the given session: the history is copied under
+  // the session's lock, but searched without it, so the game's other requests
+  // are not held up by the search
+  String hint(Session session) {
+    GameEngine engine = session.engine;
+    long codes = 1;
+    for (int i = 0; i < engine.space.length; i += 1) {
+      codes *= engine.space.duplicates ? engine.space.colors : engine.space.colors - i;
+    }
+    if (codes > HINT_MAX_CODES) {
+      throw new IllegalArgumentException("Too many codes for a hint: " + Long.toString(codes));
+    }
+    long[] guesses;
+    int[] feedbacks;
+    session.lock.lock();
+    try {
+      guesses = Arrays.copyOf(engine.guesses, engine.submitted);
+      feedbacks = Arrays.copyOf(engine.feedbacks, engine.submitted);
+    }
+    finally {
+      session.lock.unlock();
+    }
+    long hint = this.hints.nextGuess(engine.space, guesses, feedbacks, guesses.length);
+    StringBuilder guess = new StringBuilder("HINT ");
+    for (int j = 0; j < engine.space.length; j += 1) {
+      guess.append(engine.space.peg(hint, j) + 1);
+    }
+    return guess.toString();
+  }
+
+  // describes whether the given game is on, won or lost
+  String status(GameEngine engine) {
+    if (engine.isWon()) {
+      return "WON";
+    }
+    else if (engine.isLost()) {
+      return "LOST";
+    }
+    else {
+      return "PLAYING";
+    }
+  }
+
+  // serves games on the port given as the first argument, 7070 by default
+  public static void main(String[] args) throws IOException, InterruptedException {
+    GameServer server = new GameServer();
+    server.start(args.length > 0 ? Integer.parseInt(args[0]) : 7070);
+    System.out.println("Serving Mastermind on port " + server.port());
+    server.await();
+  }
+}
+
+// represents one game hosted by a server, with the lock its requests take,
+// whether it counts towards the statistics, and when it was last asked about
+class Session {
+  GameEngine engine;
+  ReentrantLock lock;
+  boolean ranked;
+  long started;
+  volatile long used;
+
+  Session(GameEngine engine, boolean ranked) {
+    this.engine = engine;
+    this.lock = new ReentrantLock();
+    this.ranked = ranked;
+    this.started = System.nanoTime();
+    this.used = this.started;
+  }
+}
@@ -0,0 +1,150 @@
+package mastermind;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// drives a game server with many concurrent clients, each playing games of the
+// classic configuration by always guessing the first code still consistent with
+// the feedback, and reports throughput and latency percentiles of the requests
+class GameServerLoad {
+  String host;
+  int port;
+  int clients;
+  int games;
+
+  GameServerLoad(String host, int port, int clients, int games) {
+    this.host = host;
+    this.port = port;
+    this.clients = clients;
+    this.games = games;
+  }
+
+  // runs the clients and returns the latencies of every request, in nanoseconds
+  long[] run() throws Exception {
+    ExecutorService threads = new Utils().threadPerTaskExecutor();
+    Future<?>[] results = new Future<?>[this.clients];
+    long[][] latencies = new long[this.clients][];
+    for (int i = 0; i < this.clients; i += 1) {
+      int client = i;
+      results[i] = threads.submit(() -> {
+        latencies[client] = this.play(client);
+        return null;
+      });
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+    threads.shutdown();
+    threads.awaitTermination(1, TimeUnit.MINUTES);
+    int total = 0;
+    for (long[] client : latencies) {
+      total += client.length;
+    }
+    long[] all = new long[total];
+    int size = 0;
+    for (long[] client : latencies) {
+      System.arraycopy(client, 0, all, size, client.length);
+      size += client.length;
+    }
+    return all;
+  }
+
+  // plays this load's number of games as the given client, returning the
+  // latency of every request made
+  long[] play(int client) throws IOException {
+    CodeSpace space = new CodeSpace(4, 6, true);
+    long[] latencies = new long[this.games * 64];
+    int requests = 0;
+    try (Socket socket = new Socket(this.host, this.port);
+        BufferedReader in = new BufferedReader(
+            new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        BufferedWriter out = new BufferedWriter(
+            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+      socket.setTcpNoDelay(true);
+      for (int game = 0; game < this.games; game += 1) {
+        long start = System.nanoTime();
+        String id = this.request(in, out, "NEW 4 6 10 true " + (client * 1000003L + game))
+            .substring(3);
+        latencies[requests] = System.nanoTime() - start;
+        requests += 1;
+        CandidateTracker candidates = new CandidateTracker(space);
+        String status = "PLAYING";
+        while (status.equals("PLAYING")) {
+          long guess = candidates.candidates()[0];
+          String feedback = "";
+          for (int peg = 0; peg <= space.length; peg += 1) {
+            start = System.nanoTime();
+            if (peg < space.length) {
+              this.request(in, out, "PEG " + id + " " + (space.peg(guess, peg) + 1));
+            }
+            else {
+              feedback = this.request(in, out, "GUESS " + id);
+            }
+            latencies[requests] = System.nanoTime() - start;
+            requests += 1;
+          }
+          String[] words = feedback.split(" ");
+          status = words[3];
+          candidates.filter(guess,
+              space.feedback(Integer.parseInt(words[1]), Integer.parseInt(words[2])));
+        }
+        start = System.nanoTime();
+        this.request(in, out, "END " + id);
+        latencies[requests] = System.nanoTime() - start;
+        requests += 1;
+      }
+    }
+    return Arrays.copyOf(latencies, requests);
+  }
+
+  // sends the given request and returns its response
+  String request(BufferedReader in, BufferedWriter out, String request) throws IOException {
+    out.write(request);
+    out.write('\n');
+    out.flush();
+    String response = in.readLine();
+    if (response == null || response.startsWith("ERR")) {
+      throw new IOException("Request " + request + " failed: " + response);
+    }
+    return response;
+  }
+
+  // runs a load against a server, starting one in this process unless a port is
+  // given: [clients] [games per client] [port]
+  public static void main(String[] args) throws Exception {
+    int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int games = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+    GameServer server = null;
+    int port;
+    if (args.length > 2) {
+      port = Integer.parseInt(args[2]);
+    }
+    else {
+      server = new GameServer();
+      server.start(0);
+      port = server.port();
+    }
+    long start = System.nanoTime();
+    long[] latencies = new GameServerLoad("127.0.0.1", port, clients, games).run();
+    double seconds = (System.nanoTime() - start) / 1e9;
+    Arrays.sort(latencies);
+    System.out.printf("%d clients, %d games, %d requests in %.2f s: %.0f requests/s%n", clients,
+        clients * games, latencies.length, seconds, latencies.length / seconds);
+    System.out.printf("latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+        latencies[latencies.length / 2] / 1e3, latencies[(int) (latencies.length * 0.99)] / 1e3,
+        latencies[(int) (latencies.length * 0.999)] / 1e3,
+        latencies[latencies.length - 1] / 1e3);
+    if (server != null) {
+      server.close();
+    }
+  }
+}
@@ -0,0 +1,304 @@
+package mastermind;
+
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+// represents a snapshot of a game in progress, read in place from the buffer that
+// holds it, to save a game and resume it later or in another process: the
+// configuration and palette, the seed and secret, the guesses with their
+// feedbacks, the guess being entered and the color number being typed
+//
+// a snapshot is big-endian, a fixed part followed by the palette, the guesses
+// and a checksum:
+//   int magic, byte version, byte length, byte colors, byte duplicates,
+//   int guesses allowed, int guesses made, long seed, long secret,
+//   long current guess, byte pegs entered, byte digits typed, short number typed,
+//   then int RGB per palette color,
+//   then per guess made: its palette indices packed two per byte, the first peg
+//     in the low bits of the first byte, then byte feedback,
+//   then int CRC32C of everything before it
+class GameSnapshot {
+  static final int MAGIC = 0x4D4D5350;
+  static final int VERSION = 1;
+  static final int FIXED_BYTES = 44;
+  static final int CHECKSUM_BYTES = 4;
+
+  ByteBuffer buffer;
+  // where the snapshot starts in the buffer
+  int start;
+  // the bytes a guess takes
+  int guessBytes;
+
+  // reads the snapshot at the position of the given buffer, checking it, and
+  // moves the buffer past it; the snapshot reads the buffer for as long as it is
+  // used, so the buffer must not be written over meanwhile
+  GameSnapshot(ByteBuffer buffer) {
+    this.buffer = buffer;
+    this.start = buffer.position();
+    if (buffer.remaining() < FIXED_BYTES + CHECKSUM_BYTES
+        || buffer.getInt(this.start) != MAGIC) {
+      throw new IllegalArgumentException("Not a game snapshot");
+    }
+    if (buffer.get(this.start + 4) != VERSION) {
+      throw new IllegalArgumentException("Unsupported game snapshot version: "
+          + Integer.toString(buffer.get(this.start + 4)));
+    }
+    this.guessBytes = GameSnapshot.guessBytes(this.length());
+    if (this.length() < 1 || this.length() > CodeSpace.MAX_LENGTH || this.colors() < 1
+        || this.colors() > CodeSpace.MAX_COLORS || (!this.duplicates()
+        && this.colors() < this.length()) || this.guessesAllowed() < 1
+        || this.guessesAllowed() > GameEngine.MAX_GUESSES || this.guessCount() < 0
+        || this.guessCount() > this.guessesAllowed()) {
+      throw new IllegalArgumentException("Invalid game snapshot");
+    }
+    if ((long) this.guessCount() * (this.guessBytes + 1) + this.palette() + CHECKSUM_BYTES
+        > buffer.limit() - this.start) {
+      throw new IllegalArgumentException("Truncated game snapshot");
+    }
+    int end = this.guess(this.guessCount());
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.duplicate().position(this.start).limit(end));
+    if ((int) crc.getValue() != buffer.getInt(end)) {
+      throw new IllegalArgumentException("Corrupt game snapshot");
+    }
+    if (!this.consistent(new CodeSpace(this.length(), this.colors(), this.duplicates()))) {
+      throw new IllegalArgumentException("Invalid game snapshot");
+    }
+    buffer.position(end + CHECKSUM_BYTES);
+  }
+
+  // to determine whether the given code holds the given number of pegs, each a
+  // color of the given space, and nothing past them; guesses need not follow the
+  // space's rule on duplicates, as the engine takes them either way
+  static boolean fits(CodeSpace space, long code, int pegs) {
+    if ((code & ~((1L << (pegs * CodeSpace.BITS_PER_PEG)) - 1)) != 0) {
+      return false;
+    }
+    for (int i = 0; i < pegs; i += 1) {
+      if (space.peg(code, i) >= space.colors) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // to determine whether this snapshot is of a game that could have been played
+  // in the given space: the checksum only catches damage, not a snapshot made up
+  // to arrive already won or to break the engine, so the secret must be a code of
+  // the space and every guess fit it, every feedback the score of its guess, no guess
+  // may follow a winning one, the guess being entered must hold only the pegs
+  // entered, and the number being typed must fit the palette
+  boolean consistent(CodeSpace space) {
+    if (!space.contains(this.secret())) {
+      return false;
+    }
+    int count = this.guessCount();
+    for (int i = 0; i < count; i += 1) {
+      long guess = this.guessAt(i);
+      if (!GameSnapshot.fits(space, guess, space.length)
+          || this.feedback(i) != space.score(guess, this.secret())
+          || (i < count - 1 && this.feedback(i) == space.solved())) {
+        return false;
+      }
+    }
+    boolean over = count == this.guessesAllowed()
+        || (count > 0 && this.feedback(count - 1) == space.solved());
+    int pegs = this.pegs();
+    if (pegs < 0 || pegs > space.length || (over && pegs > 0)
+        || !GameSnapshot.fits(space, this.current(), pegs)) {
+      return false;
+    }
+    int digits = Integer.toString(space.colors).length();
+    int typed = this.typed();
+    int limit = 1;
+    for (int i = 0; i < typed; i += 1) {
+      limit *= 10;
+    }
+    return typed >= 0 && typed < digits && this.selection() >= 0 && this.selection() < limit;
+  }
+
+  // returns the bytes a guess of the given length takes
+  static int guessBytes(int length) {
+    return (length + 1) / 2;
+  }
+
+  // returns the bytes the snapshot of the given game takes
+  static int size(GameEngine engine) {
+    return FIXED_BYTES + 4 * engine.space.colors
+        + engine.submitted * (GameSnapshot.guessBytes(engine.space.length) + 1)
+        + CHECKSUM_BYTES;
+  }
+
+  // writes the snapshot of the given game at the position of the given buffer,
+  // moving the buffer past it
+  static void write(Game game, ByteBuffer into) {
+    GameSnapshot.write(game.engine, game.keys, into);
+  }
+
+  // writes the snapshot of the given game, and the color number being typed in it
+  // if it is typed through the given keys, at the position of the given buffer,
+  // moving the buffer past it
+  static void write(GameEngine engine, ColorKeys keys, ByteBuffer into) {
+    int start = into.position();
+    CodeSpace space = engine.space;
+    into.putInt(MAGIC).put((byte) VERSION).put((byte) space.length).put((byte) space.colors)
+        .put((byte) (space.duplicates ? 1 : 0)).putInt(engine.guesses.length)
+        .putInt(engine.submitted).putLong(engine.seed).putLong(engine.secret)
+        .putLong(engine.current).put((byte) engine.pegs)
+        .put((byte) (keys == null ? 0 : keys.typed))
+        .putShort((short) (keys == null ? 0 : keys.selection));
+    for (Color color : engine.mastermind.colors.toArray()) {
+      into.putInt(color.getRGB());
+    }
+    int guessBytes = GameSnapshot.guessBytes(space.length);
+    for (int i = 0; i < engine.submitted; i += 1) {
+      long code = engine.guesses[i];
+      for (int b = 0; b < guessBytes; b += 1) {
+        into.put((byte) (code >>> (8 * b)));
+      }
+      into.put((byte) engine.feedbacks[i]);
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(into.duplicate().position(start).limit(into.position()));
+    into.putInt((int) crc.getValue());
+  }
+
+  // returns the snapshot of the given game in a buffer of its own
+  static ByteBuffer of(Game game) {
+    ByteBuffer buffer = ByteBuffer.allocate(GameSnapshot.size(game.engine));
+    GameSnapshot.write(game, buffer);
+    return buffer.flip();
+  }
+
+  int length() {
+    return this.buffer.get(this.start + 5);
+  }
+
+  int colors() {
+    return this.buffer.get(this.start + 6);
+  }
+
+  boolean duplicates() {
+    return this.buffer.get(this.start + 7) != 0;
+  }
+
+  int guessesAllowed() {
+    return this.buffer.getInt(this.start + 8);
+  }
+
+  int guessCount() {
+    return this.buffer.getInt(this.start + 12);
+  }
+
+  long seed() {
+    return this.buffer.getLong(this.start + 16);
+  }
+
+  long secret() {
+    return this.buffer.getLong(this.start + 24);
+  }
+
+  long current() {
+    return this.buffer.getLong(this.start + 32);
+  }
+
+  int pegs() {
+    return this.buffer.get(this.start + 40);
+  }
+
+  int typed() {
+    return this.buffer.get(this.start + 41);
+  }
+
+  int selection() {
+    return this.buffer.getShort(this.start + 42);
+  }
+
+  // returns the RGB of the palette color at the given index
+  int color(int index) {
+    return this.buffer.getInt(this.start + FIXED_BYTES + 4 * index);
+  }
+
+  // returns the offset of the palette's end, where the guesses start
+  int palette() {
+    return FIXED_BYTES + 4 * this.colors();
+  }
+
+  // returns where the guess at the given index starts in the buffer
+  int guess(int index) {
+    return this.start + this.palette() + index * (this.guessBytes + 1);
+  }
+
+  // returns the guess at the given index as a packed code
+  long guessAt(int index) {
+    int at = this.guess(index);
+    long code = 0;
+    for (int b = 0; b < this.guessBytes; b += 1) {
+      code |= (this.buffer.get(at + b) & 0xFFL) << (8 * b);
+    }
+    return code;
+  }
+
+  // returns the feedback of the guess at the given index
+  int feedback(int index) {
+    return this.buffer.get(this.guess(index) + this.guessBytes) & 0xFF;
+  }
+
+  // to determine whether the game was of the given configuration
+  boolean matches(Mastermind that) {
+    if (that.length != this.length() || that.duplicates != this.duplicates()
+        || that.guesses != this.guessesAllowed() || that.colors.length() != this.colors()) {
+      return false;
+    }
+    Color[] colors = that.colors.toArray();
+    for (int i = 0; i < colors.length; i += 1) {
+      if (colors[i].getRGB() != this.color(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns the configuration the game was of
+  Mastermind mastermind() {
+    Color[] colors = new Color[this.colors()];
+    for (int i = 0; i < colors.length; i += 1) {
+      colors[i] = new Color(this.color(i), true);
+    }
+    return new Mastermind(this.duplicates(), this.length(), this.guessesAllowed(),
+        new ArrayLoColor(colors));
+  }
+
+  // returns the game as it was, of the given configuration, which it must have
+  // been of; configurations shared by many games need not be made again
+  GameEngine engine(Mastermind mastermind) {
+    if (!this.matches(mastermind)) {
+      throw new IllegalArgumentException("Snapshot of another configuration");
+    }
+    GameEngine engine = new GameEngine(mastermind, this.seed(), this.secret());
+    int count = this.guessCount();
+    for (int i = 0; i < count; i += 1) {
+      engine.guesses[i] = this.guessAt(i);
+      engine.feedbacks[i] = this.feedback(i);
+    }
+    engine.submitted = count;
+    engine.current = this.current();
+    engine.pegs = this.pegs();
+    return engine;
+  }
+
+  // returns the game as it was, of the given configuration, with the color
+  // number that was being typed
+  Game resume(Mastermind mastermind) {
+    Game game = new Game(mastermind, this.engine(mastermind));
+    game.keys.selection = this.selection();
+    game.keys.typed = this.typed();
+    return game;
+  }
+
+  // returns the game as it was, in the configuration it was of
+  Game resume() {
+    return this.resume(this.mastermind());
+  }
+}
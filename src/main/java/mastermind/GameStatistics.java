@@ -0,0 +1,226 @@
+package mastermind;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// aggregates finished games per configuration as they come in from any number of
+// threads: win and loss counters, histograms of the guesses and time taken, and
+// a leaderboard of the best wins, all in bounded memory with O(1) updates
+class GameStatistics {
+  ConcurrentHashMap<Integer, ConfigStatistics> configs;
+  int leaderboardSize;
+
+  GameStatistics(int leaderboardSize) {
+    this.configs = new ConcurrentHashMap<Integer, ConfigStatistics>();
+    this.leaderboardSize = leaderboardSize;
+  }
+
+  // returns the statistics of the given configuration, starting them if needed
+  ConfigStatistics of(int length, int colors, boolean duplicates) {
+    int key = (length << 8) | (colors << 1) | (duplicates ? 1 : 0);
+    ConfigStatistics stats = this.configs.get(key);
+    if (stats == null) {
+      stats = this.configs.computeIfAbsent(key,
+          k -> new ConfigStatistics(length, colors, duplicates, this.leaderboardSize));
+    }
+    return stats;
+  }
+
+  // records the given finished game, played by the given player in the given time
+  void record(GameEngine engine, String player, long nanos) {
+    this.of(engine.space.length, engine.space.colors, engine.space.duplicates)
+        .record(engine.isWon(), engine.submitted, nanos, player);
+  }
+
+  // records every game of the given journal, which does not record time taken
+  // or players
+  void record(JournalReader reader) throws IOException {
+    while (reader.next()) {
+      int count = reader.guessCount();
+      boolean won = count > 0 && reader.feedback(count - 1) == (reader.length() << 4);
+      this.of(reader.length(), reader.colors(), reader.duplicates())
+          .record(won, count, 0, null);
+    }
+  }
+}
+
+// represents the running statistics of one configuration
+class ConfigStatistics {
+  int length;
+  int colors;
+  boolean duplicates;
+  LongAdder wins;
+  LongAdder losses;
+  // the number of guesses taken by wins, and the time taken by every game
+  Histogram guesses;
+  Histogram nanos;
+  Leaderboard leaderboard;
+
+  ConfigStatistics(int length, int colors, boolean duplicates, int leaderboardSize) {
+    this.length = length;
+    this.colors = colors;
+    this.duplicates = duplicates;
+    this.wins = new LongAdder();
+    this.losses = new LongAdder();
+    this.guesses = new Histogram();
+    this.nanos = new Histogram();
+    this.leaderboard = new Leaderboard(leaderboardSize);
+  }
+
+  // records one finished game
+  void record(boolean won, int guesses, long nanos, String player) {
+    this.nanos.record(nanos);
+    if (won) {
+      this.wins.increment();
+      this.guesses.record(guesses);
+      if (player != null) {
+        this.leaderboard.offer(player, guesses, nanos);
+      }
+    }
+    else {
+      this.losses.increment();
+    }
+  }
+
+  // returns the fraction of games won
+  double winRate() {
+    long wins = this.wins.sum();
+    long games = wins + this.losses.sum();
+    return games == 0 ? 0 : (double) wins / games;
+  }
+
+  // describes these statistics on one line
+  String describe() {
+    return String.format("%dx%d%s: %d games, %.1f%% won, guesses mean %.2f p50 %d p99 %d",
+        this.length, this.colors, this.duplicates ? "" : " no duplicates",
+        this.wins.sum() + this.losses.sum(), this.winRate() * 100, this.guesses.mean(),
+        this.guesses.percentile(0.5), this.guesses.percentile(0.99));
+  }
+}
+
+// counts non-negative values in log-linear buckets, HdrHistogram style: values
+// below 2^SUB_BITS are counted exactly and larger ones to SUB_BITS significant
+// bits, so memory is fixed whatever the range of the values
+class Histogram {
+  static final int SUB_BITS = 5;
+  static final int SUB_BUCKETS = 1 << SUB_BITS;
+  static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+  AtomicLongArray counts;
+  LongAdder count;
+  LongAdder sum;
+
+  Histogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new LongAdder();
+    this.sum = new LongAdder();
+  }
+
+  // returns the bucket the given value is counted in
+  int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) Math.max(0, value);
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    return (exponent - SUB_BITS + 1) * SUB_BUCKETS
+        + (int) ((value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+  }
+
+  // returns the smallest value counted in the given bucket
+  long lowest(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+    return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+  }
+
+  // counts the given value
+  void record(long value) {
+    this.counts.incrementAndGet(this.bucket(value));
+    this.count.increment();
+    this.sum.add(value);
+  }
+
+  // returns the mean of the values counted
+  double mean() {
+    long count = this.count.sum();
+    return count == 0 ? 0 : (double) this.sum.sum() / count;
+  }
+
+  // returns the smallest value of the bucket holding the given quantile
+  long percentile(double quantile) {
+    long count = this.count.sum();
+    long rank = (long) Math.ceil(quantile * count);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i += 1) {
+      seen += this.counts.get(i);
+      if (seen >= Math.max(1, rank)) {
+        return this.lowest(i);
+      }
+    }
+    return 0;
+  }
+}
+
+// keeps the best wins of a configuration, fewest guesses first and then
+// fastest; offers that cannot make the board are turned away without locking
+class Leaderboard {
+  LeaderboardEntry[] entries;
+  int size;
+  // the rank an offer must beat, once the board is full
+  volatile long cutoff;
+
+  Leaderboard(int capacity) {
+    this.entries = new LeaderboardEntry[capacity];
+    this.cutoff = Long.MAX_VALUE;
+  }
+
+  // offers a win to this board, returning whether it made it
+  boolean offer(String player, int guesses, long nanos) {
+    long rank = ((long) guesses << 40) | Math.min(nanos / 1000, (1L << 40) - 1);
+    if (rank >= this.cutoff || this.entries.length == 0) {
+      return false;
+    }
+    synchronized (this) {
+      if (rank >= this.cutoff) {
+        return false;
+      }
+      int at = Math.min(this.size, this.entries.length - 1);
+      while (at > 0 && this.entries[at - 1].rank > rank) {
+        this.entries[at] = this.entries[at - 1];
+        at -= 1;
+      }
+      this.entries[at] = new LeaderboardEntry(player, guesses, nanos, rank);
+      this.size = Math.min(this.size + 1, this.entries.length);
+      if (this.size == this.entries.length) {
+        this.cutoff = this.entries[this.size - 1].rank;
+      }
+      return true;
+    }
+  }
+
+  // returns a copy of the entries of this board, best first
+  synchronized LeaderboardEntry[] top() {
+    LeaderboardEntry[] result = new LeaderboardEntry[this.size];
+    System.arraycopy(this.entries, 0, result, 0, this.size);
+    return result;
+  }
+}
+
+// represents one win on a leaderboard
+class LeaderboardEntry {
+  String player;
+  int guesses;
+  long nanos;
+  long rank;
+
+  LeaderboardEntry(String player, int guesses, long nanos, long rank) {
+    this.player = player;
+    this.guesses = guesses;
+    this.nanos = nanos;
+    this.rank = rank;
+  }
+}
@@ -0,0 +1,246 @@
+package mastermind;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// remembers the guesses a solver chose, so a position asked about again is
+// answered without searching: positions are keyed by the configuration and the
+// history reached, with the history put in a canonical order, since a solver's
+// choice depends on which guesses were made and what they scored, not on the
+// order they were made in, as the partition and optimal solvers' choices do
+//
+// the cache holds at most its capacity of hints found, split into segments that
+// each evict their least recently used position, so threads asking about
+// different positions rarely wait on each other. positions being searched are
+// held apart from them until their search ends, so they cannot be evicted, and
+// threads asking about one wait for that search instead of starting their own
+class HintCache implements ISolver {
+  // the most segments a cache is split into, a power of two
+  static final int SEGMENTS = 16;
+
+  ISolver solver;
+  int capacity;
+  HintSegment[] segments;
+  // the positions being searched
+  ConcurrentHashMap<HintKey, CompletableFuture<Long>> searching;
+  // positions answered from the cache, positions searched, positions answered by
+  // waiting on another thread's search, and positions evicted
+  LongAdder hits;
+  LongAdder misses;
+  LongAdder shared;
+  LongAdder evictions;
+
+  HintCache(ISolver solver, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Invalid cache capacity: " + Integer.toString(capacity));
+    }
+    this.solver = solver;
+    this.capacity = capacity;
+    this.searching = new ConcurrentHashMap<HintKey, CompletableFuture<Long>>();
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.shared = new LongAdder();
+    this.evictions = new LongAdder();
+    int count = Integer.highestOneBit(Math.min(SEGMENTS, capacity));
+    this.segments = new HintSegment[count];
+    for (int i = 0; i < count; i += 1) {
+      this.segments[i] = new HintSegment(capacity / count + (i < capacity % count ? 1 : 0),
+          this.evictions);
+    }
+  }
+
+  // returns the guess the solver chooses for the given history, searching for it
+  // only if no other thread has yet
+  public long nextGuess(CodeSpace space, long[] guesses, int[] feedbacks, int count) {
+    HintKey key = new HintKey(space, guesses, feedbacks, count);
+    HintSegment segment = this.segments[(int) (key.hash >>> 32) & (this.segments.length - 1)];
+    Long cached = this.cached(segment, key);
+    if (cached != null) {
+      this.hits.increment();
+      return cached;
+    }
+    CompletableFuture<Long> hint = new CompletableFuture<Long>();
+    CompletableFuture<Long> found = this.searching.putIfAbsent(key, hint);
+    if (found != null) {
+      this.shared.increment();
+      try {
+        return found.join();
+      }
+      catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
+    // a search may have ended between looking in the cache and claiming the
+    // position, since a search caches its hint before letting the position go
+    cached = this.cached(segment, key);
+    if (cached != null) {
+      this.searching.remove(key, hint);
+      hint.complete(cached);
+      this.hits.increment();
+      return cached;
+    }
+    this.misses.increment();
+    return this.search(segment, key, hint, space, guesses, feedbacks, count);
+  }
+
+  // returns the hint the given segment holds for the given position, or null
+  Long cached(HintSegment segment, HintKey key) {
+    synchronized (segment) {
+      return segment.get(key);
+    }
+  }
+
+  // asks the solver for the guess of the given history, caches it and completes
+  // the given hint with it, or with the failure, which is not cached
+  long search(HintSegment segment, HintKey key, CompletableFuture<Long> hint, CodeSpace space,
+      long[] guesses, int[] feedbacks, int count) {
+    try {
+      long guess = this.solver.nextGuess(space, guesses, feedbacks, count);
+      synchronized (segment) {
+        segment.put(key, guess);
+      }
+      this.searching.remove(key, hint);
+      hint.complete(guess);
+      return guess;
+    }
+    catch (RuntimeException | Error e) {
+      this.searching.remove(key, hint);
+      hint.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  // returns the number of positions held
+  int size() {
+    int size = 0;
+    for (HintSegment segment : this.segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  // returns the fraction of positions asked about that were answered from the
+  // cache or by another thread's search
+  double hitRate() {
+    long hits = this.hits.sum() + this.shared.sum();
+    long asked = hits + this.misses.sum();
+    return asked == 0 ? 0 : (double) hits / asked;
+  }
+
+  // describes the use of this cache on one line
+  String describe() {
+    return String.format("%d of %d held, %d hits, %d misses, %d shared, %d evicted, %.1f%% hit",
+        this.size(), this.capacity, this.hits.sum(), this.misses.sum(), this.shared.sum(),
+        this.evictions.sum(), this.hitRate() * 100);
+  }
+}
+
+// represents a segment of a hint cache, ordered from the least to the most
+// recently used position, which the caller locks
+class HintSegment extends LinkedHashMap<HintKey, Long> {
+  int capacity;
+  LongAdder evictions;
+
+  HintSegment(int capacity, LongAdder evictions) {
+    super(16, 0.75f, true);
+    this.capacity = capacity;
+    this.evictions = evictions;
+  }
+
+  // to determine whether to evict the least recently used position after adding
+  // another
+  protected boolean removeEldestEntry(Map.Entry<HintKey, Long> eldest) {
+    if (this.size() > this.capacity) {
+      this.evictions.increment();
+      return true;
+    }
+    return false;
+  }
+}
+
+// represents a position: a configuration and the guesses made in it with their
+// feedbacks, sorted by guess and then feedback with repeats dropped, so every
+// order of the same guesses is the same position, and a 64-bit hash of it
+class HintKey {
+  int length;
+  int colors;
+  boolean duplicates;
+  long[] guesses;
+  int[] feedbacks;
+  long hash;
+
+  HintKey(CodeSpace space, long[] guesses, int[] feedbacks, int count) {
+    this.length = space.length;
+    this.colors = space.colors;
+    this.duplicates = space.duplicates;
+    this.guesses = Arrays.copyOf(guesses, count);
+    this.feedbacks = Arrays.copyOf(feedbacks, count);
+    // histories are short, so an insertion sort that drops repeats as it goes
+    int distinct = 0;
+    for (int i = 0; i < count; i += 1) {
+      long guess = this.guesses[i];
+      int feedback = this.feedbacks[i];
+      int at = distinct;
+      while (at > 0 && HintKey.compare(this.guesses[at - 1], this.feedbacks[at - 1], guess,
+          feedback) > 0) {
+        at -= 1;
+      }
+      if (at == 0 || HintKey.compare(this.guesses[at - 1], this.feedbacks[at - 1], guess,
+          feedback) != 0) {
+        System.arraycopy(this.guesses, at, this.guesses, at + 1, distinct - at);
+        System.arraycopy(this.feedbacks, at, this.feedbacks, at + 1, distinct - at);
+        this.guesses[at] = guess;
+        this.feedbacks[at] = feedback;
+        distinct += 1;
+      }
+    }
+    if (distinct < count) {
+      this.guesses = Arrays.copyOf(this.guesses, distinct);
+      this.feedbacks = Arrays.copyOf(this.feedbacks, distinct);
+    }
+    long hash = HintKey.mix(this.length << 16 | this.colors << 1 | (this.duplicates ? 1 : 0));
+    for (int i = 0; i < distinct; i += 1) {
+      hash = HintKey.mix(HintKey.mix(hash ^ this.guesses[i]) ^ this.feedbacks[i]);
+    }
+    this.hash = hash;
+  }
+
+  // compares two moves by guess and then feedback
+  static int compare(long guess, int feedback, long otherGuess, int otherFeedback) {
+    if (guess != otherGuess) {
+      return Long.compare(guess, otherGuess);
+    }
+    return Integer.compare(feedback, otherFeedback);
+  }
+
+  // scrambles the bits of the given value, as SplittableRandom does its seeds
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  public int hashCode() {
+    return (int) this.hash;
+  }
+
+  public boolean equals(Object other) {
+    if (!(other instanceof HintKey)) {
+      return false;
+    }
+    HintKey that = (HintKey) other;
+    return this.hash == that.hash && this.length == that.length && this.colors == that.colors
+        && this.duplicates == that.duplicates && Arrays.equals(this.guesses, that.guesses)
+        && Arrays.equals(this.feedbacks, that.feedbacks);
+  }
+}
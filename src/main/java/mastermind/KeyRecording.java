@@ -0,0 +1,355 @@
+package mastermind;
+
+import java.awt.Color;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+// represents a recorded game: its configuration and seed, the keys pressed with
+// the time between each and the one before, and the board they led to
+//
+// the file is a header, the events and a trailer, big-endian:
+//   header: int magic, int version, int length, int guesses, byte duplicates,
+//     long seed, int palette size, one int RGB per palette color
+//   event: byte key (0-9 for the digits, 10 enter, 11 backspace, 12 any other key
+//     followed by it in modified UTF-8), then the nanoseconds since the previous
+//     event as an unsigned varint; the byte 255 ends the events
+//   trailer: int submitted, int pegs, long current, then long guess and byte
+//     feedback per submitted guess
+class KeyRecording {
+  static final int MAGIC = 0x4D4D4B52;
+  static final int VERSION = 1;
+  static final int ENTER = 10;
+  static final int BACKSPACE = 11;
+  static final int OTHER = 12;
+  static final int END = 255;
+  // the digit keys, so reading a recording shares their strings
+  static final String[] DIGITS = { "0", "1", "2", "3", "4", "5", "6", "7", "8", "9" };
+
+  Mastermind mastermind;
+  long seed;
+  String[] keys;
+  long[] delays;
+  int events;
+  // the board the recorded game ended on
+  long[] guesses;
+  int[] feedbacks;
+  int pegs;
+  long current;
+
+  // reads the recording in the given file
+  KeyRecording(Path path) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a key recording: " + path);
+      }
+      if (in.readInt() != VERSION) {
+        throw new IOException("Unsupported key recording version: " + path);
+      }
+      int length = in.readInt();
+      int guesses = in.readInt();
+      boolean duplicates = in.readBoolean();
+      this.seed = in.readLong();
+      int colors = in.readInt();
+      if (length < 1 || length > CodeSpace.MAX_LENGTH || colors < 1
+          || colors > CodeSpace.MAX_COLORS || (!duplicates && colors < length) || guesses < 1
+          || guesses > GameEngine.MAX_GUESSES) {
+        throw new IOException("Invalid key recording: " + path);
+      }
+      Color[] palette = new Color[colors];
+      for (int i = 0; i < palette.length; i += 1) {
+        palette[i] = new Color(in.readInt());
+      }
+      try {
+        this.mastermind = new Mastermind(duplicates, length, guesses,
+            new ArrayLoColor(palette));
+      }
+      catch (IllegalArgumentException e) {
+        throw new IOException("Invalid key recording: " + path, e);
+      }
+      this.keys = new String[64];
+      this.delays = new long[64];
+      for (int code = in.readUnsignedByte(); code != END; code = in.readUnsignedByte()) {
+        if (this.events == this.keys.length) {
+          this.keys = Arrays.copyOf(this.keys, this.events * 2);
+          this.delays = Arrays.copyOf(this.delays, this.events * 2);
+        }
+        this.keys[this.events] = this.keyOf(code, in);
+        this.delays[this.events] = this.readVarLong(in);
+        this.events += 1;
+      }
+      int submitted = in.readInt();
+      this.pegs = in.readInt();
+      if (submitted < 0 || submitted > guesses || this.pegs < 0 || this.pegs > length) {
+        throw new IOException("Invalid key recording: " + path);
+      }
+      this.current = in.readLong();
+      this.guesses = new long[submitted];
+      this.feedbacks = new int[submitted];
+      for (int i = 0; i < submitted; i += 1) {
+        this.guesses[i] = in.readLong();
+        this.feedbacks[i] = in.readUnsignedByte();
+      }
+    }
+    catch (EOFException e) {
+      throw new IOException("Truncated key recording: " + path);
+    }
+  }
+
+  // decodes the key with the given code, reading it from the given stream if it
+  // is not one of the common keys
+  String keyOf(int code, DataInputStream in) throws IOException {
+    if (code < ENTER) {
+      return DIGITS[code];
+    }
+    else if (code == ENTER) {
+      return "enter";
+    }
+    else if (code == BACKSPACE) {
+      return "backspace";
+    }
+    else {
+      return in.readUTF();
+    }
+  }
+
+  // reads an unsigned varint of seven bits per byte, low bits first
+  long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if (b < 0x80) {
+        break;
+      }
+    }
+    return value;
+  }
+
+  // to determine whether the given game ended on the board this recording did
+  boolean matches(GameEngine engine) {
+    return engine.submitted == this.guesses.length && engine.pegs == this.pegs
+        && engine.current == this.current
+        && Arrays.equals(Arrays.copyOf(engine.guesses, engine.submitted), this.guesses)
+        && Arrays.equals(Arrays.copyOf(engine.feedbacks, engine.submitted), this.feedbacks);
+  }
+}
+
+// records the keys pressed in a game to a file, in the format of KeyRecording
+class KeyRecorder implements AutoCloseable {
+  GameEngine engine;
+  DataOutputStream out;
+  // when the last key was recorded
+  long last;
+
+  // starts recording the given game, which has not been played yet, into the
+  // given file
+  KeyRecorder(Path path, GameEngine engine) throws IOException {
+    this.engine = engine;
+    this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    Color[] palette = engine.mastermind.colors.toArray();
+    this.out.writeInt(KeyRecording.MAGIC);
+    this.out.writeInt(KeyRecording.VERSION);
+    this.out.writeInt(engine.mastermind.length);
+    this.out.writeInt(engine.mastermind.guesses);
+    this.out.writeBoolean(engine.mastermind.duplicates);
+    this.out.writeLong(engine.seed);
+    this.out.writeInt(palette.length);
+    for (Color color : palette) {
+      this.out.writeInt(color.getRGB());
+    }
+    this.last = System.nanoTime();
+  }
+
+  // records the given key, pressed now
+  void record(String key) {
+    long now = System.nanoTime();
+    try {
+      if (key.length() == 1 && key.charAt(0) >= '0' && key.charAt(0) <= '9') {
+        this.out.writeByte(key.charAt(0) - '0');
+      }
+      else if (key.equals("enter")) {
+        this.out.writeByte(KeyRecording.ENTER);
+      }
+      else if (key.equals("backspace")) {
+        this.out.writeByte(KeyRecording.BACKSPACE);
+      }
+      else {
+        this.out.writeByte(KeyRecording.OTHER);
+        this.out.writeUTF(key);
+      }
+      this.writeVarLong(now - this.last);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.last = now;
+  }
+
+  // writes the given non-negative value as an unsigned varint
+  void writeVarLong(long value) throws IOException {
+    while (value >= 0x80) {
+      this.out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    this.out.writeByte((int) value);
+  }
+
+  // ends the recording with the board the game is on
+  public void close() throws IOException {
+    this.out.writeByte(KeyRecording.END);
+    this.out.writeInt(this.engine.submitted);
+    this.out.writeInt(this.engine.pegs);
+    this.out.writeLong(this.engine.current);
+    for (int i = 0; i < this.engine.submitted; i += 1) {
+      this.out.writeLong(this.engine.guesses[i]);
+      this.out.writeByte(this.engine.feedbacks[i]);
+    }
+    this.out.close();
+  }
+}
+
+// replays recorded games headlessly at full speed, in parallel across
+// recordings: each key goes through Game.onKeyEvent followed by Game.makeScene,
+// as the world loop would do, timing each event, and each game must end on the
+// board its recording did
+class ReplayHarness {
+  ForkJoinPool pool;
+  // the time each event took to handle and draw, in nanoseconds
+  Histogram latency;
+  LongAdder events;
+  LongAdder replayed;
+  // the recordings that could not be read or ended on a different board
+  ConcurrentLinkedQueue<Path> mismatched;
+
+  ReplayHarness(ForkJoinPool pool) {
+    this.pool = pool;
+    this.latency = new Histogram();
+    this.events = new LongAdder();
+    this.replayed = new LongAdder();
+    this.mismatched = new ConcurrentLinkedQueue<Path>();
+  }
+
+  ReplayHarness() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  // replays every given recording, returning this harness
+  ReplayHarness replay(List<Path> recordings) {
+    this.pool.invoke(new ReplayRecordings(this, recordings, 0, recordings.size()));
+    return this;
+  }
+
+  // replays the given recording, returning whether the game ended on the board
+  // it was recorded on
+  boolean replay(Path path) {
+    KeyRecording recording;
+    try {
+      recording = new KeyRecording(path);
+    }
+    catch (IOException e) {
+      this.mismatched.add(path);
+      return false;
+    }
+    try {
+      return this.replay(path, recording);
+    }
+    catch (RuntimeException e) {
+      // a recording that breaks the game must not stop the others replaying
+      this.mismatched.add(path);
+      return false;
+    }
+  }
+
+  // replays the given recording read from the given file, as replay does
+  boolean replay(Path path, KeyRecording recording) {
+    Game game = new Game(recording.mastermind, recording.seed);
+    for (int i = 0; i < recording.events; i += 1) {
+      long started = System.nanoTime();
+      game.onKeyEvent(recording.keys[i]);
+      game.makeScene();
+      this.latency.record(System.nanoTime() - started);
+    }
+    this.events.add(recording.events);
+    this.replayed.increment();
+    if (!recording.matches(game.engine)) {
+      this.mismatched.add(path);
+      return false;
+    }
+    return true;
+  }
+
+  // describes the replays so far on one line
+  String describe() {
+    return String.format("%d recordings, %d events, %d mismatched, p50 %d ns, p99 %d ns, "
+        + "max %d ns", this.replayed.sum(), this.events.sum(), this.mismatched.size(),
+        this.latency.percentile(0.5), this.latency.percentile(0.99),
+        this.latency.percentile(1.0));
+  }
+
+  // replays the recordings in the given files and directories, printing a
+  // summary and every mismatch, and exits with 1 if there were any
+  public static void main(String[] args) throws IOException {
+    List<Path> recordings = new ArrayList<Path>();
+    for (String arg : args) {
+      Path path = Paths.get(arg);
+      if (Files.isDirectory(path)) {
+        try (Stream<Path> files = Files.list(path)) {
+          files.filter(Files::isRegularFile).sorted().forEach(recordings::add);
+        }
+      }
+      else {
+        recordings.add(path);
+      }
+    }
+    ReplayHarness harness = new ReplayHarness().replay(recordings);
+    System.out.println(harness.describe());
+    for (Path path : harness.mismatched) {
+      System.out.println("mismatch: " + path);
+    }
+    System.exit(harness.mismatched.isEmpty() ? 0 : 1);
+  }
+}
+
+// replays a range of recordings, splitting it across the pool
+class ReplayRecordings extends RecursiveAction {
+  ReplayHarness harness;
+  List<Path> recordings;
+  int from;
+  int to;
+
+  ReplayRecordings(ReplayHarness harness, List<Path> recordings, int from, int to) {
+    this.harness = harness;
+    this.recordings = recordings;
+    this.from = from;
+    this.to = to;
+  }
+
+  // replays every recording in this range
+  protected void compute() {
+    if (this.to - this.from > 1) {
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new ReplayRecordings(this.harness, this.recordings, this.from, middle),
+          new ReplayRecordings(this.harness, this.recordings, middle, this.to));
+    }
+    else if (this.to > this.from) {
+      this.harness.replay(this.recordings.get(this.from));
+    }
+  }
+}
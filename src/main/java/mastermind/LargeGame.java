@@ -0,0 +1,105 @@
+package mastermind;
+
+import javalib.funworld.*;
+import java.util.SplittableRandom;
+
+// represents a game of Mastermind on a board too large to pack into a code space,
+// such as 64 colors, codes of 32 pegs and hundreds of guesses, played on lists of
+// colors: colors are typed as numbers of several digits, the newest guess is
+// drawn at the bottom of the board, and every step costs time linear in the size
+// of the board with a stack of constant depth; the guess being entered is an
+// ArrayLoColor, so adding and deleting pegs are O(1)
+class LargeGame extends World {
+  Mastermind mastermind;
+  ILoColor sequence;
+  // the submitted guesses and their matches, newest first
+  ILoList guesses;
+  ILoPair matches;
+  int submitted;
+  // the guess being entered
+  ILoColor current;
+  ColorKeys keys;
+  // the layers of the scene, as a SceneCache keeps them: the static layer, and
+  // the submitted guesses drawn on it, which are drawn again only when a guess
+  // is submitted, since the newest guess is drawn at the bottom and each submit
+  // moves the others up, and how many guesses that layer holds
+  WorldScene base;
+  WorldScene committed;
+  int drawn;
+
+  LargeGame(Mastermind mastermind, ILoColor sequence) {
+    this.mastermind = mastermind;
+    this.sequence = sequence;
+    this.guesses = new MtLoList();
+    this.matches = new MtLoPair();
+    this.current = new ArrayLoColor();
+    this.keys = new ColorKeys(mastermind.colors.length());
+    this.drawn = -1;
+  }
+
+  LargeGame(Mastermind mastermind, long seed) {
+    this(mastermind, mastermind.makeSequence(seed));
+  }
+
+  LargeGame(Mastermind mastermind) {
+    this(mastermind, new SplittableRandom().nextLong());
+  }
+
+  // to determine whether the last submitted guess was the sequence
+  boolean isWon() {
+    return this.matches instanceof ConsLoPair
+        && ((ConsLoPair) this.matches).first.first == this.mastermind.length;
+  }
+
+  // to determine whether this game has ended
+  boolean isOver() {
+    return this.isWon() || this.submitted == this.mastermind.guesses;
+  }
+
+  // draws the game: the guess being entered on the bottom row while the game is
+  // on, and the submitted guesses with their matches above it; a frame while a
+  // guess is typed only draws that guess on the cached layers
+  public WorldScene makeScene() {
+    int down = this.mastermind.paletteDown() - 40;
+    if (this.base == null) {
+      this.base = this.mastermind.makeBaseScene();
+    }
+    if (this.drawn != this.submitted) {
+      int rows = this.isOver() ? down : down - 40;
+      this.committed = this.matches.drawMatches(this.guesses.drawGuesses(this.base, rows),
+          (this.mastermind.length * 40) + 25, rows);
+      this.drawn = this.submitted;
+    }
+    if (this.isOver()) {
+      return this.committed;
+    }
+    return this.current.drawColors(this.committed, 25, down);
+  }
+
+  public World onKeyEvent(String key) {
+    if (this.isOver()) {
+      return this;
+    }
+    else if (key.equals("enter")) {
+      if (this.current.length() == this.mastermind.length) {
+        this.matches = new ConsLoPair(this.mastermind.score(this.current, this.sequence),
+            this.matches);
+        this.guesses = new ConsLoList(this.current, this.guesses);
+        this.submitted += 1;
+        this.current = new ArrayLoColor();
+      }
+    }
+    else if (key.equals("backspace")) {
+      if (!this.keys.clear()) {
+        this.current = this.current.deleteLast();
+      }
+    }
+    else {
+      int color = this.keys.press(key);
+      if (color > 0) {
+        this.current = this.mastermind.addColor(color, this.current);
+      }
+    }
+    return this;
+  }
+}
@@ -0,0 +1,2567 @@
+package mastermind;
+
+import javalib.funworld.*;
+import javalib.worldimages.*;
+import tester.*;
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// represents a configuration for a game of Mastermind
+class Mastermind {
+  boolean duplicates;
+  int length;
+  int guesses;
+  ILoColor colors;
+  // the packed code space of this configuration, built on first use
+  CodeSpace space;
+
+  Mastermind(boolean duplicates, int length, int guesses, ILoColor colors) {
+    this.duplicates = duplicates;
+    this.length = new Utils().checkLessThanOne(length,
+        "Invalid Length: " + Integer.toString(length));
+    this.guesses = new Utils().checkLessThanOne(guesses,
+        "Invalid Guesses: " + Integer.toString(guesses));
+    this.colors = new Utils().checkColors(colors, length, duplicates);
+  }
+
+  // makes a random sequence of colors
+  ILoColor makeSequence() {
+    return this.makeSequence(new SplittableRandom().nextLong());
+  }
+
+  // makes a sequence of colors drawn from the given seed
+  ILoColor makeSequence(long seed) {
+    if (this.packs()) {
+      return this.makeSequence(new SecretGenerator(this.space(), seed));
+    }
+    else {
+      return this.makeSequence(new SplittableRandom(seed));
+    }
+  }
+
+  // makes a random sequence of colors from the given random without packing it,
+  // for configurations too large for a code space
+  ILoColor makeSequence(SplittableRandom random) {
+    Color[] palette = this.colors.toArray();
+    Color[] sequence = new Color[this.length];
+    for (int i = 0; i < this.length; i += 1) {
+      if (this.duplicates) {
+        sequence[i] = palette[random.nextInt(palette.length)];
+      }
+      else {
+        int j = i + random.nextInt(palette.length - i);
+        sequence[i] = palette[j];
+        palette[j] = palette[i];
+        palette[i] = sequence[i];
+      }
+    }
+    return new ArrayLoColor(sequence);
+  }
+
+  // to determine whether the codes of this configuration fit a packed code space;
+  // larger boards are played on lists of colors instead
+  boolean packs() {
+    return this.length <= CodeSpace.MAX_LENGTH && this.colors.length() <= CodeSpace.MAX_COLORS;
+  }
+
+  // makes a random sequence of colors drawn from the given generator
+  ILoColor makeSequence(SecretGenerator generator) {
+    return this.space().unpack(generator.next(), this.colors);
+  }
+
+  // draws the canvas of appropriate size for this Mastermind
+  public WorldScene makeScene(ILoList guesses, ILoPair matches, ILoColor sequence) {
+    WorldScene scene4 = this.makeBaseScene();
+    int down = this.paletteDown();
+    WorldScene scene5 = guesses.drawGuesses(scene4, down - 40);
+    return matches.drawMatches(scene5, (this.length * 40) + 25, down - 40);
+  }
+
+  // draws the parts of the canvas that do not change during a game: the header,
+  // the color palette and the empty grid
+  WorldScene makeBaseScene() {
+    int boxLength = (this.length * 40);
+    int boxHeight = 50;
+    WorldScene scene = new WorldScene(boxLength + 90,
+        boxHeight + 40 + ((this.guesses * 30) + ((this.guesses + 1) * 10)));
+    WorldImage rect = new RectangleImage(boxLength, boxHeight, OutlineMode.SOLID, Color.BLACK)
+        .movePinholeTo(new Posn(-1 * boxLength / 2, -1 * boxHeight / 2));
+    WorldScene scene2 = scene.placeImageXY(rect, 0, 0);
+    WorldScene scene3 = this.colors.drawColors(scene2, 25, this.paletteDown());
+    return this.drawGrid(scene3, this.guesses, boxHeight + 25);
+  }
+
+  // computes how far down the canvas the color palette is drawn
+  int paletteDown() {
+    return (this.guesses * 30) + ((this.guesses + 1) * 10) + 15 + 50;
+  }
+
+  // computes how far down the canvas the guess with the given index is drawn,
+  // with the first guess on the bottom row of the grid
+  int rowDown(int index) {
+    return this.paletteDown() - 40 - (index * 40);
+  }
+
+  // draws the submitted guess of the given game with the given index and its
+  // feedback onto the given scene
+  WorldScene drawSubmitted(WorldScene scene, GameEngine engine, int index) {
+    int down = this.rowDown(index);
+    WorldScene drawn = engine.space.toPair(engine.feedbacks[index]).drawPair(
+        engine.space.unpack(engine.guesses[index], this.colors).drawColors(scene, 25, down),
+        (this.length * 40) + 25, down);
+    if (engine.remaining == null) {
+      return drawn;
+    }
+    else {
+      return drawn.placeImageXY(new TextImage(Integer.toString(engine.remaining[index]), 11,
+          Color.GRAY), (this.length * 40) + 45, down + 17);
+    }
+  }
+
+  // draws the guess the given game is entering onto the given scene
+  WorldScene drawActive(WorldScene scene, GameEngine engine) {
+    return engine.space.unpack(engine.current, engine.pegs, this.colors)
+        .drawColors(scene, 25, this.rowDown(engine.submitted));
+  }
+
+  // draws a grid on a given scene, the bottom row first
+  public WorldScene drawGrid(WorldScene scene, int guesses, int down) {
+    for (int i = guesses - 1; i >= 0; i -= 1) {
+      scene = this.drawRow(scene, 25, down + (i * 40), this.length);
+    }
+    return scene;
+  }
+
+  // draws a row of a grid on a given scene, the rightmost circle first
+  public WorldScene drawRow(WorldScene scene, int right, int down, int length) {
+    for (int i = length - 1; i >= 0; i -= 1) {
+      scene = scene.placeImageXY(new CircleImage(15, OutlineMode.OUTLINE, Color.BLACK),
+          right + (i * 40), down);
+    }
+    return scene;
+  }
+
+  // returns the color, numbered from 1, that the given key selects, or 0 if it
+  // does not select one
+  int colorForKey(String key) {
+    if (key.length() == 1 && "123456789".contains(key)
+        && Integer.valueOf(key) <= this.colors.length()) {
+      return Integer.valueOf(key);
+    }
+    else {
+      return 0;
+    }
+  }
+
+  // modifies an empty list of list of colors based on given key
+  public ILoList makeGuessesEmpty(String key, ILoList list) {
+    if (this.colorForKey(key) > 0) {
+      return new ConsLoList(new ConsLoColor(this.makeGuess(key), new MtLoColor()), new MtLoList());
+    }
+    else {
+      return list;
+    }
+  }
+
+  // modifies a non-empty list of list of colors based on given key, where first
+  // is the last guess of that list, copying the list only when the guess changes
+  public ILoList makeGuesses(String key, ILoColor first, ILoList rest) {
+    ILoColor edited = this.editGuess(key, first);
+    if (edited == first) {
+      return rest;
+    }
+    else {
+      return rest.replaceLast(edited);
+    }
+  }
+
+  // modifies the given guess based on given key
+  ILoColor editGuess(String key, ILoColor guess) {
+    if (this.colorForKey(key) > 0) {
+      return this.makeGuessCons(key, guess);
+    }
+    else if (key.equals("backspace")) {
+      return this.deleteLast(guess);
+    }
+    else {
+      return guess;
+    }
+  }
+
+  public Color makeGuess(String key) {
+    return this.colors.chooseColor(Integer.valueOf(key), 1);
+  }
+
+  public ILoColor makeGuessCons(String key, ILoColor list) {
+    return this.addColor(Integer.valueOf(key), list);
+  }
+
+  // adds the color with the given number, counting from 1, to the end of the
+  // given guess unless it is full
+  ILoColor addColor(int color, ILoColor guess) {
+    if (guess.length() == this.length) {
+      return guess;
+    }
+    else {
+      return guess.append(new ConsLoColor(this.colors.chooseColor(color, 1), new MtLoColor()));
+    }
+  }
+
+  public ILoColor deleteLast(ILoColor first) {
+    return first.deleteLast();
+  }
+
+  // returns the packed code space of this configuration
+  CodeSpace space() {
+    if (this.space == null) {
+      this.space = new CodeSpace(this.length, this.colors.length(), this.duplicates);
+    }
+    return this.space;
+  }
+
+  // suggests the next guess for the given submitted guesses and their matches
+  // using the given solver
+  ILoColor hint(ILoList guesses, ILoPair matches, ISolver solver) {
+    CodeSpace space = this.space();
+    int count = matches.length();
+    long[] packed = new long[count];
+    int[] feedbacks = new int[count];
+    guesses.packGuesses(space, this.colors, packed, 0);
+    matches.packFeedbacks(space, feedbacks, count - 1);
+    return space.unpack(solver.nextGuess(space, packed, feedbacks, count), this.colors);
+  }
+
+  // converts the submitted guesses of the given game, followed by the guess being
+  // entered while the game is on, into a list of list of colors
+  ILoList guessesOf(GameEngine engine) {
+    ILoList result = new MtLoList();
+    if (!engine.isOver()) {
+      result = new ConsLoList(engine.space.unpack(engine.current, engine.pegs, this.colors),
+          result);
+    }
+    for (int i = engine.submitted - 1; i >= 0; i -= 1) {
+      result = new ConsLoList(engine.space.unpack(engine.guesses[i], this.colors), result);
+    }
+    return result;
+  }
+
+  // converts the feedbacks of the given game into a list of pairs, newest first
+  ILoPair matchesOf(GameEngine engine) {
+    ILoPair result = new MtLoPair();
+    for (int i = 0; i < engine.submitted; i += 1) {
+      result = new ConsLoPair(engine.space.toPair(engine.feedbacks[i]), result);
+    }
+    return result;
+  }
+
+  // scores the given guess against the given sequence
+  PairOfNumbers score(ILoColor guess, ILoColor sequence) {
+    if (GameMetrics.ENABLED) {
+      GameMetrics.GLOBAL.scored(1);
+    }
+    if (!this.packs()) {
+      return new PairOfNumbers(guess.countExact(sequence),
+          guess.countInexact(sequence, this.colors));
+    }
+    CodeSpace space = this.space();
+    return space.toPair(space.score(space.pack(guess, this.colors),
+        space.pack(sequence, this.colors)));
+  }
+}
+
+// to contain utility methods
+class Utils {
+  // to check if length or guesses arguments of Mastermind constructor is less
+  // than one
+  int checkLessThanOne(int field, String msg) {
+    if (field < 1) {
+      throw new IllegalArgumentException(msg);
+    }
+    else {
+      return field;
+    }
+  }
+
+  // to check whether the length of the list of colors is valid
+  ILoColor checkColors(ILoColor colors, int length, boolean duplicates) { // TESTS NEEDED
+    return colors.checkLength(length, duplicates);
+  }
+
+  // makes an executor that runs every task on a thread of its own: a virtual
+  // thread where the runtime has them (Java 21 on), a pooled platform thread
+  // otherwise
+  ExecutorService threadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    }
+    catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  // builds the list of the given colors from index from up to index to, followed
+  // by the given tail
+  ILoColor listOf(Color[] colors, int from, int to, ILoColor tail) {
+    ILoColor result = tail;
+    for (int i = to - 1; i >= from; i -= 1) {
+      result = new ConsLoColor(colors[i], result);
+    }
+    return result;
+  }
+
+  // builds the list of the given number of lists of colors, followed by the given
+  // tail
+  ILoList listOf(ILoColor[] lists, int count, ILoList tail) {
+    ILoList result = tail;
+    for (int i = count - 1; i >= 0; i -= 1) {
+      result = new ConsLoList(lists[i], result);
+    }
+    return result;
+  }
+
+  // makes a palette of the given number of distinct colors, starting with the
+  // named colors and then spreading further hues around the color wheel
+  ILoColor makePalette(int colors) {
+    Color[] named = { Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW, Color.MAGENTA,
+        Color.CYAN, Color.ORANGE, Color.PINK, Color.GRAY };
+    Color[] palette = new Color[colors];
+    for (int i = 0; i < colors; i += 1) {
+      if (i < named.length) {
+        palette[i] = named[i];
+      }
+      else {
+        palette[i] = Color.getHSBColor((float) (i - named.length) / (colors - named.length),
+            0.6f, 0.6f);
+      }
+    }
+    return new ArrayLoColor(palette);
+  }
+}
+
+// to represent a list of colors
+interface ILoColor {
+  // to check if the length of this ILoColor is less than the given integer
+  ILoColor checkLength(int length, boolean duplicates);
+
+  // draws this list of colors onto a given scene
+  WorldScene drawColors(WorldScene scene, int right, int down);
+
+  // to determine the length of this list
+  int length();
+
+  // to determine whether this list is empty
+  boolean isEmpty();
+
+  // copies the colors of this list into an array
+  Color[] toArray();
+
+  // chooses the color at the given index
+  Color chooseColor(int index, int start);
+
+  // outputs a new list of colors for makeSequence() recursion
+  ILoColor newColors(int colorIndex, boolean duplicates, int start);
+
+  // deletes the last element of this list of Colors
+  ILoColor deleteLast();
+
+  // appends that ILoColor to this ILoColor
+  ILoColor append(ILoColor that);
+
+  // updates list of exact-inexact match pairs to contain most exact
+  // and inexact matches for this list of colors
+  ILoPair compareWith(ILoColor sequence, ILoPair matches, ILoColor colors);
+
+  // computes number of exact matches this list of Colors has with the given one
+  int countExact(ILoColor that);
+
+  // computes number of exact matches this list of Colors has with the given one
+  int countExactHelper(Color first, ILoColor rest);
+
+  int countInexact(ILoColor that, ILoColor colors);
+
+  // removes color at given Index from this list
+  ILoColor dropIndex(int i, int start);
+
+  // determines number of inexactMatches by counting each color in both lists
+  int countEachColor(ILoColor list1, ILoColor list2);
+
+  // drops exact matches in this list with the given one
+  ILoColor dropExact(ILoColor that);
+
+  // drops exact matches in this list with the given one
+  ILoColor dropExactHelper(Color first, ILoColor rest);
+
+  int countColor(Color first, ILoColor list);
+
+  int countColorHelp(Color color);
+
+  // returns the index of the given color in this list counting from start, or -1
+  // if it is not in this list
+  int indexOf(Color color, int start);
+
+  // packs this list of colors into the pegs of a code from the given position on,
+  // using indices into the given palette
+  long pack(ILoColor palette, int position);
+}
+
+// to represent an empty list of colors
+class MtLoColor implements ILoColor {
+  MtLoColor() {
+  }
+
+  // checks if the length of this list is valid
+  public ILoColor checkLength(int length, boolean duplicates) {
+    throw new IllegalArgumentException("Invalid list length");
+  }
+
+  // to determine the length of this empty list
+  public int length() {
+    return 0;
+  }
+
+  // to determine whether this empty list is empty
+  public boolean isEmpty() {
+    return true;
+  }
+
+  // copies the colors of this empty list into an array
+  public Color[] toArray() {
+    return new Color[0];
+  }
+
+  // chooses the color at the given index
+  public Color chooseColor(int index, int start) {
+    return null;
+  }
+
+  // outputs a new list of colors for makeSequence() recursion
+  public ILoColor newColors(int colorIndex, boolean duplicates, int start) {
+    return null;
+  }
+
+  // draws this empty list of colors onto a given scene
+  public WorldScene drawColors(WorldScene scene, int right, int down) {
+    return scene;
+  }
+
+  // deletes the last elements of this empty list of Colors
+  public ILoColor deleteLast() {
+    return this;
+  }
+
+  // append that ILoColor to this empty ILoColor
+  public ILoColor append(ILoColor that) {
+    return that;
+  }
+
+  //
+  public ILoPair compareWith(ILoColor sequence, ILoPair matches, ILoColor colors) {
+    return new ConsLoPair(new PairOfNumbers(1, 2), matches);
+  }
+
+  // counts the number of exact matches this empty list of Colors has with the
+  // given one
+  public int countExact(ILoColor that) {
+    return 0;
+  }
+
+  // computes number of exact matches this list of Colors has with the given one
+  public int countExactHelper(Color first, ILoColor rest) {
+    return 0;
+  }
+
+  // removes Color at given index from this list
+  public ILoColor dropIndex(int i, int start) {
+    return this;
+  }
+
+  // counts the number of inexact matches between this list and the given one.
+  public int countInexact(ILoColor that, ILoColor colors) {
+    return 0;
+  }
+
+  @Override
+  public int countEachColor(ILoColor list1, ILoColor list2) {
+    return 0;
+  }
+
+  // drops exact matches in this list with the given one
+  public ILoColor dropExact(ILoColor that) {
+    return this;
+  }
+
+  // drops exact matches in this list with the given one
+  public ILoColor dropExactHelper(Color first, ILoColor rest) {
+    return this;
+  }
+
+  @Override
+  public int countColor(Color first, ILoColor list) {
+    return 0;
+  }
+
+  @Override
+  public int countColorHelp(Color color) {
+    return 0;
+  }
+
+  // returns the index of the given color in this empty list
+  public int indexOf(Color color, int start) {
+    return -1;
+  }
+
+  // packs this empty list of colors into the pegs of a code
+  public long pack(ILoColor palette, int position) {
+    return 0;
+  }
+}
+
+// to represent a non-empty list of colors; its operations walk the list in loops
+// rather than recursing, so long codes and palettes keep the stack shallow
+class ConsLoColor implements ILoColor {
+  Color first;
+  ILoColor rest;
+
+  ConsLoColor(Color first, ILoColor rest) {
+    this.first = first;
+    this.rest = rest;
+  }
+
+  // checks if the length of this list is valid
+  public ILoColor checkLength(int length, boolean duplicates) {
+    if (!duplicates && this.length() < length) {
+      throw new IllegalArgumentException("Invalid list length");
+    }
+    else {
+      return this;
+    }
+  }
+
+  // to return the length of this non-empty list of strings
+  public int length() {
+    int length = 0;
+    ILoColor list = this;
+    while (list instanceof ConsLoColor) {
+      length += 1;
+      list = ((ConsLoColor) list).rest;
+    }
+    return length + list.length();
+  }
+
+  // to determine whether this non-empty list is empty
+  public boolean isEmpty() {
+    return false;
+  }
+
+  // copies the colors of this non-empty list into an array
+  public Color[] toArray() {
+    Color[] result = new Color[this.length()];
+    int i = 0;
+    ILoColor list = this;
+    while (list instanceof ConsLoColor) {
+      result[i] = ((ConsLoColor) list).first;
+      i += 1;
+      list = ((ConsLoColor) list).rest;
+    }
+    Color[] tail = list.toArray();
+    System.arraycopy(tail, 0, result, i, tail.length);
+    return result;
+  }
+
+  // chooses the color at the given index
+  public Color chooseColor(int index, int start) {
+    ILoColor list = this;
+    while (list instanceof ConsLoColor) {
+      if (start == index) {
+        return ((ConsLoColor) list).first;
+      }
+      start += 1;
+      list = ((ConsLoColor) list).rest;
+    }
+    return list.chooseColor(index, start);
+  }
+
+  // outputs a new list of colors for makeSequence() recursion
+  public ILoColor newColors(int colorIndex, boolean duplicates, int start) {
+    if (duplicates) {
+      return this;
+    }
+    else {
+      return this.dropIndex(colorIndex, start);
+    }
+  }
+
+  // draws this non-empty list of colors onto a given scene, last color first
+  public WorldScene drawColors(WorldScene scene, int right, int down) {
+    Color[] colors = this.toArray();
+    for (int i = colors.length - 1; i >= 0; i -= 1) {
+      scene = scene.placeImageXY(new CircleImage(15, OutlineMode.SOLID, colors[i]),
+          right + (i * 40), down);
+    }
+    return scene;
+  }
+
+  // deletes the last element of this non-empty list of Colors
+  public ILoColor deleteLast() {
+    Color[] colors = this.toArray();
+    return new Utils().listOf(colors, 0, colors.length - 1, new MtLoColor());
+  }
+
+  // append that ILoColor to this non-empty ILoColor
+  public ILoColor append(ILoColor that) {
+    Color[] colors = this.toArray();
+    return new Utils().listOf(colors, 0, colors.length, that);
+  }
+
+  // counts number of exact and inexact matches between this ILoColor and the
+  // given one
+  public ILoPair compareWith(ILoColor sequence, ILoPair matches, ILoColor colors) {
+    return new ConsLoPair(
+        new PairOfNumbers(this.countExact(sequence), this.countInexact(sequence, colors)), matches);
+  }
+
+  // counts the number of exact matches this empty list of Colors has with the
+  // given one
+  public int countExact(ILoColor that) {
+    Color[] these = this.toArray();
+    Color[] those = that.toArray();
+    int count = 0;
+    for (int i = 0; i < Math.min(these.length, those.length); i += 1) {
+      if (these[i].equals(those[i])) {
+        count += 1;
+      }
+    }
+    return count;
+  }
+
+  // computes number of exact matches this list of Colors has with the given one
+  public int countExactHelper(Color first, ILoColor rest) {
+    return this.countExact(new ConsLoColor(first, rest));
+  }
+
+  // removes Color at given index from this non-empty list
+  public ILoColor dropIndex(int i, int start) {
+    Color[] colors = this.toArray();
+    int index = i - start;
+    if (index < 0 || index >= colors.length) {
+      return this;
+    }
+    else {
+      Utils utils = new Utils();
+      return utils.listOf(colors, 0, index,
+          utils.listOf(colors, index + 1, colors.length, new MtLoColor()));
+    }
+  }
+
+  @Override
+  public int countInexact(ILoColor that, ILoColor colors) {
+    return colors.countEachColor(this.dropExact(that), that.dropExact(this));
+  }
+
+  // computes inexact matches by counting each color.
+  public int countEachColor(ILoColor list1, ILoColor list2) {
+    int count = 0;
+    for (Color color : this.toArray()) {
+      count += list1.countColor(color, list2);
+    }
+    return count;
+  }
+
+  // drops exact matches in this list with the given one, keeping the colors of
+  // this list at positions that the given one has a different color in
+  public ILoColor dropExact(ILoColor that) {
+    Color[] these = this.toArray();
+    Color[] those = that.toArray();
+    Color[] kept = new Color[Math.min(these.length, those.length)];
+    int size = 0;
+    for (int i = 0; i < kept.length; i += 1) {
+      if (!these[i].equals(those[i])) {
+        kept[size] = these[i];
+        size += 1;
+      }
+    }
+    return new Utils().listOf(kept, 0, size, new MtLoColor());
+  }
+
+  // drops exact matches in this list with the given one
+  public ILoColor dropExactHelper(Color first, ILoColor rest) {
+    return new ConsLoColor(first, rest).dropExact(this);
+  }
+
+  @Override
+  public int countColor(Color first, ILoColor list) {
+    return Math.min(this.countColorHelp(first), list.countColorHelp(first));
+  }
+
+  @Override
+  public int countColorHelp(Color color) {
+    int count = 0;
+    ILoColor list = this;
+    while (list instanceof ConsLoColor) {
+      if (((ConsLoColor) list).first.equals(color)) {
+        count += 1;
+      }
+      list = ((ConsLoColor) list).rest;
+    }
+    return count + list.countColorHelp(color);
+  }
+
+  // returns the index of the given color in this non-empty list
+  public int indexOf(Color color, int start) {
+    ILoColor list = this;
+    while (list instanceof ConsLoColor) {
+      if (((ConsLoColor) list).first.equals(color)) {
+        return start;
+      }
+      start += 1;
+      list = ((ConsLoColor) list).rest;
+    }
+    return list.indexOf(color, start);
+  }
+
+  // packs this non-empty list of colors into the pegs of a code
+  public long pack(ILoColor palette, int position) {
+    long code = 0;
+    ILoColor list = this;
+    while (list instanceof ConsLoColor) {
+      int index = palette.indexOf(((ConsLoColor) list).first, 0);
+      if (index < 0) {
+        throw new IllegalArgumentException("Color not in palette");
+      }
+      code |= (long) index << (position * CodeSpace.BITS_PER_PEG);
+      position += 1;
+      list = ((ConsLoColor) list).rest;
+    }
+    return code | list.pack(palette, position);
+  }
+}
+
+// to represent a list of list of Colors
+interface ILoList {
+  // draws this list of list of Colors onto a given scene
+  WorldScene drawGuesses(WorldScene scene, int down);
+
+  // modifies this list of list of Colors based on given key
+  ILoList makeGuesses(String key, Mastermind m);
+
+  // appends the given list to this list
+  ILoList append(ILoList that);
+
+  // computes the length of this list
+  int length();
+
+  // copies the lists of colors of this list into an array
+  ILoColor[] toArray();
+
+  // returns the last list of lists in this list
+  ILoColor last();
+
+  // drops the last in this list
+  ILoList dropLast();
+
+  // to determine whether this list is empty
+  boolean isEmpty();
+
+  // replaces the last in this list with the given list of colors
+  ILoList replaceLast(ILoColor last);
+
+  // packs the guesses of this list into the given array from the given index on,
+  // stopping when the array is full
+  void packGuesses(CodeSpace space, ILoColor palette, long[] into, int index);
+}
+
+// to represent an empty list of list of Colors
+class MtLoList implements ILoList {
+
+  // draws this empty list of list of Colors onto a given scene
+  public WorldScene drawGuesses(WorldScene scene, int down) {
+    return scene;
+  }
+
+  // modifies this empty list of list of Colors based on given key
+  public ILoList makeGuesses(String key, Mastermind m) {
+    return m.makeGuessesEmpty(key, this);
+  }
+
+  // appends the given list to this list
+  public ILoList append(ILoList that) {
+    return that;
+  }
+
+  // computes the length of this empty list
+  public int length() {
+    return 0;
+  }
+
+  // copies the lists of colors of this empty list into an array
+  public ILoColor[] toArray() {
+    return new ILoColor[0];
+  }
+
+  // returns the last list of lists in this list
+  public ILoColor last() {
+    return new MtLoColor();
+  }
+
+  // drops the last in this list
+  public ILoList dropLast() {
+    return this;
+  }
+
+  // to determine whether this empty list is empty
+  public boolean isEmpty() {
+    return true;
+  }
+
+  // replaces the last in this empty list
+  public ILoList replaceLast(ILoColor last) {
+    return this;
+  }
+
+  // packs the guesses of this empty list
+  public void packGuesses(CodeSpace space, ILoColor palette, long[] into, int index) {
+    return;
+  }
+}
+
+// to represent a non-empty list of list of Colors, walked in loops rather than
+// recursively so that long histories keep the stack shallow
+class ConsLoList implements ILoList {
+  ILoColor first;
+  ILoList rest;
+
+  ConsLoList(ILoColor first, ILoList rest) {
+    this.first = first;
+    this.rest = rest;
+  }
+
+  // draws this non-empty list of list of colors onto a given scene, each list 40
+  // above the one before it and the last list first
+  public WorldScene drawGuesses(WorldScene scene, int down) {
+    ILoColor[] lists = this.toArray();
+    for (int i = lists.length - 1; i >= 0; i -= 1) {
+      scene = lists[i].drawColors(scene, 25, down - (i * 40));
+    }
+    return scene;
+  }
+
+  // modifies this non-empty list of list of colors based on given key
+  public ILoList makeGuesses(String key, Mastermind m) {
+    return m.makeGuesses(key, this.last(), this);
+  }
+
+  // appends the given list to this list
+  public ILoList append(ILoList that) {
+    ILoColor[] lists = this.toArray();
+    return new Utils().listOf(lists, lists.length, that);
+  }
+
+  // computes the length of this non-empty list;
+  public int length() {
+    int length = 0;
+    ILoList list = this;
+    while (list instanceof ConsLoList) {
+      length += 1;
+      list = ((ConsLoList) list).rest;
+    }
+    return length + list.length();
+  }
+
+  // copies the lists of colors of this non-empty list into an array
+  public ILoColor[] toArray() {
+    ILoColor[] result = new ILoColor[this.length()];
+    int i = 0;
+    ILoList list = this;
+    while (list instanceof ConsLoList) {
+      result[i] = ((ConsLoList) list).first;
+      i += 1;
+      list = ((ConsLoList) list).rest;
+    }
+    ILoColor[] tail = list.toArray();
+    System.arraycopy(tail, 0, result, i, tail.length);
+    return result;
+  }
+
+  // returns the last list of lists in this list
+  public ILoColor last() {
+    ConsLoList list = this;
+    while (list.rest instanceof ConsLoList) {
+      list = (ConsLoList) list.rest;
+    }
+    if (list.rest.isEmpty()) {
+      return list.first;
+    }
+    else {
+      return list.rest.last();
+    }
+  }
+
+  // drop the last in this list
+  public ILoList dropLast() {
+    ILoColor[] lists = this.toArray();
+    return new Utils().listOf(lists, lists.length - 1, new MtLoList());
+  }
+
+  // to determine whether this non-empty list is empty
+  public boolean isEmpty() {
+    return false;
+  }
+
+  // replaces the last in this non-empty list
+  public ILoList replaceLast(ILoColor last) {
+    ILoColor[] lists = this.toArray();
+    return new Utils().listOf(lists, lists.length - 1,
+        new ConsLoList(last, new MtLoList()));
+  }
+
+  // packs the guesses of this non-empty list
+  public void packGuesses(CodeSpace space, ILoColor palette, long[] into, int index) {
+    ILoList list = this;
+    while (list instanceof ConsLoList && index < into.length) {
+      into[index] = space.pack(((ConsLoList) list).first, palette);
+      index += 1;
+      list = ((ConsLoList) list).rest;
+    }
+    if (index < into.length) {
+      list.packGuesses(space, palette, into, index);
+    }
+  }
+}
+
+// to represent the number of exact and inexact matches for a guess
+class PairOfNumbers {
+  int first;
+  int second;
+
+  PairOfNumbers(int first, int second) {
+    this.first = first;
+    this.second = second;
+  }
+
+  // draws this pair of numbers onto a given scene
+  WorldScene drawPair(WorldScene scene, int right, int down) {
+    WorldScene drawFirst = scene.placeImageXY(
+        new TextImage(Integer.toString(this.first), 30, FontStyle.BOLD, Color.RED), right, down);
+    return drawFirst.placeImageXY(
+        new TextImage(Integer.toString(this.second), 30, FontStyle.BOLD, Color.RED), right + 40,
+        down);
+  }
+}
+
+// to represent a list of pairs
+interface ILoPair {
+  // draws this list of Pairs onto the given Scene
+  WorldScene drawMatches(WorldScene scene, int right, int down);
+
+  // computes the length of this list
+  int length();
+
+  // packs the pairs of this list into feedbacks in the given array, from the
+  // given index down, so the oldest pair ends up first
+  void packFeedbacks(CodeSpace space, int[] into, int index);
+}
+
+// to represent an empty list of pairs 
+class MtLoPair implements ILoPair {
+
+  // draws this empty list of pairs onto the given scene
+  public WorldScene drawMatches(WorldScene scene, int right, int down) {
+    return scene;
+  }
+
+  // computes the length of this empty list
+  public int length() {
+    return 0;
+  }
+
+  // packs the pairs of this empty list
+  public void packFeedbacks(CodeSpace space, int[] into, int index) {
+    return;
+  }
+}
+
+// to represent a non-empty list of pairs, walked in loops rather than
+// recursively
+class ConsLoPair implements ILoPair {
+  PairOfNumbers first;
+  ILoPair rest;
+
+  ConsLoPair(PairOfNumbers first, ILoPair rest) {
+    this.first = first;
+    this.rest = rest;
+  }
+
+  // draws this non-empty list of pairs onto the given scene, each pair 40 above
+  // the one before it and the last pair first
+  public WorldScene drawMatches(WorldScene scene, int right, int down) {
+    int length = this.length();
+    PairOfNumbers[] pairs = new PairOfNumbers[length];
+    ILoPair list = this;
+    for (int i = 0; i < length; i += 1) {
+      pairs[i] = ((ConsLoPair) list).first;
+      list = ((ConsLoPair) list).rest;
+    }
+    for (int i = length - 1; i >= 0; i -= 1) {
+      scene = pairs[i].drawPair(scene, right, down - (i * 40));
+    }
+    return scene;
+  }
+
+  // computes the length of this non-empty list
+  public int length() {
+    int length = 0;
+    ILoPair list = this;
+    while (list instanceof ConsLoPair) {
+      length += 1;
+      list = ((ConsLoPair) list).rest;
+    }
+    return length + list.length();
+  }
+
+  // packs the pairs of this non-empty list
+  public void packFeedbacks(CodeSpace space, int[] into, int index) {
+    ILoPair list = this;
+    while (list instanceof ConsLoPair) {
+      PairOfNumbers pair = ((ConsLoPair) list).first;
+      into[index] = space.feedback(pair.first, pair.second);
+      index -= 1;
+      list = ((ConsLoPair) list).rest;
+    }
+    list.packFeedbacks(space, into, index);
+  }
+}
+
+// to represent a game of Mastermind played in a window, drawing and feeding keys
+// to a GameEngine
+class Game extends World {
+  Mastermind mastermind;
+  GameEngine engine;
+  SceneCache scenes;
+  ColorKeys keys;
+  // records the keys pressed, when set
+  KeyRecorder recorder;
+
+  Game(Mastermind mastermind, GameEngine engine, SceneCache scenes) {
+    this.mastermind = mastermind;
+    this.engine = engine;
+    this.scenes = scenes;
+    this.keys = new ColorKeys(mastermind.colors.length());
+  }
+
+  Game(Mastermind mastermind, GameEngine engine) {
+    this(mastermind, engine, new SceneCache());
+  }
+
+  Game(Mastermind mastermind, long seed) {
+    this(mastermind, new GameEngine(mastermind, seed));
+  }
+
+  Game(Mastermind mastermind) {
+    this(mastermind, new Random().nextLong());
+  }
+
+  // records every key pressed from now on with the given recorder, returning
+  // this game
+  Game record(KeyRecorder recorder) {
+    this.recorder = recorder;
+    return this;
+  }
+
+  // draws the game
+  public WorldScene makeScene() {
+    if (GameMetrics.ENABLED) {
+      long nanos = System.nanoTime();
+      long bytes = GameMetrics.GLOBAL.allocatedBytes();
+      WorldScene scene = this.scenes.draw(this.mastermind, this.engine);
+      GameMetrics.GLOBAL.frames.end(nanos, bytes);
+      return scene;
+    }
+    else {
+      return this.scenes.draw(this.mastermind, this.engine);
+    }
+  }
+
+  public World onTick() {
+    return this;
+  }
+
+  public World onKeyEvent(String key) {
+    if (this.recorder != null) {
+      this.recorder.record(key);
+    }
+    if (GameMetrics.ENABLED) {
+      long nanos = System.nanoTime();
+      long bytes = GameMetrics.GLOBAL.allocatedBytes();
+      this.handleKey(key);
+      GameMetrics.GLOBAL.keyEvents.end(nanos, bytes);
+    }
+    else {
+      this.handleKey(key);
+    }
+    return this;
+  }
+
+  // suggests the next guess for this game's submitted guesses and their matches
+  // using the given solver, which may be a HintCache shared by many games
+  ILoColor hint(ISolver solver) {
+    return this.engine.space.unpack(solver.nextGuess(this.engine.space, this.engine.guesses,
+        this.engine.feedbacks, this.engine.submitted), this.mastermind.colors);
+  }
+
+  // applies the given key to the engine
+  void handleKey(String key) {
+    this.engine.onKey(key, this.keys);
+  }
+}
+
+// to represent examples and tests for Mastermind
+class ExamplesMastermind {
+  ILoColor mtColors = new MtLoColor();
+  ILoColor colors1 = new ConsLoColor(Color.GREEN,
+      new ConsLoColor(Color.RED, new ConsLoColor(Color.BLUE, this.mtColors)));
+  Mastermind m1 = new Mastermind(true, 5, 3, this.colors1);
+  Mastermind m2 = new Mastermind(false, 3, 9, this.colors1);
+  Game g1 = new Game(m1, 1L);
+
+  // tests for Mastermind constructors
+  boolean testConstructors(Tester t) {
+    return t.checkConstructorException(new IllegalArgumentException("Invalid Length: 0"),
+        "mastermind.Mastermind", true, 0, 3, colors1)
+        && t.checkConstructorException(new IllegalArgumentException("Invalid Guesses: 0"),
+            "mastermind.Mastermind", true, 3, 0, colors1)
+        && t.checkConstructorException(new IllegalArgumentException("Invalid list length"),
+            "mastermind.Mastermind", false, 5, 3, colors1)
+        && t.checkConstructorException(new IllegalArgumentException("Invalid list length"),
+            "mastermind.Mastermind", true, 5, 3, mtColors);
+  }
+
+  // tests for checkLessThanOne()
+  boolean testCheckLessThanOne(Tester t) {
+    return t.checkExpect(new Utils().checkLessThanOne(4, "Error"), 4) && t.checkException(
+        new IllegalArgumentException("Error"), new Utils(), "checkLessThanOne", 0, "Error");
+  }
+
+  // tests for checkLength()
+  boolean testCheckLength(Tester t) {
+    return t.checkExpect(colors1.checkLength(3, true), colors1)
+        && t.checkExpect(colors1.checkLength(2, true), colors1)
+        && t.checkExpect(colors1.checkLength(2, false), colors1)
+        && t.checkException(new IllegalArgumentException("Invalid list length"), colors1,
+            "checkLength", 5, false)
+        && t.checkException(new IllegalArgumentException("Invalid list length"), mtColors,
+            "checkLength", 2, true);
+  }
+
+  // tests for length()
+  boolean testLength(Tester t) {
+    return t.checkExpect(mtColors.length(), 0) && t.checkExpect(colors1.length(), 3);
+  }
+
+  // tests for pack() and unpack()
+  boolean testPack(Tester t) {
+    CodeSpace space = m2.space();
+    ILoColor code = new ConsLoColor(Color.BLUE,
+        new ConsLoColor(Color.GREEN, new ConsLoColor(Color.RED, this.mtColors)));
+    return t.checkExpect(space.pack(code, colors1), 0x102L)
+        && t.checkExpect(space.unpack(0x102L, colors1), code)
+        && t.checkExpect(space.peg(0x102L, 0), 2)
+        && t.checkException(new IllegalArgumentException("Invalid code length: 3"), m1.space(),
+            "pack", code, colors1)
+        && t.checkException(new IllegalArgumentException("Color not in palette"), space, "pack",
+            new ConsLoColor(Color.BLACK, code.deleteLast()), colors1);
+  }
+
+  // tests for score()
+  boolean testScore(Tester t) {
+    CodeSpace space = new CodeSpace(4, 6, true);
+    return t.checkExpect(space.score(0x3210L, 0x0123L), space.feedback(0, 4))
+        && t.checkExpect(space.score(0x1100L, 0x0110L), space.feedback(2, 2))
+        && t.checkExpect(space.score(0x5555L, 0x5555L), space.solved())
+        && t.checkExpect(space.score(0x0000L, 0x1111L), space.feedback(0, 0))
+        && t.checkExpect(space.score(0x1123L, 0x2113L), space.feedback(2, 2))
+        && t.checkExpect(m2.score(colors1, colors1), new PairOfNumbers(3, 0));
+  }
+
+  // tests for FeedbackMatrixBuilder and FeedbackMatrix
+  boolean testFeedbackMatrix(Tester t) throws java.io.IOException {
+    java.nio.file.Path path = java.nio.file.Files.createTempFile("feedback", ".bin");
+    CodeSpace space = new CodeSpace(3, 4, true);
+    FeedbackMatrix matrix = new FeedbackMatrixBuilder(space).build(path);
+    boolean scores = true;
+    for (int g = 0; g < space.size(); g += 1) {
+      for (int s = 0; s < space.size(); s += 1) {
+        scores = scores && matrix.get(g, s) == space.score(space.codeAt(g), space.codeAt(s));
+      }
+    }
+    FeedbackMatrix reopened = new FeedbackMatrix(path, true);
+    boolean result = t.checkExpect(scores, true)
+        && t.checkExpect(reopened.checksum, matrix.checksum)
+        && t.checkExpect(reopened.score(0x123L, 0x321L), space.feedback(1, 2))
+        && t.checkExpect(reopened.matches(space), true)
+        && t.checkExpect(new FeedbackMatrixBuilder(new CodeSpace(2, 4, true))
+            .openOrBuild(path).size, 16);
+    java.nio.file.Files.delete(path);
+    return result;
+  }
+
+  // returns a copy of the given snapshot with the given number of bytes at the
+  // given offset set to the given value and its checksum made to match, as a
+  // forger would
+  ByteBuffer forge(ByteBuffer snapshot, int at, long value, int bytes) {
+    ByteBuffer forged = ByteBuffer.wrap(java.util.Arrays.copyOfRange(snapshot.array(),
+        snapshot.position(), snapshot.limit()));
+    for (int i = 0; i < bytes; i += 1) {
+      forged.put(at + i, (byte) (value >>> (8 * (bytes - 1 - i))));
+    }
+    java.util.zip.CRC32C crc = new java.util.zip.CRC32C();
+    crc.update(forged.array(), 0, forged.limit() - GameSnapshot.CHECKSUM_BYTES);
+    forged.putInt(forged.limit() - GameSnapshot.CHECKSUM_BYTES, (int) crc.getValue());
+    return forged;
+  }
+
+  // plays the given secret with the given solver, returning the number of guesses
+  // taken or -1 if it took more than the given limit
+  int solve(CodeSpace space, ISolver solver, long secret, int limit) {
+    long[] guesses = new long[limit];
+    int[] feedbacks = new int[limit];
+    for (int i = 0; i < limit; i += 1) {
+      guesses[i] = solver.nextGuess(space, guesses, feedbacks, i);
+      feedbacks[i] = space.score(guesses[i], secret);
+      if (feedbacks[i] == space.solved()) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  // tests for the solvers
+  boolean testSolvers(Tester t) {
+    CodeSpace space = new CodeSpace(4, 6, true);
+    MinimaxSolver minimax = new MinimaxSolver();
+    long opening = minimax.nextGuess(space, new long[0], new int[0], 0);
+    ILoColor guess = new ConsLoColor(Color.GREEN, new ConsLoColor(Color.RED,
+        new ConsLoColor(Color.BLUE, new ConsLoColor(Color.BLUE, this.mtColors))));
+    Mastermind m3 = new Mastermind(true, 4, 10, colors1);
+    return t.checkExpect(minimax.best(space, space.enumerate(), space.enumerate()).rank, 256.0)
+        && t.checkExpect(minimax.rankGuess(space, opening, space.enumerate(),
+            new int[space.feedbacks()]).rank, 256.0)
+        && t.checkNumRange(this.solve(space, minimax, 0x5432L, 5), 1, 6)
+        && t.checkNumRange(this.solve(space, minimax, 0x0000L, 5), 1, 6)
+        && t.checkNumRange(this.solve(space, new EntropySolver(), 0x1135L, 6), 1, 7)
+        && t.checkNumRange(this.solve(space, new ExpectedSizeSolver(), 0x2040L, 6), 1, 7)
+        && t.checkExpect(m3.hint(new ConsLoList(guess, new MtLoList()),
+            new ConsLoPair(new PairOfNumbers(4, 0), new MtLoPair()), new EntropySolver()), guess)
+        && t.checkException(new IllegalStateException("No code is consistent with the feedback"),
+            minimax, "nextGuess", space, new long[] { 0, 0 },
+            new int[] { space.feedback(4, 0), space.feedback(0, 0) }, 2);
+  }
+
+  // tests for GameEngine
+  boolean testGameEngine(Tester t) {
+    GameEngine engine = new GameEngine(m2, 42L);
+    GameEngine same = new GameEngine(m2, 42L);
+    CodeSpace space = engine.space;
+    boolean entered = engine.addPeg(1) && engine.addPeg(2) && engine.deletePeg()
+        && engine.addPeg(3) && !engine.addPeg(4) && engine.addPeg(2) && !engine.addPeg(1);
+    int feedback = engine.submitGuess();
+    GameEngine lost = new GameEngine(new Mastermind(true, 1, 1, colors1), 3L);
+    lost.addPeg(lost.space.peg(lost.secret, 0) == 0 ? 2 : 1);
+    lost.submitGuess();
+    return t.checkExpect(same.secret, engine.secret)
+        && t.checkExpect(space.contains(engine.secret), true)
+        && t.checkExpect(entered, true)
+        && t.checkExpect(feedback, space.score(0x120L, engine.secret))
+        && t.checkExpect(engine.submitGuess(), -1)
+        && t.checkExpect(engine.remainingGuesses(), 8)
+        && t.checkExpect(engine.addPeg(1) && engine.addPeg(2) && engine.addPeg(3)
+            && engine.submitGuess() == space.score(0x210L, engine.secret), true)
+        && t.checkExpect(lost.isLost(), true)
+        && t.checkExpect(lost.isOver(), true)
+        && t.checkExpect(lost.addPeg(1), false)
+        && t.checkExpect(lost.remainingGuesses(), 0);
+  }
+
+  // tests for Game
+  boolean testGame(Tester t) {
+    Game game = new Game(m2, 5L);
+    GameEngine engine = game.engine;
+    game.onKeyEvent("1");
+    game.onKeyEvent("7");
+    game.onKeyEvent("");
+    game.onKeyEvent("3");
+    game.onKeyEvent("backspace");
+    game.onKeyEvent("2");
+    game.onKeyEvent("3");
+    game.onKeyEvent("enter");
+    for (int i = 0; i < 3; i += 1) {
+      game.onKeyEvent(Integer.toString(engine.space.peg(engine.secret, i) + 1));
+    }
+    game.onKeyEvent("enter");
+    ILoColor first = new ConsLoColor(Color.GREEN,
+        new ConsLoColor(Color.RED, new ConsLoColor(Color.BLUE, this.mtColors)));
+    ILoColor secret = engine.space.unpack(engine.secret, colors1);
+    return t.checkExpect(engine.isWon(), true)
+        && t.checkExpect(m2.guessesOf(engine),
+            new ConsLoList(first, new ConsLoList(secret, new MtLoList())))
+        && t.checkExpect(m2.matchesOf(engine), new ConsLoPair(new PairOfNumbers(3, 0),
+            new ConsLoPair(m2.score(first, secret), new MtLoPair())))
+        && t.checkExpect(m2.colorForKey("3"), 3) && t.checkExpect(m2.colorForKey("4"), 0)
+        && t.checkExpect(m2.colorForKey("backspace"), 0);
+  }
+
+  // tests for makeGuesses()
+  boolean testMakeGuesses(Tester t) {
+    ILoColor red = new ConsLoColor(Color.RED, this.mtColors);
+    ILoList history = new ConsLoList(colors1, new ConsLoList(red, new MtLoList()));
+    ILoList full = new ConsLoList(colors1, new ConsLoList(colors1, new MtLoList()));
+    return t.checkExpect(new MtLoList().makeGuesses("2", m2),
+            new ConsLoList(red, new MtLoList()))
+        && t.checkExpect(history.makeGuesses("3", m2), new ConsLoList(colors1,
+            new ConsLoList(new ConsLoColor(Color.RED, new ConsLoColor(Color.BLUE,
+                this.mtColors)), new MtLoList())))
+        && t.checkExpect(history.makeGuesses("backspace", m2),
+            new ConsLoList(colors1, new ConsLoList(this.mtColors, new MtLoList())))
+        && t.checkExpect(history.makeGuesses("x", m2) == history, true)
+        && t.checkExpect(full.makeGuesses("1", m2) == full, true)
+        && t.checkExpect(history.replaceLast(colors1), full);
+  }
+
+  // tests that keystrokes neither allocate nor change the secret
+  boolean testKeystrokes(Tester t) {
+    java.lang.management.ThreadMXBean threads =
+        java.lang.management.ManagementFactory.getThreadMXBean();
+    Game game = new Game(new Mastermind(true, 8, 40, colors1), 9L);
+    long secret = game.engine.secret;
+    String[] row = { "1", "2", "3", "1", "2", "3", "1", "2", "backspace", "backspace", "3",
+        "3", "enter" };
+    for (int i = 0; i < 1000; i += 1) {
+      game.onKeyEvent(row[i % 8]);
+      game.onKeyEvent("backspace");
+    }
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return t.checkExpect(game.engine.secret, secret);
+    }
+    com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+    long id = Thread.currentThread().getId();
+    long before = counter.getThreadAllocatedBytes(id);
+    int keystrokes = 0;
+    for (int i = 0; i < 39; i += 1) {
+      for (String key : row) {
+        game.onKeyEvent(key);
+        keystrokes += 1;
+      }
+    }
+    long allocated = counter.getThreadAllocatedBytes(id) - before;
+    return t.checkExpect(game.engine.secret, secret)
+        && t.checkNumRange(allocated / keystrokes, 0, 8);
+  }
+
+  // tests for SceneCache
+  boolean testSceneCache(Tester t) {
+    Game game = new Game(m2, 11L);
+    SceneCache scenes = game.scenes;
+    game.makeScene();
+    WorldScene base = scenes.base;
+    game.onKeyEvent("1");
+    game.onKeyEvent("2");
+    game.onKeyEvent("3");
+    game.onKeyEvent("enter");
+    game.onKeyEvent("2");
+    game.makeScene();
+    WorldScene committed = scenes.committed;
+    game.onKeyEvent("backspace");
+    game.makeScene();
+    boolean reused = scenes.base == base && scenes.committed == committed;
+    Mastermind other = new Mastermind(false, 2, 9, colors1);
+    Game next = new Game(other, new GameEngine(other, 11L), scenes);
+    next.makeScene();
+    return t.checkExpect(reused, true) && t.checkExpect(scenes.drawn, 0)
+        && t.checkExpect(scenes.engine, next.engine)
+        && t.checkExpect(scenes.base == base, false)
+        && t.checkExpect(m2.rowDown(0), m2.paletteDown() - 40);
+  }
+
+  // computes the chi-squared statistic of the given number of secrets drawn from
+  // the given generator against a uniform distribution over its space
+  double chiSquared(SecretGenerator generator, int draws) {
+    CodeSpace space = generator.space;
+    long[] secrets = new long[draws];
+    generator.fill(secrets, java.util.concurrent.ForkJoinPool.commonPool());
+    int[] counts = new int[space.size()];
+    for (long secret : secrets) {
+      counts[space.indexOf(secret)] += 1;
+    }
+    double expected = (double) draws / counts.length;
+    double sum = 0;
+    for (int count : counts) {
+      sum += (count - expected) * (count - expected) / expected;
+    }
+    return sum;
+  }
+
+  // tests for SecretGenerator
+  boolean testSecretGenerator(Tester t) {
+    CodeSpace dup = new CodeSpace(3, 4, true);
+    CodeSpace noDup = new CodeSpace(3, 4, false);
+    long[] first = new long[100000];
+    long[] second = new long[100000];
+    new SecretGenerator(noDup, 8L).fill(first, java.util.concurrent.ForkJoinPool.commonPool());
+    new SecretGenerator(noDup, 8L).fill(second, new java.util.concurrent.ForkJoinPool(3));
+    boolean valid = true;
+    for (long secret : first) {
+      valid = valid && noDup.contains(secret);
+    }
+    // the critical values of the chi-squared distribution at p = 0.001 for 63 and
+    // 23 degrees of freedom
+    return t.checkExpect(first, second) && t.checkExpect(valid, true)
+        && t.checkNumRange(this.chiSquared(new SecretGenerator(dup, 1L), 64000), 0.0, 103.4)
+        && t.checkNumRange(this.chiSquared(new SecretGenerator(noDup, 2L), 24000), 0.0, 49.7)
+        && t.checkExpect(m1.makeSequence(new SecretGenerator(m1.space(), 3L)),
+            m1.makeSequence(new SecretGenerator(m1.space(), 3L)))
+        && t.checkExpect(m2.makeSequence().length(), 3);
+  }
+
+  // tests for CandidateTracker
+  boolean testCandidateTracker(Tester t) {
+    CodeSpace space = new CodeSpace(4, 6, true);
+    CandidateTracker tracker = new CandidateTracker(space,
+        new java.util.concurrent.ForkJoinPool(4));
+    long[] guesses = { 0x1100L, 0x3322L, 0x5140L };
+    long secret = 0x2413L;
+    int[] feedbacks = new int[3];
+    boolean filtered = true;
+    for (int i = 0; i < 3; i += 1) {
+      feedbacks[i] = space.score(guesses[i], secret);
+      tracker.filter(guesses[i], feedbacks[i]);
+      long[] expected = space.consistent(guesses, feedbacks, i + 1);
+      filtered = filtered && java.util.Arrays.equals(tracker.candidates(), expected)
+          && tracker.count() == expected.length;
+    }
+    CandidateTracker small = new CandidateTracker(new CodeSpace(3, 4, false));
+    GameEngine engine = new GameEngine(m2, 4L).trackCandidates();
+    engine.addPeg(1);
+    engine.addPeg(2);
+    engine.addPeg(3);
+    engine.submitGuess();
+    return t.checkExpect(filtered, true)
+        && t.checkExpect(tracker.isConsistent(secret), true)
+        && t.checkExpect(tracker.isConsistent(0x1100L), false)
+        && t.checkExpect(small.count(), 24) && t.checkExpect(small.candidates().length, 24)
+        && t.checkExpect(small.isConsistent(0x111L), false)
+        && t.checkExpect(engine.remaining[0], engine.candidates.count())
+        && t.checkExpect(engine.candidates.isConsistent(engine.secret), true)
+        && t.checkExpect(new MinimaxSolver().nextGuess(tracker),
+            new MinimaxSolver().nextGuess(space, guesses, feedbacks, 3));
+  }
+
+  // tests for GameServer.handle(): games given a seed are not counted, every
+  // spelling of a configuration shares it, and idle games end
+  boolean testGameServer(Tester t) {
+    GameServer server = new GameServer();
+    String id = server.handle("NEW 3 3 9 false").substring(3);
+    GameEngine engine = server.sessions.get(Long.parseLong(id)).engine;
+    String secret = "";
+    for (int i = 0; i < 3; i += 1) {
+      secret += (engine.space.peg(engine.secret, i) + 1);
+    }
+    String early = server.handle("GUESS " + id);
+    String empty = server.handle("DEL " + id);
+    boolean pegs = true;
+    for (int i = 0; i < 3; i += 1) {
+      pegs = pegs && server.handle("PEG " + id + " " + secret.charAt(i)).equals("OK");
+    }
+    String seeded = server.handle("NEW 03 3 9 FALSE 4").substring(3);
+    GameEngine known = server.sessions.get(Long.parseLong(seeded)).engine;
+    for (int i = 0; i < 3; i += 1) {
+      server.handle("PEG " + seeded + " " + (known.space.peg(known.secret, i) + 1));
+    }
+    String cheated = server.handle("GUESS " + seeded);
+    GameServer idle = new GameServer();
+    idle.idleNanos = 1000000L;
+    String left = idle.handle("NEW 4 6 10 true").substring(3);
+    long waited = System.nanoTime();
+    while (System.nanoTime() - waited < 10000000L) {
+      Thread.onSpinWait();
+    }
+    String kept = idle.handle("NEW 4 6 10 true").substring(3);
+    String longer = server.handle("NEW 3 3 5 false").substring(3);
+    return t.checkExpect(seeded, "2")
+        && t.checkExpect(server.configs.size(), 1)
+        && t.checkExpect(server.handle("BOARD " + longer), "BOARD PLAYING 5")
+        && t.checkExpect(server.configs.size(), 1)
+        && t.checkExpect(cheated, "FEEDBACK 3 0 WON")
+        && t.checkExpect(early, "ERR guess rejected")
+        && t.checkExpect(empty, "ERR nothing to delete")
+        && t.checkExpect(pegs, true)
+        && t.checkExpect(server.handle("PEG " + id + " 1"), "ERR peg rejected")
+        && t.checkExpect(server.handle("GUESS " + id), "FEEDBACK 3 0 WON")
+        && t.checkExpect(server.handle("BOARD " + id), "BOARD WON 0 " + secret + ":3,0")
+        && t.checkExpect(server.handle("STATS 3 3 false"), "STATS 3x3 no duplicates: 1 games, "
+            + "100.0% won, guesses mean 1.00 p50 1 p99 1")
+        && t.checkExpect(server.handle("END " + id), "OK")
+        && t.checkExpect(server.handle("BOARD " + id), "ERR unknown game")
+        && t.checkExpect(server.handle("NEW 0 3 9 true"), "ERR Invalid Length: 0")
+        && t.checkExpect(server.handle("NEW 4 6 2000000000 true"),
+            "ERR Invalid Guesses: 2000000000")
+        && t.checkExpect(server.handle("NEW 4 6 10 yes"), "ERR Invalid duplicates: yes")
+        && t.checkExpect(server.handle("NEW 4 -1 10 true"), "ERR Invalid Colors: -1")
+        && t.checkExpect(server.handle("NEW 4 99999 10 true"), "ERR Invalid Colors: 99999")
+        && t.checkExpect(server.handle("NEW 16 6 10 true"), "ERR Invalid Length: 16")
+        && t.checkExpect(server.handle("NEW 4 6 0 true"), "ERR Invalid Guesses: 0")
+        && t.checkExpect(server.handle("NEW 5 3 10 false"), "ERR Invalid list length")
+        && t.checkExpect(server.handle("STATS 99 6 true"), "ERR Invalid Length: 99")
+        && t.checkExpect(server.statistics.configs.size(), 1)
+        && t.checkExpect(server.handle("STATS 3 3 no"), "ERR Invalid duplicates: no")
+        && t.checkExpect(idle.handle("BOARD " + left), "ERR unknown game")
+        && t.checkExpect(idle.handle("BOARD " + kept), "BOARD PLAYING 10")
+        && t.checkExpect(server.handle("PEG 2"), "ERR missing argument")
+        && t.checkExpect(server.handle("JUMP 2"), "ERR unknown request");
+  }
+
+  // tests GameServer over sockets with GameServerLoad, and that waiting on the
+  // server lasts until it is closed
+  boolean testGameServerLoad(Tester t) throws Exception {
+    GameServer server = new GameServer();
+    server.start(0);
+    long[] latencies = new GameServerLoad("127.0.0.1", server.port(), 8, 5).run();
+    Thread main = new Thread(() -> {
+      try {
+        server.await();
+      }
+      catch (InterruptedException e) {
+        // given up on
+      }
+    });
+    main.start();
+    Thread.sleep(20);
+    boolean waiting = main.isAlive();
+    server.close();
+    main.join(10000);
+    return t.checkNumRange(latencies.length, 8 * 5 * 7, 8 * 5 * 64)
+        && t.checkExpect(waiting, true) && t.checkExpect(main.isAlive(), false);
+  }
+
+  // plays the given game to its end by guessing the given codes in turn
+  GameEngine playOut(GameEngine engine, long[] guesses) {
+    for (int i = 0; !engine.isOver(); i += 1) {
+      for (int j = 0; j < engine.space.length; j += 1) {
+        engine.addPeg(engine.space.peg(guesses[i % guesses.length], j) + 1);
+      }
+      engine.submitGuess();
+    }
+    return engine;
+  }
+
+  // tests for GameJournal and JournalReader: a torn tail is cut off, a damaged
+  // record before it is refused
+  boolean testGameJournal(Tester t) throws Exception {
+    java.nio.file.Path path = java.nio.file.Files.createTempFile("games", ".journal");
+    java.nio.file.Files.delete(path);
+    Mastermind m3 = new Mastermind(true, 4, 10, new Utils().makePalette(6));
+    GameJournal journal = new GameJournal(path, 1);
+    long last = 0;
+    for (int i = 0; i < 1000; i += 1) {
+      last = journal.append(this.playOut(new GameEngine(m3, i), new long[] { 0x1100L, 0x2233L,
+          0x4455L, 0x0123L }));
+    }
+    journal.awaitDurable(last);
+    journal.close();
+    // a crash in the middle of writing a record leaves a torn tail
+    try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path,
+        java.nio.file.StandardOpenOption.WRITE, java.nio.file.StandardOpenOption.APPEND)) {
+      channel.write(java.nio.ByteBuffer.wrap(new byte[] { 0, 0, 0, 60, 4, 6, 1 }));
+    }
+    GameJournal reopened = new GameJournal(path, 1);
+    reopened.append(this.playOut(new GameEngine(m3, 1000), new long[] { 0x5555L }));
+    reopened.close();
+    int games = 0;
+    long middle = -1;
+    boolean replayed = true;
+    try (JournalReader reader = new JournalReader(path)) {
+      while (reader.next()) {
+        GameEngine engine = new GameEngine(m3, reader.seed());
+        replayed = replayed && reader.length() == 4 && reader.colors() == 6
+            && reader.duplicates() && reader.guessesAllowed() == 10
+            && reader.secret() == engine.secret;
+        for (int i = 0; i < reader.guessCount(); i += 1) {
+          replayed = replayed
+              && reader.feedback(i) == engine.space.score(reader.guess(i), reader.secret());
+        }
+        games += 1;
+        if (games == 500) {
+          middle = reader.record;
+        }
+      }
+    }
+    // a flipped bit in a record before the last is damage, not a torn tail
+    long size = java.nio.file.Files.size(path);
+    try (java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path,
+        java.nio.file.StandardOpenOption.WRITE)) {
+      channel.write(java.nio.ByteBuffer.wrap(new byte[] { 7 }), middle + 4 + 5);
+    }
+    boolean refused = t.checkConstructorException(
+        new java.io.IOException("Corrupt game journal record at offset " + middle),
+        "mastermind.GameJournal", path, 1L);
+    boolean kept = java.nio.file.Files.size(path) == size;
+    java.nio.file.Files.delete(path);
+    // games appended while the journal closes are either durable or refused
+    java.nio.file.Path racing = java.nio.file.Files.createTempFile("racing", ".journal");
+    java.nio.file.Files.delete(racing);
+    GameJournal slow = new GameJournal(racing, 60000);
+    java.util.concurrent.atomic.AtomicLong accepted = new java.util.concurrent.atomic.AtomicLong();
+    Thread appender = new Thread(() -> {
+      try {
+        for (int i = 0; true; i += 1) {
+          slow.append(this.playOut(new GameEngine(m3, i), new long[] { 0x0123L }));
+          accepted.incrementAndGet();
+        }
+      }
+      catch (java.io.IOException e) {
+        // closed
+      }
+    });
+    appender.start();
+    while (accepted.get() < 100) {
+      Thread.sleep(1);
+    }
+    long closing = System.nanoTime();
+    slow.close();
+    long closeMillis = (System.nanoTime() - closing) / 1000000L;
+    appender.join();
+    int durable = 0;
+    try (JournalReader reader = new JournalReader(racing)) {
+      while (reader.next()) {
+        durable += 1;
+      }
+    }
+    java.nio.file.Files.delete(racing);
+    return t.checkExpect(games, 1001) && t.checkExpect(replayed, true)
+        && t.checkExpect(refused, true) && t.checkExpect(kept, true)
+        && t.checkExpect((long) durable, accepted.get())
+        && t.checkExpect(slow.flusher.isAlive(), false)
+        && t.checkNumRange(closeMillis, 0L, 10000L);
+  }
+
+  // tests for Histogram
+  boolean testHistogram(Tester t) {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 1000; i += 1) {
+      histogram.record(i);
+    }
+    return t.checkExpect(histogram.bucket(31), 31)
+        && t.checkExpect(histogram.lowest(histogram.bucket(1000)), 992L)
+        && t.checkExpect(histogram.lowest(histogram.bucket(Long.MAX_VALUE)),
+            Long.MAX_VALUE - (Long.MAX_VALUE >>> 6))
+        && t.checkExpect(histogram.percentile(0.5), 496L)
+        && t.checkExpect(histogram.percentile(0.01), 10L)
+        && t.checkInexact(histogram.mean(), 500.5, 0.0001);
+  }
+
+  // tests for GameStatistics and Leaderboard
+  boolean testGameStatistics(Tester t) throws Exception {
+    GameStatistics statistics = new GameStatistics(3);
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i += 1) {
+      int thread = i;
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < 10000; j += 1) {
+          statistics.of(4, 6, true).record(j % 4 != 0, 1 + j % 8, 1000L * (j + 1),
+              "player " + thread);
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    ConfigStatistics stats = statistics.of(4, 6, true);
+    LeaderboardEntry[] top = stats.leaderboard.top();
+    Leaderboard small = new Leaderboard(2);
+    small.offer("a", 5, 10);
+    small.offer("b", 3, 10);
+    small.offer("c", 4, 10);
+    return t.checkExpect(stats.wins.sum(), 30000L)
+        && t.checkExpect(stats.losses.sum(), 10000L)
+        && t.checkInexact(stats.winRate(), 0.75, 0.0001)
+        && t.checkExpect(stats.guesses.count.sum(), 30000L)
+        && t.checkExpect(top.length, 3)
+        && t.checkExpect(top[0].guesses, 2) && t.checkExpect(top[0].nanos, 2000L)
+        && t.checkExpect(small.top()[0].player + small.top()[1].player, "bc")
+        && t.checkExpect(small.offer("d", 6, 10), false)
+        && t.checkExpect(statistics.configs.size(), 1);
+  }
+
+  // tests for GameMetrics
+  boolean testGameMetrics(Tester t) {
+    GameMetrics metrics = new GameMetrics();
+    for (int i = 1; i <= 100; i += 1) {
+      metrics.keyEvents.end(System.nanoTime() - 1000 * i, metrics.allocatedBytes());
+    }
+    metrics.scored(5);
+    metrics.drew(2);
+    java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+    java.util.concurrent.ScheduledExecutorService reporter = metrics.report(
+        new java.io.PrintStream(out, true), 1);
+    long deadline = System.currentTimeMillis() + 5000;
+    while (out.size() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.yield();
+    }
+    reporter.shutdownNow();
+    return t.checkExpect(metrics.getKeyEvents(), 100L)
+        && t.checkNumRange(metrics.getKeyEventP99Nanos(), 95000L, 200000000L)
+        && t.checkExpect(metrics.getScoreEvaluations(), 5L)
+        && t.checkExpect(metrics.getSecretsDrawn(), 2L)
+        && t.checkExpect(metrics.getSnapshot().startsWith("keystroke: 100, p50 "), true)
+        && t.checkExpect(out.toString().contains("scores 5, secrets 2"), true)
+        && t.checkExpect(GameMetrics.ENABLED || GameMetrics.GLOBAL.getKeyEvents() == 0, true);
+  }
+
+  // tests for ColorKeys
+  boolean testColorKeys(Tester t) {
+    ColorKeys keys = new ColorKeys(64);
+    int tens = keys.press("0");
+    int seventh = keys.press("7");
+    keys.press("6");
+    int last = keys.press("4");
+    keys.press("6");
+    int beyond = keys.press("5");
+    int letter = keys.press("a");
+    keys.press("1");
+    ColorKeys single = new ColorKeys(6);
+    return t.checkExpect(tens, 0) && t.checkExpect(seventh, 7) && t.checkExpect(last, 64)
+        && t.checkExpect(beyond, -1) && t.checkExpect(letter, -1)
+        && t.checkExpect(keys.clear(), true) && t.checkExpect(keys.clear(), false)
+        && t.checkExpect(single.press("6"), 6) && t.checkExpect(single.press("0"), -1)
+        && t.checkExpect(single.press("7"), -1);
+  }
+
+  // tests for playing a board too large to pack, and for list operations on lists
+  // far longer than the stack could recurse through
+  boolean testLargeBoards(Tester t) {
+    Mastermind large = new Mastermind(false, 32, 300, new Utils().makePalette(64));
+    LargeGame game = new LargeGame(large, 5L);
+    Color[] secret = game.sequence.toArray();
+    for (int turn = 0; turn < 250; turn += 1) {
+      for (int i = 1; i <= 32; i += 1) {
+        game.onKeyEvent(Integer.toString(i / 10));
+        game.onKeyEvent(Integer.toString(i % 10));
+      }
+      game.onKeyEvent("enter");
+    }
+    for (Color color : secret) {
+      int index = large.colors.indexOf(color, 1);
+      game.onKeyEvent(Integer.toString(index / 10));
+      game.onKeyEvent("backspace");
+      game.onKeyEvent(Integer.toString(index / 10));
+      game.onKeyEvent(Integer.toString(index % 10));
+    }
+    game.onKeyEvent("backspace");
+    game.onKeyEvent("enter");
+    int shortGuesses = game.submitted;
+    int lastIndex = large.colors.indexOf(secret[31], 1);
+    game.onKeyEvent(Integer.toString(lastIndex / 10));
+    game.onKeyEvent(Integer.toString(lastIndex % 10));
+    game.onKeyEvent("enter");
+    PairOfNumbers first = this.oldest(game.matches);
+    int common = 0;
+    for (Color color : secret) {
+      if (large.colors.indexOf(color, 1) <= 32) {
+        common += 1;
+      }
+    }
+    Mastermind classic = new Mastermind(true, 4, 10, new Utils().makePalette(6));
+    LargeGame drawing = new LargeGame(classic, 5L);
+    for (String key : new String[] { "1", "2", "3", "4", "enter", "5", "6" }) {
+      drawing.onKeyEvent(key);
+    }
+    drawing.makeScene();
+    WorldScene committed = drawing.committed;
+    drawing.onKeyEvent("1");
+    WorldScene frame = drawing.makeScene();
+    int down = classic.paletteDown() - 40;
+    WorldScene redrawn = drawing.matches.drawMatches(drawing.guesses.drawGuesses(
+        drawing.current.drawColors(classic.makeBaseScene(), 25, down), down - 40),
+        (classic.length * 40) + 25, down - 40);
+    boolean layered = drawing.committed == committed;
+    drawing.onKeyEvent("2");
+    drawing.onKeyEvent("enter");
+    drawing.makeScene();
+    boolean submitted = drawing.committed != committed && drawing.drawn == 2;
+
+    Color[] many = new Color[200000];
+    for (int i = 0; i < many.length; i += 1) {
+      many[i] = secret[i % secret.length];
+    }
+    ILoColor deep = new Utils().listOf(many, 0, many.length, new MtLoColor());
+    ILoColor[] rows = new ILoColor[100000];
+    for (int i = 0; i < rows.length; i += 1) {
+      rows[i] = game.sequence;
+    }
+    ILoList history = new Utils().listOf(rows, rows.length, new MtLoList());
+    ILoPair pairs = new MtLoPair();
+    for (int i = 0; i < 100000; i += 1) {
+      pairs = new ConsLoPair(new PairOfNumbers(0, 0), pairs);
+    }
+
+    Mastermind small = new Mastermind(true, 4, 10, new Utils().makePalette(6));
+    CodeSpace space = small.space();
+    SecretGenerator codes = new SecretGenerator(space, 11L);
+    boolean agree = true;
+    for (int i = 0; i < 500; i += 1) {
+      long guess = codes.next();
+      long code = codes.next();
+      ILoColor guessList = space.unpack(guess, small.colors);
+      ILoColor codeList = space.unpack(code, small.colors);
+      agree = agree && guessList.countExact(codeList) == space.exact(space.score(guess, code))
+          && guessList.countInexact(codeList, small.colors)
+              == space.inexact(space.score(guess, code));
+    }
+    return t.checkExpect(large.packs(), false) && t.checkExpect(game.sequence.length(), 32)
+        && t.checkExpect(shortGuesses, 250) && t.checkExpect(game.isWon(), true)
+        && t.checkExpect(game.submitted, 251) && t.checkExpect(first.first + first.second, common)
+        && t.checkExpect(game.onKeyEvent("enter") == game, true)
+        && t.checkExpect(large.score(game.sequence, game.sequence), new PairOfNumbers(32, 0))
+        && t.checkExpect(game.makeScene() != null, true)
+        && t.checkExpect(game.makeScene(), game.committed)
+        && t.checkExpect(frame, redrawn) && t.checkExpect(layered, true)
+        && t.checkExpect(submitted, true)
+        && t.checkExpect(deep.length(), 200000)
+        && t.checkExpect(deep.deleteLast().length(), 199999)
+        && t.checkExpect(deep.append(deep).length(), 400000)
+        && t.checkExpect(deep.countExact(deep), 200000)
+        && t.checkExpect(deep.dropExact(deep), new MtLoColor())
+        && t.checkExpect(deep.countColorHelp(secret[0]), 6250)
+        && t.checkExpect(deep.chooseColor(199999, 0), many[199999])
+        && t.checkExpect(history.length(), 100000)
+        && t.checkExpect(history.last(), game.sequence)
+        && t.checkExpect(history.replaceLast(deep).last(), deep)
+        && t.checkExpect(history.dropLast().length(), 99999)
+        && t.checkExpect(pairs.length(), 100000) && t.checkExpect(agree, true);
+  }
+
+  // returns the oldest of the given non-empty list of pairs, newest first
+  PairOfNumbers oldest(ILoPair pairs) {
+    while (((ConsLoPair) pairs).rest instanceof ConsLoPair) {
+      pairs = ((ConsLoPair) pairs).rest;
+    }
+    return ((ConsLoPair) pairs).first;
+  }
+
+  // tests for ArrayLoColor, as a drop-in for the lists of the tests above
+  boolean testArrayLoColor(Tester t) {
+    ILoColor palette = new ArrayLoColor(colors1.toArray());
+    ILoColor empty = new ArrayLoColor();
+    Mastermind arrays = new Mastermind(false, 3, 9, palette);
+    ILoColor code = new ArrayLoColor(new Color[] { Color.BLUE, Color.GREEN, Color.RED });
+    ILoColor two = code.deleteLast();
+    ILoColor grown = two.append(new ConsLoColor(Color.RED, mtColors));
+    ILoColor other = two.append(new ConsLoColor(Color.BLUE, mtColors));
+    ILoColor built = new ArrayLoColor();
+    for (int i = 0; i < 1000; i += 1) {
+      built = built.append(new ConsLoColor(Color.RED, mtColors));
+    }
+    CodeSpace space = new CodeSpace(4, 6, true);
+    ILoColor six = new Utils().makePalette(6);
+    SecretGenerator codes = new SecretGenerator(space, 3L);
+    boolean agree = true;
+    for (int i = 0; i < 200; i += 1) {
+      long guess = codes.next();
+      long secret = codes.next();
+      ILoColor consGuess = space.unpack(guess, six);
+      ILoColor consSecret = space.unpack(secret, six);
+      ILoColor arrayGuess = new ArrayLoColor(consGuess.toArray());
+      agree = agree && arrayGuess.countExact(consSecret) == consGuess.countExact(consSecret)
+          && arrayGuess.countInexact(consSecret, six) == consGuess.countInexact(consSecret, six)
+          && arrayGuess.pack(six, 0) == guess;
+    }
+    Game game = new Game(arrays, 2L);
+    game.onKeyEvent("3");
+    game.onKeyEvent("1");
+    return t.checkExpect(palette.checkLength(3, true) == palette, true)
+        && t.checkExpect(palette.checkLength(2, false) == palette, true)
+        && t.checkException(new IllegalArgumentException("Invalid list length"), palette,
+            "checkLength", 5, false)
+        && t.checkException(new IllegalArgumentException("Invalid list length"), empty,
+            "checkLength", 2, true)
+        && t.checkExpect(palette.length(), 3) && t.checkExpect(empty.length(), 0)
+        && t.checkExpect(arrays.space().pack(code, palette), 0x102L)
+        && t.checkExpect(arrays.space().unpack(0x102L, palette), new ConsLoColor(Color.BLUE,
+            new ConsLoColor(Color.GREEN, new ConsLoColor(Color.RED, mtColors))))
+        && t.checkExpect(arrays.score(palette, palette), new PairOfNumbers(3, 0))
+        && t.checkExpect(palette.chooseColor(3, 1), Color.BLUE)
+        && t.checkExpect(palette.chooseColor(4, 1), null)
+        && t.checkExpect(palette.indexOf(Color.RED, 1), 2)
+        && t.checkExpect(palette.dropIndex(2, 1).toArray(),
+            new Color[] { Color.GREEN, Color.BLUE })
+        && t.checkExpect(((ArrayLoColor) two).buffer == ((ArrayLoColor) code).buffer, true)
+        && t.checkExpect(((ArrayLoColor) grown).buffer == ((ArrayLoColor) code).buffer, true)
+        && t.checkExpect(((ArrayLoColor) other).buffer == ((ArrayLoColor) code).buffer, false)
+        && t.checkExpect(code.toArray(), new Color[] { Color.BLUE, Color.GREEN, Color.RED })
+        && t.checkExpect(other.toArray(), new Color[] { Color.BLUE, Color.GREEN, Color.BLUE })
+        && t.checkExpect(built.length(), 1000)
+        && t.checkExpect(((ArrayLoColor) built).buffer.colors.length < 2048, true)
+        && t.checkExpect(code.drawColors(new WorldScene(200, 100), 25, 50),
+            new ConsLoColor(Color.BLUE, new ConsLoColor(Color.GREEN, new ConsLoColor(Color.RED,
+                mtColors))).drawColors(new WorldScene(200, 100), 25, 50))
+        && t.checkExpect(empty.deleteLast() == empty, true)
+        && t.checkExpect(new ConsLoColor(Color.RED, empty).length(), 1)
+        && t.checkExpect(agree, true) && t.checkExpect(game.engine.pegs, 2);
+  }
+
+  // tests for BatchScorer, vectorized where the JVM allows and scalar
+  boolean testBatchScorer(Tester t) {
+    CodeSpace[] spaces = { new CodeSpace(4, 6, true), new CodeSpace(5, 8, false),
+        new CodeSpace(15, 16, true), new CodeSpace(1, 1, true) };
+    boolean agree = true;
+    for (CodeSpace space : spaces) {
+      SecretGenerator codes = new SecretGenerator(space, 17L);
+      long[] candidates = new long[1001];
+      codes.fill(candidates, 0, candidates.length);
+      BatchScorer vector = new BatchScorer(space);
+      BatchScorer scalar = new BatchScorer(space, false);
+      for (int g = 0; g < 20; g += 1) {
+        long guess = codes.next();
+        int[] batch = vector.score(guess, candidates);
+        int[] slow = scalar.score(guess, candidates);
+        for (int i = 0; i < candidates.length; i += 1) {
+          int expected = space.score(guess, candidates[i]);
+          agree = agree && batch[i] == expected && slow[i] == expected;
+        }
+      }
+    }
+    int[] partial = new int[] { -1, -1, -1, -1 };
+    CodeSpace small = new CodeSpace(4, 6, true);
+    new BatchScorer(small).score(0x0123L, new long[] { 0x0123L, 0x3210L, 0x1100L, 0x5555L },
+        1, 3, partial);
+    return t.checkExpect(agree, true)
+        && t.checkExpect(new BatchScorer(small, false).vectorized, false)
+        && t.checkExpect(new BatchScorer(small).vectorized, BatchScorer.VECTOR_AVAILABLE)
+        && t.checkExpect(partial, new int[] { -1, small.feedback(0, 4), small.feedback(1, 1),
+            -1 });
+  }
+
+  // tests for OpeningBookBuilder, OpeningBook and BookSolver
+  boolean testOpeningBook(Tester t) throws java.io.IOException {
+    java.nio.file.Path path = java.nio.file.Files.createTempFile("book", ".bin");
+    CodeSpace space = new CodeSpace(4, 6, true);
+    ISolver minimax = new MinimaxSolver();
+    OpeningBook book = new OpeningBookBuilder(space, minimax, 2).build(path);
+    long first = minimax.nextGuess(space, new long[0], new int[0], 0);
+    long secret = 0x3510L;
+    int feedback = space.score(first, secret);
+    long[] history = { first, 0x0000L };
+    int[] feedbacks = { feedback, space.feedback(0, 0) };
+    long second = minimax.nextGuess(space, history, feedbacks, 1);
+    long third = minimax.nextGuess(space, history, feedbacks, 2);
+    BookSolver lazy = new BookSolver(path, minimax);
+    boolean unopened = lazy.book == null;
+    long hinted = lazy.nextGuess(space, history, feedbacks, 1);
+    OpeningBook reopened = new OpeningBook(path, true);
+    BookSolver missing = new BookSolver(path.resolveSibling("missing-book.bin"), minimax);
+    OpeningBook kept = new OpeningBookBuilder(space, minimax, 1).openOrBuild(path);
+    OpeningBook rebuilt = new OpeningBookBuilder(space, new EntropySolver(), 1)
+        .openOrBuild(path);
+    boolean result = t.checkExpect(book.guess(history, feedbacks, 0), first)
+        && t.checkExpect(book.guess(history, feedbacks, 1), second)
+        && t.checkExpect(book.guess(history, feedbacks, 2), -1L)
+        && t.checkExpect(book.guess(new long[] { 0x5555L }, feedbacks, 1), -1L)
+        && t.checkExpect(book.nodes, 1 + book.edges)
+        && t.checkExpect(unopened, true) && t.checkExpect(hinted, second)
+        && t.checkExpect(lazy.nextGuess(space, history, feedbacks, 2), third)
+        && t.checkExpect(lazy.nextGuess(new CodeSpace(3, 4, true), new long[0], new int[0],
+            0), minimax.nextGuess(new CodeSpace(3, 4, true), new long[0], new int[0], 0))
+        && t.checkExpect(reopened.checksum, book.checksum)
+        && t.checkExpect(missing.nextGuess(space, history, feedbacks, 0), first)
+        && t.checkExpect(kept.depth, 2) && t.checkExpect(rebuilt.depth, 1)
+        && t.checkExpect(rebuilt.solver, OpeningBook.solverId(new EntropySolver()))
+        && t.checkConstructorException(new IllegalArgumentException("Invalid book depth: 0"),
+            "mastermind.OpeningBookBuilder", space, minimax, 0);
+    java.nio.file.Files.write(path, new byte[] { 1, 2, 3 });
+    result = result
+        && t.checkConstructorException(new java.io.IOException("Not an opening book: " + path),
+            "mastermind.OpeningBook", path, false)
+        && t.checkExpect(new BookSolver(path, minimax).nextGuess(space, history, feedbacks, 0),
+            first);
+    java.nio.file.Files.delete(path);
+    return result;
+  }
+
+  // tests for OptimalSolver and the strategies OptimalStrategyBuilder writes, and
+  // for a transposition table too small to hold every set searched
+  boolean testOptimalSolver(Tester t) throws java.io.IOException {
+    java.nio.file.Path path = java.nio.file.Files.createTempFile("strategy", ".bin");
+    CodeSpace space = new CodeSpace(3, 3, true);
+    OptimalSolver average = new OptimalAverageSolver();
+    OptimalSolver worst = new OptimalWorstCaseSolver();
+    int depth = average.depth(space);
+    OpeningBook book = new OpeningBookBuilder(space, average, depth).build(path);
+    long first = average.nextGuess(space, new long[0], new int[0], 0);
+    long[] history = { first, 0x012L };
+    int[] feedbacks = { space.score(first, 0x012L), space.solved() };
+    // two codes left are guessed in order
+    long[] pair = { 0x000L, 0x222L, 0x002L };
+    int[] pairFeedbacks = { space.feedback(2, 0), space.feedback(1, 0), space.feedback(1, 2) };
+    OptimalSolver cramped = new OptimalAverageSolver();
+    cramped.entries = 8;
+    int crampedCost = cramped.cost(new CodeSpace(4, 4, true));
+    StrategyTable table = new StrategyTable(4);
+    CandidateSet[] sets = new CandidateSet[5];
+    for (int i = 0; i < sets.length; i += 1) {
+      int[] indices = new int[3 + i];
+      for (int j = 0; j < indices.length; j += 1) {
+        indices[j] = j;
+      }
+      sets[i] = new CandidateSet(indices);
+    }
+    table.put(sets[1], new StrategyBound(9, false, -1));
+    for (int i = 0; i < sets.length; i += 1) {
+      table.put(sets[i], new StrategyBound(10 + i, true, i));
+    }
+    boolean result = t.checkExpect(average.cost(space), 73)
+        && t.checkExpect(crampedCost, 905)
+        && t.checkExpect(cramped.search.table.replaced.sum() > 0, true)
+        && t.checkExpect(table.get(sets[0]), null)
+        && t.checkExpect(table.get(sets[1]), new StrategyBound(11, true, 1))
+        && t.checkExpect(table.get(sets[4]), new StrategyBound(14, true, 4))
+        && t.checkExpect(table.describe(), "4 of 4 held, 1 replaced")
+        && t.checkConstructorException(new IllegalArgumentException("Invalid table entries: 3"),
+            "mastermind.StrategyTable", 3)
+        && t.checkExpect(worst.cost(space), 4)
+        && t.checkExpect(average.cost(new CodeSpace(2, 4, false)), 30)
+        && t.checkExpect(new OptimalAverageSolver().cost(new CodeSpace(4, 4, true)), 905)
+        && t.checkExpect(worst.cost(new CodeSpace(2, 5, true)), 4)
+        && t.checkExpect(OptimalStrategyBuilder.play(space, book), new int[] { 73, depth })
+        && t.checkExpect(book.guess(history, feedbacks, 0), first)
+        && t.checkExpect(average.nextGuess(space, history, feedbacks, 1),
+            book.guess(history, feedbacks, 1))
+        && t.checkExpect(space.consistent(pair, pairFeedbacks, 3), new long[] { 0x020L, 0x200L })
+        && t.checkExpect(average.nextGuess(space, pair, pairFeedbacks, 3), 0x020L)
+        && t.checkExpect(average.lowerBound(1, 8), 1)
+        && t.checkExpect(average.lowerBound(3, 8), 5)
+        && t.checkExpect(average.lowerBound(12, 3), 1 + 2 * 3 + 3 * 8)
+        && t.checkExpect(worst.lowerBound(1, 13), 1)
+        && t.checkExpect(worst.lowerBound(14, 13), 2)
+        && t.checkExpect(worst.lowerBound(15, 13), 3)
+        && t.checkExpect(average.search.responses, 8)
+        && t.checkException(new IllegalStateException("No code is consistent with the feedback"),
+            average, "nextGuess", space, new long[] { 0, 0 },
+            new int[] { space.feedback(3, 0), space.feedback(0, 0) }, 2)
+        && t.checkConstructorException(new IllegalArgumentException(
+            "Code space too large for an optimal search: 32768"),
+            "mastermind.StrategySearch", average, new CodeSpace(5, 8, true));
+    java.nio.file.Files.delete(path);
+    return result;
+  }
+
+  // tests for SolverTournament and TournamentResult
+  boolean testSolverTournament(Tester t) {
+    Mastermind board = new Mastermind(true, 3, 3, new Utils().makePalette(4));
+    SolverTournament tournament = new SolverTournament(board);
+    long[] every = tournament.secrets(64, 1);
+    long[] sample = tournament.secrets(10, 1);
+    TournamentResult optimal = tournament.play("average", new OptimalAverageSolver(), every);
+    TournamentResult minimax = tournament.play("minimax",
+        SolverTournament.solverNamed("minimax"), sample);
+    java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+    SolverTournament.writeCsv(java.util.Arrays.asList(optimal, minimax),
+        new java.io.PrintStream(bytes, true));
+    String[] lines = bytes.toString().split("\n");
+    return t.checkExpect(every, board.space().enumerate())
+        && t.checkExpect(sample.length, 10)
+        && t.checkExpect(sample, tournament.secrets(10, 1))
+        && t.checkExpect(board.space().contains(sample[9]), true)
+        && t.checkExpect(optimal.games(), 64L)
+        && t.checkExpect(optimal.average(), 206.0 / 64)
+        && t.checkExpect(optimal.counts[1], 1L)
+        && t.checkExpect(optimal.winRate(), (double) (optimal.counts[1] + optimal.counts[2]
+            + optimal.counts[3]) / 64)
+        && t.checkNumRange(optimal.worst(), 4, 6)
+        && t.checkExpect(minimax.games(), 10L)
+        && t.checkExpect(minimax.counts[SolverTournament.MAX_GUESSES + 1], 0L)
+        && t.checkExpect(lines.length, 3)
+        && t.checkExpect(lines[0].startsWith("solver,games,average,worst,win_rate,unbroken,"
+            + "games_per_second,guesses_1,"), true)
+        && t.checkExpect(lines[1].startsWith("average,64,3.2188,"), true)
+        && t.checkException(new IllegalArgumentException("Invalid solver: random"),
+            new SolverTournament(board), "solverNamed", "random")
+        && t.checkException(new IllegalArgumentException("Invalid sample size: 0"),
+            tournament, "secrets", 0, 1L);
+  }
+
+  // tests for TerminalScreen and TerminalGame
+  boolean testTerminalGame(Tester t) {
+    Mastermind board = new Mastermind(true, 4, 2, new Utils().makePalette(6));
+    TerminalGame game = new TerminalGame(board, 7L);
+    String first = game.redraw();
+    String unchanged = game.redraw();
+    game.onKey("1");
+    String peg = game.redraw();
+    int cell = TerminalGame.GRID_ROW * game.screen.width + 5;
+    game.screen.invalidate();
+    String again = game.redraw();
+    TerminalGame won = new TerminalGame(board, 7L);
+    for (int i = 0; i < 4; i += 1) {
+      won.onKey(Integer.toString(won.engine.space.peg(won.engine.secret, i) + 1));
+    }
+    won.onKey("enter");
+    won.redraw();
+    int status = (TerminalGame.GRID_ROW + 3) * won.screen.width;
+    TerminalScreen screen = new TerminalScreen(4, 2);
+    screen.flush();
+    screen.print(1, 2, "abc", 0x010203);
+    return t.checkExpect(first.startsWith(TerminalScreen.CSI + "1;1H"), true)
+        && t.checkExpect(unchanged, "")
+        && t.checkExpect(peg, TerminalScreen.CSI + "5;6H" + TerminalScreen.CSI + "38;2;"
+            + board.colors.toArray()[0].getRed() + ";" + board.colors.toArray()[0].getGreen()
+            + ";" + board.colors.toArray()[0].getBlue() + "m" + TerminalGame.PEG)
+        && t.checkExpect(game.screen.shownChars[cell], TerminalGame.PEG)
+        && t.checkExpect(game.screen.shownChars[cell + 2], TerminalGame.HOLE)
+        && t.checkExpect(again.length() > first.length() / 2, true)
+        && t.checkExpect(new String(won.screen.shownChars, status, 9), "Solved in")
+        && t.checkExpect(screen.flush(), TerminalScreen.CSI + "2;3H" + TerminalScreen.CSI
+            + "38;2;1;2;3mab")
+        && t.checkExpect(screen.chars.length, 8)
+        && t.checkExpect(TerminalGame.keyOf('\r'), "enter")
+        && t.checkExpect(TerminalGame.keyOf(127), "backspace")
+        && t.checkExpect(TerminalGame.keyOf('7'), "7")
+        && t.checkExpect(TerminalGame.keyOf('x'), "x");
+  }
+
+  // tests for HintCache: hints are the solver's, positions reached in another
+  // order are hits, the least recently used position is evicted, and threads
+  // asking about a position being searched share one search
+  boolean testHintCache(Tester t) throws Exception {
+    CodeSpace space = new CodeSpace(4, 6, true);
+    MinimaxSolver minimax = new MinimaxSolver();
+    HintCache cache = new HintCache(minimax, 2);
+    long[] guesses = new long[] { 0x1100L, 0x3322L };
+    int[] feedbacks = new int[] { space.score(0x1100L, 0x2341L), space.score(0x3322L, 0x2341L) };
+    long[] swapped = new long[] { 0x3322L, 0x1100L };
+    int[] swappedFeedbacks = new int[] { feedbacks[1], feedbacks[0] };
+    long first = cache.nextGuess(space, guesses, feedbacks, 2);
+    long again = cache.nextGuess(space, swapped, swappedFeedbacks, 2);
+    long opening = cache.nextGuess(space, guesses, feedbacks, 0);
+    cache.nextGuess(space, guesses, feedbacks, 1);
+    boolean evicted = cache.size() == 2 && cache.evictions.sum() == 1;
+    HintSegment segment = new HintSegment(2, new java.util.concurrent.atomic.LongAdder());
+    HintKey[] keys = new HintKey[3];
+    for (int i = 0; i < keys.length; i += 1) {
+      keys[i] = new HintKey(space, guesses, feedbacks, i);
+      segment.put(keys[i], (long) i);
+      segment.get(keys[0]);
+    }
+    java.util.concurrent.atomic.AtomicInteger searches =
+        new java.util.concurrent.atomic.AtomicInteger();
+    java.util.concurrent.CountDownLatch asked = new java.util.concurrent.CountDownLatch(1);
+    HintCache slow = new HintCache((s, g, f, count) -> {
+      searches.incrementAndGet();
+      asked.countDown();
+      try {
+        Thread.sleep(200);
+      }
+      catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      return 0x1234L;
+    }, 16);
+    long[] answers = new long[8];
+    Thread[] threads = new Thread[answers.length];
+    for (int i = 0; i < threads.length; i += 1) {
+      int thread = i;
+      threads[i] = new Thread(() -> {
+        answers[thread] = slow.nextGuess(space, guesses, feedbacks, 2);
+      });
+    }
+    threads[0].start();
+    asked.await();
+    for (int i = 1; i < threads.length; i += 1) {
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    java.util.concurrent.atomic.AtomicInteger pressed =
+        new java.util.concurrent.atomic.AtomicInteger();
+    java.util.concurrent.CountDownLatch searching = new java.util.concurrent.CountDownLatch(1);
+    java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+    HintCache small = new HintCache((s, g, f, count) -> {
+      if (count == 2) {
+        pressed.incrementAndGet();
+        searching.countDown();
+        try {
+          release.await();
+        }
+        catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      return count;
+    }, 1);
+    long[] held = new long[2];
+    Thread first2 = new Thread(() -> held[0] = small.nextGuess(space, guesses, feedbacks, 2));
+    first2.start();
+    searching.await();
+    small.nextGuess(space, guesses, feedbacks, 0);
+    small.nextGuess(space, guesses, feedbacks, 1);
+    Thread second2 = new Thread(() -> held[1] = small.nextGuess(space, guesses, feedbacks, 2));
+    second2.start();
+    while (small.shared.sum() == 0 && second2.isAlive()) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+    first2.join();
+    second2.join();
+    HintCache failing = new HintCache(minimax, 4);
+    long[] impossible = new long[] { 0, 0 };
+    int[] contradiction = new int[] { space.feedback(4, 0), space.feedback(0, 0) };
+    Game game = new Game(new Mastermind(true, 4, 10, new Utils().makePalette(6)), 3L);
+    game.onKeyEvent("1");
+    game.onKeyEvent("1");
+    game.onKeyEvent("2");
+    game.onKeyEvent("2");
+    game.onKeyEvent("enter");
+    GameServer server = new GameServer();
+    String id = server.handle("NEW 4 6 10 true 3").substring(3);
+    server.handle("PEG " + id + " 1");
+    server.handle("PEG " + id + " 1");
+    server.handle("PEG " + id + " 2");
+    server.handle("PEG " + id + " 2");
+    server.handle("GUESS " + id);
+    String other = server.handle("NEW 4 6 10 true 3").substring(3);
+    for (String peg : new String[] { "1", "1", "2", "2" }) {
+      server.handle("PEG " + other + " " + peg);
+    }
+    server.handle("GUESS " + other);
+    String hint = server.handle("HINT " + id);
+    String large = server.handle("NEW 6 9 10 true 3").substring(3);
+    return t.checkExpect(first, minimax.nextGuess(space, guesses, feedbacks, 2))
+        && t.checkExpect(again, first)
+        && t.checkExpect(opening, minimax.nextGuess(space, guesses, feedbacks, 0))
+        && t.checkExpect(evicted, true)
+        && t.checkExpect(cache.misses.sum(), 3L)
+        && t.checkExpect(segment.containsKey(keys[0]) && segment.containsKey(keys[2]), true)
+        && t.checkExpect(segment.containsKey(keys[1]), false)
+        && t.checkExpect(keys[2].equals(new HintKey(space, swapped, swappedFeedbacks, 2)), true)
+        && t.checkExpect(keys[2].hash == keys[1].hash, false)
+        && t.checkExpect(cache.hits.sum(), 1L)
+        && t.checkExpect(searches.get(), 1)
+        && t.checkExpect(answers[7], 0x1234L)
+        && t.checkExpect(slow.misses.sum() + slow.hits.sum() + slow.shared.sum(), 8L)
+        && t.checkExpect(slow.misses.sum(), 1L)
+        && t.checkExpect(pressed.get(), 1)
+        && t.checkExpect(held[0] == 2 && held[1] == 2, true)
+        && t.checkExpect(small.evictions.sum(), 2L)
+        && t.checkExpect(small.searching.isEmpty(), true)
+        && t.checkInexact(slow.hitRate(), 0.875, 0.0001)
+        && t.checkException(new IllegalStateException("No code is consistent with the feedback"),
+            failing, "nextGuess", space, impossible, contradiction, 2)
+        && t.checkExpect(failing.size(), 0)
+        && t.checkExpect(game.hint(cache), space.unpack(minimax.nextGuess(space,
+            game.engine.guesses, game.engine.feedbacks, 1), game.mastermind.colors))
+        && t.checkExpect(hint.startsWith("HINT "), true)
+        && t.checkExpect(server.handle("HINT " + other), hint)
+        && t.checkExpect(server.hints.hits.sum(), 1L)
+        && t.checkExpect(server.handle("HINT " + large), "ERR Too many codes for a hint: 531441")
+        && t.checkExpect(server.handle("HINTS").startsWith("HINTS 1 of 65536 held, 1 hits"), true)
+        && t.checkConstructorException(new IllegalArgumentException("Invalid cache capacity: 0"),
+            "mastermind.HintCache", minimax, 0);
+  }
+
+  // tests for DistributedSolver and PartitionWorker: workers in this process and
+  // in another choose the local solver's guess, the shards of a worker that dies
+  // go to another, a slow worker's shard is run again by an idle one, and a
+  // solver without workers fails
+  boolean testDistributedSolver(Tester t) throws Exception {
+    CodeSpace space = new CodeSpace(4, 6, true);
+    long[] guesses = new long[] { 0x1100L, 0x3322L };
+    int[] feedbacks = new int[] { space.score(0x1100L, 0x2341L), space.score(0x3322L, 0x2341L) };
+    long[] opening = new long[] { 0x1100L };
+    long local = new MinimaxSolver().nextGuess(space, opening, feedbacks, 1);
+    DistributedSolver solver = new DistributedSolver("minimax");
+    long[] settings = new long[] { 0, -1, 0, 1, 5000, -1 };
+    for (int i = 0; i < settings.length; i += 2) {
+      Thread worker = new Thread(new PartitionWorker(solver.port(), "minimax", settings[i],
+          (int) settings[i + 1]));
+      worker.setDaemon(true);
+      worker.start();
+    }
+    solver.accept(3);
+    long started = System.nanoTime();
+    long distributed = solver.nextGuess(space, opening, feedbacks, 1);
+    long millis = (System.nanoTime() - started) / 1000000;
+    long later = solver.nextGuess(space, guesses, feedbacks, 2);
+    solver.close();
+    DistributedSolver spawned = new DistributedSolver("entropy", 1);
+    long remote = spawned.nextGuess(space, opening, feedbacks, 1);
+    spawned.close();
+    DistributedSolver lonely = new DistributedSolver("expected");
+    Thread dying = new Thread(new PartitionWorker(lonely.port(), "expected", 0, 0));
+    dying.setDaemon(true);
+    dying.start();
+    lonely.accept(1);
+    return t.checkExpect(distributed, local)
+        && t.checkNumRange(millis, 0L, 5000L)
+        && t.checkExpect(solver.reassigned >= 1, true)
+        && t.checkExpect(solver.backups >= 1, true)
+        && t.checkExpect(later, new MinimaxSolver().nextGuess(space, guesses, feedbacks, 2))
+        && t.checkExpect(remote, new EntropySolver().nextGuess(space, opening, feedbacks, 1))
+        && t.checkException(new IllegalStateException("No workers left"), lonely, "nextGuess",
+            space, opening, feedbacks, 1)
+        && t.checkConstructorException(new IllegalArgumentException(
+            "Not a partition solver: average"), "mastermind.DistributedSolver", "average");
+  }
+
+  // tests for GameSnapshot: random games of random configurations, some over and
+  // some mid-guess, resume as they were and write back the same bytes
+  boolean testGameSnapshot(Tester t) {
+    SplittableRandom random = new SplittableRandom(23L);
+    boolean same = true;
+    boolean rewritten = true;
+    ByteBuffer stream = ByteBuffer.allocate(1 << 16);
+    Game[] games = new Game[200];
+    for (int g = 0; g < games.length; g += 1) {
+      boolean duplicates = random.nextBoolean();
+      int colors = 1 + random.nextInt(CodeSpace.MAX_COLORS);
+      int length = 1 + random.nextInt(duplicates ? CodeSpace.MAX_LENGTH
+          : Math.min(colors, CodeSpace.MAX_LENGTH));
+      Mastermind board = new Mastermind(duplicates, length, 1 + random.nextInt(12),
+          new Utils().makePalette(colors));
+      Game game = new Game(board, random.nextLong());
+      for (int key = random.nextInt(60); key > 0; key -= 1) {
+        int roll = random.nextInt(length + 3);
+        game.onKeyEvent(roll == 0 ? "enter" : roll == 1 ? "backspace"
+            : Integer.toString(random.nextInt(10)));
+      }
+      games[g] = game;
+      GameSnapshot.write(game, stream);
+    }
+    stream.flip();
+    for (Game game : games) {
+      GameSnapshot snapshot = new GameSnapshot(stream);
+      Game resumed = snapshot.resume();
+      GameEngine a = game.engine;
+      GameEngine b = resumed.engine;
+      same = same && a.seed == b.seed && a.secret == b.secret && a.submitted == b.submitted
+          && a.current == b.current && a.pegs == b.pegs
+          && java.util.Arrays.equals(a.guesses, b.guesses)
+          && java.util.Arrays.equals(a.feedbacks, b.feedbacks)
+          && a.isOver() == b.isOver() && game.keys.typed == resumed.keys.typed
+          && game.keys.selection == resumed.keys.selection
+          && snapshot.matches(game.mastermind)
+          && java.util.Arrays.equals(game.mastermind.colors.toArray(),
+              resumed.mastermind.colors.toArray());
+      rewritten = rewritten && GameSnapshot.of(resumed).equals(GameSnapshot.of(game));
+    }
+    Mastermind classic = new Mastermind(true, 4, 10, new Utils().makePalette(6));
+    Game played = new Game(classic, 5L);
+    for (String key : new String[] { "1", "2", "3", "4", "enter", "5", "6" }) {
+      played.onKeyEvent(key);
+    }
+    ByteBuffer bytes = GameSnapshot.of(played);
+    byte[] corrupt = bytes.array().clone();
+    corrupt[GameSnapshot.FIXED_BYTES - 1] ^= 1;
+    byte[] newer = bytes.array().clone();
+    newer[4] = 2;
+    IllegalArgumentException invalid = new IllegalArgumentException("Invalid game snapshot");
+    Game resumed = new GameSnapshot(bytes.duplicate()).resume(classic);
+    resumed.onKeyEvent("1");
+    resumed.onKeyEvent("2");
+    resumed.onKeyEvent("enter");
+    played.onKeyEvent("1");
+    played.onKeyEvent("2");
+    played.onKeyEvent("enter");
+    GameServer server = new GameServer();
+    String id = server.handle("NEW 4 6 10 true 5").substring(3);
+    server.handle("PEG " + id + " 3");
+    String saved = server.handle("SAVE " + id);
+    GameServer other = new GameServer();
+    String moved = other.handle("LOAD " + saved.substring(9)).substring(3);
+    return t.checkExpect(same, true) && t.checkExpect(rewritten, true)
+        && t.checkExpect(stream.hasRemaining(), false)
+        && t.checkExpect(bytes.remaining(), GameSnapshot.FIXED_BYTES + 4 * 6 + 3 + 4)
+        && t.checkExpect(new GameSnapshot(bytes.duplicate()).guessAt(0), 0x3210L)
+        && t.checkExpect(new GameSnapshot(bytes.duplicate()).pegs(), 2)
+        && t.checkExpect(resumed.engine.feedbacks[1], played.engine.feedbacks[1])
+        && t.checkExpect(resumed.engine.submitted, 2)
+        && t.checkExpect(resumed.mastermind == classic, true)
+        && t.checkExpect(other.handle("BOARD " + moved), server.handle("BOARD " + id))
+        && t.checkExpect(other.sessions.get(Long.parseLong(moved)).engine.current,
+            server.sessions.get(Long.parseLong(id)).engine.current)
+        && t.checkExpect(other.handle("LOAD AAAA"), "ERR Not a game snapshot")
+        && t.checkConstructorException(new IllegalArgumentException("Corrupt game snapshot"),
+            "mastermind.GameSnapshot", ByteBuffer.wrap(corrupt))
+        && t.checkConstructorException(new IllegalArgumentException(
+            "Unsupported game snapshot version: 2"), "mastermind.GameSnapshot",
+            ByteBuffer.wrap(newer))
+        && t.checkConstructorException(new IllegalArgumentException("Truncated game snapshot"),
+            "mastermind.GameSnapshot", ByteBuffer.wrap(bytes.array(), 0, bytes.limit() - 1))
+        && t.checkException(new IllegalArgumentException("Snapshot of another configuration"),
+            new GameSnapshot(bytes.duplicate()), "engine",
+            new Mastermind(true, 4, 9, new Utils().makePalette(6)))
+        && t.checkExpect(new GameSnapshot(this.forge(bytes, 40, 2, 1)).pegs(), 2)
+        && t.checkConstructorException(invalid, "mastermind.GameSnapshot",
+            this.forge(bytes, 40, -1, 1))
+        && t.checkConstructorException(invalid, "mastermind.GameSnapshot",
+            this.forge(bytes, 40, 5, 1))
+        && t.checkConstructorException(invalid, "mastermind.GameSnapshot",
+            this.forge(bytes, 8, Integer.MAX_VALUE, 4))
+        && t.checkConstructorException(invalid, "mastermind.GameSnapshot",
+            this.forge(bytes, 70, classic.space().solved(), 1))
+        && t.checkConstructorException(invalid, "mastermind.GameSnapshot",
+            this.forge(bytes, 24, 0xFFFFL, 8))
+        && t.checkConstructorException(invalid, "mastermind.GameSnapshot",
+            this.forge(bytes, 32, 0x10000L, 8))
+        && t.checkConstructorException(invalid, "mastermind.GameSnapshot",
+            this.forge(bytes, 41, 1, 1))
+        && t.checkExpect(other.handle("LOAD " + java.util.Base64.getEncoder().encodeToString(
+            this.forge(bytes, 70, classic.space().solved(), 1).array())),
+            "ERR Invalid game snapshot");
+  }
+
+  // tests for KeyRecorder, KeyRecording and ReplayHarness
+  boolean testKeyRecording(Tester t) throws java.io.IOException {
+    java.nio.file.Path dir = java.nio.file.Files.createTempDirectory("recordings");
+    java.util.List<java.nio.file.Path> paths = new java.util.ArrayList<java.nio.file.Path>();
+    Mastermind board = new Mastermind(true, 4, 10, new Utils().makePalette(12));
+    String[] keys = { "0", "3", "1", "1", "backspace", "0", "4", "1", "2", "0", "9", "enter",
+        "x", "1", "2" };
+    for (int i = 0; i < 8; i += 1) {
+      java.nio.file.Path path = dir.resolve("game-" + i + ".rec");
+      Game game = new Game(board, 100L + i);
+      try (KeyRecorder recorder = new KeyRecorder(path, game.engine)) {
+        game.record(recorder);
+        for (String key : keys) {
+          game.onKeyEvent(key);
+        }
+      }
+      paths.add(path);
+    }
+    KeyRecording recording = new KeyRecording(paths.get(0));
+    Game replayed = new Game(recording.mastermind, recording.seed);
+    for (int i = 0; i < recording.events; i += 1) {
+      replayed.onKeyEvent(recording.keys[i]);
+    }
+    ReplayHarness harness = new ReplayHarness().replay(paths);
+    java.nio.file.Path tampered = dir.resolve("tampered.rec");
+    byte[] bytes = java.nio.file.Files.readAllBytes(paths.get(1));
+    bytes[bytes.length - 1] ^= 1;
+    java.nio.file.Files.write(tampered, bytes);
+    java.nio.file.Path garbage = dir.resolve("garbage.rec");
+    java.nio.file.Files.write(garbage, new byte[] { 1, 2 });
+    // headers and trailers that would break the game: a negative palette, no
+    // pegs, too many colors, too many guesses and a negative guess count
+    byte[] original = java.nio.file.Files.readAllBytes(paths.get(2));
+    int[][] forgeries = { { 25, -1 }, { 8, 0 }, { 25, 17 }, { 12, Integer.MAX_VALUE },
+        { original.length - 25, -1 } };
+    java.util.List<java.nio.file.Path> broken = new java.util.ArrayList<java.nio.file.Path>();
+    broken.add(tampered);
+    broken.add(garbage);
+    for (int i = 0; i < forgeries.length; i += 1) {
+      java.nio.file.Path path = dir.resolve("broken-" + i + ".rec");
+      java.nio.file.Files.write(path, ByteBuffer.wrap(original.clone())
+          .putInt(forgeries[i][0], forgeries[i][1]).array());
+      broken.add(path);
+    }
+    ReplayHarness failing = new ReplayHarness().replay(broken);
+    boolean result = t.checkExpect(recording.events, keys.length)
+        && t.checkExpect(recording.keys[4], "backspace")
+        && t.checkExpect(recording.keys[12], "x")
+        && t.checkExpect(recording.seed, 100L)
+        && t.checkExpect(recording.mastermind.colors.length(), 12)
+        && t.checkExpect(recording.guesses.length, 1) && t.checkExpect(recording.pegs, 1)
+        && t.checkExpect(recording.guesses[0], 0x8B32L)
+        && t.checkExpect(recording.matches(replayed.engine), true)
+        && t.checkExpect(harness.replayed.sum(), 8L)
+        && t.checkExpect(harness.events.sum(), 8L * keys.length)
+        && t.checkExpect(harness.latency.count.sum(), 8L * keys.length)
+        && t.checkExpect(harness.mismatched.isEmpty(), true)
+        && t.checkExpect(failing.mismatched.size(), 7)
+        && t.checkExpect(failing.replayed.sum(), 1L)
+        && t.checkConstructorException(new java.io.IOException("Invalid key recording: "
+            + broken.get(2)), "mastermind.KeyRecording", broken.get(2))
+        && t.checkExpect(harness.describe().startsWith("8 recordings, 120 events, 0 mismatched"),
+            true);
+    for (java.nio.file.Path path : broken) {
+      java.nio.file.Files.delete(path);
+    }
+    for (java.nio.file.Path path : paths) {
+      java.nio.file.Files.delete(path);
+    }
+    java.nio.file.Files.delete(dir);
+    return result;
+  }
+
+  // tests for CodeSymmetry, and that solvers searching reduced guesses pick what
+  // they would picking from every code
+  boolean testCodeSymmetry(Tester t) {
+    CodeSpace space = new CodeSpace(4, 6, true);
+    CodeSymmetry opening = new CodeSymmetry(space, new long[0], 0);
+    long[] history = { 0x1100L, 0x2345L };
+    CodeSymmetry after = new CodeSymmetry(space, history, 1);
+    CodeSymmetry late = new CodeSymmetry(space, history, 2);
+    MinimaxSolver minimax = new MinimaxSolver();
+    EntropySolver entropy = new EntropySolver();
+    boolean same = true;
+    SecretGenerator secrets = new SecretGenerator(space, 4L);
+    for (int game = 0; game < 5; game += 1) {
+      long secret = secrets.next();
+      long[] guesses = new long[8];
+      int[] feedbacks = new int[8];
+      for (int turn = 0; turn < 3; turn += 1) {
+        long[] candidates = space.consistent(guesses, feedbacks, turn);
+        long reduced = minimax.nextGuessAfter(space, guesses, turn, candidates);
+        long full = minimax.best(space, space.enumerate(), candidates).guess;
+        long reducedEntropy = entropy.nextGuessAfter(space, guesses, turn, candidates);
+        long fullEntropy = entropy.best(space, space.enumerate(), candidates).guess;
+        same = same && (candidates.length <= 2 || (reduced == full
+            && reducedEntropy == fullEntropy));
+        guesses[turn] = reduced;
+        feedbacks[turn] = space.score(reduced, secret);
+      }
+    }
+    CodeSpace larger = new CodeSpace(5, 8, false);
+    CandidateTracker tracker = new CandidateTracker(space);
+    tracker.filter(0x1100L, space.feedback(1, 0));
+    return t.checkExpect(opening.representatives(space.enumerate()),
+            new long[] { 0x0000L, 0x0001L, 0x0011L, 0x0012L, 0x0123L })
+        && t.checkExpect(opening.canonical(0x5432L), opening.canonical(0x0123L))
+        && t.checkExpect(after.classes, 2) && t.checkExpect(after.free, 0x3C)
+        && t.checkExpect(after.canonical(0x1054L), after.canonical(0x1023L))
+        && t.checkExpect(after.canonical(0x0005L) == after.canonical(0x0500L), false)
+        && t.checkExpect(late.reduces(), false)
+        && t.checkExpect(late.representatives(space.enumerate()).length, space.size())
+        && t.checkExpect(new CodeSymmetry(larger, new long[0], 0)
+            .representatives(larger.enumerate()).length, 1)
+        && t.checkExpect(new CodeSymmetry(new CodeSpace(5, 8, true), new long[0], 0)
+            .representatives(new CodeSpace(5, 8, true).enumerate()).length, 7)
+        && t.checkExpect(tracker.filtered, 1)
+        && t.checkExpect(minimax.nextGuess(tracker),
+            minimax.best(space, space.enumerate(), tracker.candidates()).guess)
+        && t.checkExpect(same, true);
+  }
+
+  // tests for size(), codeAt() and indexOf()
+  boolean testCodeSpace(Tester t) {
+    CodeSpace dup = new CodeSpace(4, 6, true);
+    CodeSpace noDup = new CodeSpace(4, 6, false);
+    return t.checkExpect(dup.size(), 1296) && t.checkExpect(noDup.size(), 360)
+        && t.checkExpect(dup.codeAt(dup.indexOf(0x5043L)), 0x5043L)
+        && t.checkExpect(noDup.codeAt(noDup.indexOf(0x5043L)), 0x5043L)
+        && t.checkExpect(noDup.codeAt(0), 0x0123L)
+        && t.checkExpect(noDup.contains(0x5543L), false)
+        && t.checkExpect(dup.contains(0x5543L), true);
+  }
+
+  boolean testBigBang(Tester t) {
+    World w = g1;
+    int worldWidth = 1000;
+    int worldHeight = 1000;
+    double tickRate = 1;
+    return w.bigBang(worldWidth, worldHeight, tickRate);
+  }
+}
\ No newline at end of file
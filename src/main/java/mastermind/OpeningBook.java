@@ -0,0 +1,345 @@
+package mastermind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+// represents the first moves a solver makes in every game of a code space, as a
+// decision tree read straight out of a memory-mapped file: opening a book maps
+// it without reading it, and looking up a guess walks one node per move
+//
+// the file is a header followed by the nodes in breadth-first order and then the
+// edges, where the edges of a node are contiguous and sorted by feedback:
+//   header: int magic, int version, int length, int colors, int duplicates,
+//     int depth, int solver (hash of its class name), int nodes, int edges,
+//     int unused, long checksum (CRC32C of the nodes and edges)
+//   node: long guess, int first edge, int number of edges
+//   edge: int feedback, int child node
+class OpeningBook {
+  static final int MAGIC = 0x4D4D4F42;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 48;
+  static final int NODE_BYTES = 16;
+  static final int EDGE_BYTES = 8;
+
+  CodeSpace space;
+  int depth;
+  int solver;
+  int nodes;
+  int edges;
+  long checksum;
+  // the nodes and edges
+  MappedByteBuffer tree;
+
+  // opens the opening book in the given file, checking its checksum if asked
+  OpeningBook(Path path, boolean verify) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        continue;
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new IOException("Not an opening book: " + path);
+      }
+      if (header.getInt() != VERSION) {
+        throw new IOException("Unsupported opening book version: " + path);
+      }
+      this.space = new CodeSpace(header.getInt(), header.getInt(), header.getInt() != 0);
+      this.depth = header.getInt();
+      this.solver = header.getInt();
+      this.nodes = header.getInt();
+      this.edges = header.getInt();
+      header.getInt();
+      this.checksum = header.getLong();
+      long bytes = (long) this.nodes * NODE_BYTES + (long) this.edges * EDGE_BYTES;
+      if (this.nodes < 1 || channel.size() != HEADER_BYTES + bytes) {
+        throw new IOException("Truncated opening book: " + path);
+      }
+      this.tree = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, bytes);
+    }
+    if (verify && this.computeChecksum() != this.checksum) {
+      throw new IOException("Corrupt opening book: " + path);
+    }
+  }
+
+  // returns the guess the book makes after the first count of the given guesses
+  // and their feedbacks, or -1 if that history leaves the book
+  long guess(long[] guesses, int[] feedbacks, int count) {
+    int node = 0;
+    for (int i = 0; i < count; i += 1) {
+      if (this.guessAt(node) != guesses[i]) {
+        return -1;
+      }
+      node = this.child(node, feedbacks[i]);
+      if (node < 0) {
+        return -1;
+      }
+    }
+    return this.guessAt(node);
+  }
+
+  // returns the guess of the given node
+  long guessAt(int node) {
+    return this.tree.getLong(node * NODE_BYTES);
+  }
+
+  // returns the child of the given node reached by the given feedback, or -1 if
+  // the book does not go on from there
+  int child(int node, int feedback) {
+    int first = this.tree.getInt(node * NODE_BYTES + 8);
+    int count = this.tree.getInt(node * NODE_BYTES + 12);
+    int base = this.nodes * NODE_BYTES;
+    for (int e = first; e < first + count; e += 1) {
+      int edgeFeedback = this.tree.getInt(base + e * EDGE_BYTES);
+      if (edgeFeedback == feedback) {
+        return this.tree.getInt(base + e * EDGE_BYTES + 4);
+      }
+      else if (edgeFeedback > feedback) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  // computes the checksum of the nodes and edges of this book
+  long computeChecksum() {
+    CRC32C crc = new CRC32C();
+    crc.update(this.tree.duplicate().clear());
+    return crc.getValue();
+  }
+
+  // to determine whether this book was built for the given code space and solver
+  // at least as deep as the given depth
+  boolean matches(CodeSpace that, ISolver solver, int depth) {
+    return this.space.length == that.length && this.space.colors == that.colors
+        && this.space.duplicates == that.duplicates && this.depth >= depth
+        && this.solver == OpeningBook.solverId(solver);
+  }
+
+  // identifies the given solver in a book header
+  static int solverId(ISolver solver) {
+    return solver.getClass().getName().hashCode();
+  }
+}
+
+// builds opening book files for a code space by playing the given solver against
+// every secret for the first depth moves
+class OpeningBookBuilder {
+  CodeSpace space;
+  ISolver solver;
+  int depth;
+
+  OpeningBookBuilder(CodeSpace space, ISolver solver, int depth) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Invalid book depth: " + Integer.toString(depth));
+    }
+    this.space = space;
+    this.solver = solver;
+    this.depth = depth;
+  }
+
+  // opens the book in the given file if it was built for this space and solver
+  // deep enough, or builds it there otherwise
+  OpeningBook openOrBuild(Path path) throws IOException {
+    if (Files.exists(path)) {
+      try {
+        OpeningBook book = new OpeningBook(path, false);
+        if (book.matches(this.space, this.solver, this.depth)) {
+          return book;
+        }
+      }
+      catch (IOException e) {
+        // falls through to rebuild a stale or damaged file
+      }
+    }
+    return this.build(path);
+  }
+
+  // builds the book for this space into the given file and opens it
+  OpeningBook build(Path path) throws IOException {
+    // the tree, grown breadth first: nodes are numbered as they are queued, and
+    // expanded in that order, so the edges of each node end up contiguous
+    long[] guesses = new long[16];
+    int[] firstEdges = new int[16];
+    int[] edgeCounts = new int[16];
+    int[] edgeFeedbacks = new int[16];
+    int[] edgeChildren = new int[16];
+    int nodes = 1;
+    int edges = 0;
+    BatchScorer scorer = new BatchScorer(this.space);
+    int[] sizes = new int[this.space.feedbacks()];
+    ArrayDeque<BookPosition> queue = new ArrayDeque<BookPosition>();
+    queue.add(new BookPosition(new long[0], new int[0], this.space.enumerate()));
+    for (int node = 0; !queue.isEmpty(); node += 1) {
+      BookPosition position = queue.poll();
+      int count = position.guesses.length;
+      long guess = this.solver.nextGuess(this.space, position.guesses, position.feedbacks,
+          count);
+      if (node == guesses.length) {
+        guesses = Arrays.copyOf(guesses, node * 2);
+        firstEdges = Arrays.copyOf(firstEdges, node * 2);
+        edgeCounts = Arrays.copyOf(edgeCounts, node * 2);
+      }
+      guesses[node] = guess;
+      firstEdges[node] = edges;
+      if (count + 1 < this.depth) {
+        int[] scores = scorer.score(guess, position.candidates);
+        Arrays.fill(sizes, 0);
+        for (int score : scores) {
+          sizes[score] += 1;
+        }
+        for (int feedback = 0; feedback < sizes.length; feedback += 1) {
+          if (sizes[feedback] == 0 || feedback == this.space.solved()) {
+            continue;
+          }
+          long[] candidates = new long[sizes[feedback]];
+          int size = 0;
+          for (int i = 0; i < scores.length; i += 1) {
+            if (scores[i] == feedback) {
+              candidates[size] = position.candidates[i];
+              size += 1;
+            }
+          }
+          long[] childGuesses = Arrays.copyOf(position.guesses, count + 1);
+          int[] childFeedbacks = Arrays.copyOf(position.feedbacks, count + 1);
+          childGuesses[count] = guess;
+          childFeedbacks[count] = feedback;
+          queue.add(new BookPosition(childGuesses, childFeedbacks, candidates));
+          if (edges == edgeFeedbacks.length) {
+            edgeFeedbacks = Arrays.copyOf(edgeFeedbacks, edges * 2);
+            edgeChildren = Arrays.copyOf(edgeChildren, edges * 2);
+          }
+          edgeFeedbacks[edges] = feedback;
+          edgeChildren[edges] = nodes;
+          edges += 1;
+          nodes += 1;
+        }
+      }
+      edgeCounts[node] = edges - firstEdges[node];
+    }
+
+    ByteBuffer tree = ByteBuffer.allocate(nodes * OpeningBook.NODE_BYTES
+        + edges * OpeningBook.EDGE_BYTES);
+    for (int node = 0; node < nodes; node += 1) {
+      tree.putLong(guesses[node]).putInt(firstEdges[node]).putInt(edgeCounts[node]);
+    }
+    for (int edge = 0; edge < edges; edge += 1) {
+      tree.putInt(edgeFeedbacks[edge]).putInt(edgeChildren[edge]);
+    }
+    tree.flip();
+    CRC32C crc = new CRC32C();
+    crc.update(tree.duplicate());
+    ByteBuffer header = ByteBuffer.allocate(OpeningBook.HEADER_BYTES)
+        .putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION)
+        .putInt(this.space.length).putInt(this.space.colors)
+        .putInt(this.space.duplicates ? 1 : 0).putInt(this.depth)
+        .putInt(OpeningBook.solverId(this.solver)).putInt(nodes).putInt(edges).putInt(0)
+        .putLong(crc.getValue());
+    header.flip();
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (header.hasRemaining() || tree.hasRemaining()) {
+        channel.write(new ByteBuffer[] { header, tree });
+      }
+      channel.force(true);
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return new OpeningBook(path, false);
+  }
+
+  // builds an opening book offline:
+  // length colors duplicates depth path [minimax|entropy|expected]
+  public static void main(String[] args) throws IOException {
+    CodeSpace space = new CodeSpace(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+        Boolean.parseBoolean(args[2]));
+    String name = args.length > 5 ? args[5] : "minimax";
+    ISolver solver;
+    if (name.equals("entropy")) {
+      solver = new EntropySolver();
+    }
+    else if (name.equals("expected")) {
+      solver = new ExpectedSizeSolver();
+    }
+    else {
+      solver = new MinimaxSolver();
+    }
+    long started = System.nanoTime();
+    OpeningBook book = new OpeningBookBuilder(space, solver, Integer.parseInt(args[3]))
+        .build(Paths.get(args[4]));
+    System.out.printf("%d nodes, %d edges in %.1f s%n", book.nodes, book.edges,
+        (System.nanoTime() - started) / 1e9);
+  }
+}
+
+// represents a position reached while building a book: the history that leads to
+// it and the codes still consistent with that history
+class BookPosition {
+  long[] guesses;
+  int[] feedbacks;
+  long[] candidates;
+
+  BookPosition(long[] guesses, int[] feedbacks, long[] candidates) {
+    this.guesses = guesses;
+    this.feedbacks = feedbacks;
+    this.candidates = candidates;
+  }
+}
+
+// plays the moves of an opening book, opened from its file on first use, and
+// asks the given solver once a game leaves the book
+class BookSolver implements ISolver {
+  Path path;
+  ISolver fallback;
+  volatile OpeningBook book;
+
+  BookSolver(Path path, ISolver fallback) {
+    this.path = path;
+    this.fallback = fallback;
+  }
+
+  BookSolver(OpeningBook book, ISolver fallback) {
+    this.fallback = fallback;
+    this.book = book;
+  }
+
+  // returns the book's guess for the given history, or the fallback's when the
+  // history leaves the book or is of another code space
+  public long nextGuess(CodeSpace space, long[] guesses, int[] feedbacks, int count) {
+    OpeningBook book = this.book();
+    if (book != null && book.matches(space, this.fallback, 0)) {
+      long guess = book.guess(guesses, feedbacks, count);
+      if (guess >= 0) {
+        return guess;
+      }
+    }
+    return this.fallback.nextGuess(space, guesses, feedbacks, count);
+  }
+
+  // opens the book on first use, or returns null if it cannot be read
+  OpeningBook book() {
+    if (this.book == null && this.path != null) {
+      synchronized (this) {
+        if (this.book == null) {
+          try {
+            this.book = new OpeningBook(this.path, false);
+          }
+          catch (IOException e) {
+            this.path = null;
+          }
+        }
+      }
+    }
+    return this.book;
+  }
+}
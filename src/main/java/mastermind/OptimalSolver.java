@@ -0,0 +1,782 @@
+package mastermind;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+// represents a strategy that plays optimally: it searches every strategy for the
+// codes consistent with the history, depth first, for one of the least cost, where
+// the cost of a strategy is what the subclass makes of the guesses it takes to
+// break each code
+//
+// the search is branch and bound: every set of codes has a lower bound on its
+// cost, guesses are tried in order of the bound they leave, and a guess is given
+// up as soon as the bounds of what is left of it cannot beat the best one found.
+// the cost of each set of codes searched, or the best lower bound found for it,
+// is kept in a transposition table of a fixed number of entries, so a set reached
+// by another history is not searched again while it is held. guesses near the
+// top of the tree are searched in parallel, sharing the best cost found so far
+abstract class OptimalSolver implements ISolver {
+  // the number of moves above which guesses are searched in parallel
+  static final int PARALLEL_DEPTH = 2;
+
+  ForkJoinPool pool;
+  // the number of entries of the transposition table of each search
+  int entries;
+  // the search of the code space last played, with its transposition table
+  volatile StrategySearch search;
+
+  OptimalSolver(ForkJoinPool pool) {
+    this.pool = pool;
+    this.entries = StrategyTable.ENTRIES;
+  }
+
+  OptimalSolver() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  // returns the cost of breaking a code that is known, in one guess, given the
+  // number of codes it was one of
+  abstract int leaf(int candidates);
+
+  // returns the cost of a strategy of the given cost that goes on to a strategy of
+  // the other cost after its first guess, where combining with 0 changes nothing
+  abstract int combine(int cost, int other);
+
+  // returns what a strategy of the given cost adds when played after a guess
+  abstract int extend(int cost);
+
+  // returns the bound below which the cost of a strategy played after a guess
+  // keeps the guess below the given bound, given what the rest of the guess costs
+  abstract int childBound(int bound, int others);
+
+  // returns a lower bound on the cost of breaking the given number of codes when
+  // each guess splits the codes it does not break into at most the given number
+  // of partitions
+  abstract int lowerBound(int candidates, int responses);
+
+  // chooses the guess of a least costly strategy for the given history
+  public long nextGuess(CodeSpace space, long[] guesses, int[] feedbacks, int count) {
+    StrategySearch search = this.searchOf(space);
+    int[] candidates = search.indicesOf(space.consistent(guesses, feedbacks, count));
+    if (candidates.length == 0) {
+      throw new IllegalStateException("No code is consistent with the feedback");
+    }
+    return search.codes[search.solve(guesses, count, candidates).guess];
+  }
+
+  // returns the cost of a least costly strategy for the whole given space
+  int cost(CodeSpace space) {
+    StrategySearch search = this.searchOf(space);
+    return search.solve(new long[0], 0, search.indicesOf(search.codes)).cost;
+  }
+
+  // returns the most guesses the strategy this solver plays takes to break a code
+  // of the given space
+  int depth(CodeSpace space) {
+    StrategySearch search = this.searchOf(space);
+    return search.depth(new long[0], 0, search.indicesOf(search.codes));
+  }
+
+  // returns the search of the given space, starting it over if the last search
+  // was of another space
+  StrategySearch searchOf(CodeSpace space) {
+    StrategySearch search = this.search;
+    if (search == null || !search.matches(space)) {
+      synchronized (this) {
+        search = this.search;
+        if (search == null || !search.matches(space)) {
+          search = new StrategySearch(this, space);
+          this.search = search;
+        }
+      }
+    }
+    return search;
+  }
+}
+
+// minimizes the total, and so the average, number of guesses over every code
+class OptimalAverageSolver extends OptimalSolver {
+  OptimalAverageSolver(ForkJoinPool pool) {
+    super(pool);
+  }
+
+  OptimalAverageSolver() {
+    super();
+  }
+
+  // each of the codes takes the guess
+  int leaf(int candidates) {
+    return candidates;
+  }
+
+  // the guesses add up
+  int combine(int cost, int other) {
+    return cost + other;
+  }
+
+  // the codes were counted in the guess before
+  int extend(int cost) {
+    return cost;
+  }
+
+  // the strategy gets what the rest leaves of the bound
+  int childBound(int bound, int others) {
+    return bound - others;
+  }
+
+  // fills each depth with as many codes as it can hold: one code is broken by the
+  // first guess, the rest fall into at most responses partitions, one code of each
+  // is broken by the second guess, and so on
+  int lowerBound(int candidates, int responses) {
+    int total = 0;
+    int left = candidates;
+    long level = 1;
+    for (int depth = 1; left > 0; depth += 1) {
+      int broken = (int) Math.min(level, left);
+      total += depth * broken;
+      left -= broken;
+      level *= responses;
+    }
+    return total;
+  }
+}
+
+// minimizes the most guesses any code takes
+class OptimalWorstCaseSolver extends OptimalSolver {
+  OptimalWorstCaseSolver(ForkJoinPool pool) {
+    super(pool);
+  }
+
+  OptimalWorstCaseSolver() {
+    super();
+  }
+
+  // the code takes one guess
+  int leaf(int candidates) {
+    return 1;
+  }
+
+  // the worst of them counts
+  int combine(int cost, int other) {
+    return Math.max(cost, other);
+  }
+
+  // the guess before adds one
+  int extend(int cost) {
+    return cost + 1;
+  }
+
+  // the strategy must take one guess fewer than the bound
+  int childBound(int bound, int others) {
+    return bound - 1;
+  }
+
+  // the fewest guesses whose tree, splitting into responses partitions at each
+  // guess, holds the given number of codes
+  int lowerBound(int candidates, int responses) {
+    long held = 0;
+    long level = 1;
+    int depth = 0;
+    while (held < candidates) {
+      held += level;
+      level *= responses;
+      depth += 1;
+    }
+    return depth;
+  }
+}
+
+// represents a search for least costly strategies in one code space, holding the
+// feedback of every guess against every secret by code space index and the
+// transposition table of the sets of codes searched so far
+class StrategySearch {
+  // the most codes a space may have to be searched, as the feedbacks take the
+  // square of it in bytes
+  static final int MAX_CODES = 1 << 14;
+
+  OptimalSolver solver;
+  CodeSpace space;
+  long[] codes;
+  // the feedback of each guess against each secret
+  byte[][] feedbacks;
+  // the most partitions a guess can split the codes it does not break into
+  int responses;
+  StrategyTable table;
+  // the number of sets of codes searched
+  LongAdder searched;
+
+  StrategySearch(OptimalSolver solver, CodeSpace space) {
+    if (space.size() > MAX_CODES) {
+      throw new IllegalArgumentException("Code space too large for an optimal search: "
+          + Integer.toString(space.size()));
+    }
+    this.solver = solver;
+    this.space = space;
+    this.codes = space.enumerate();
+    this.feedbacks = new byte[this.codes.length][this.codes.length];
+    BatchScorer scorer = new BatchScorer(space);
+    int[] scores = new int[this.codes.length];
+    for (int guess = 0; guess < this.codes.length; guess += 1) {
+      scorer.score(this.codes[guess], this.codes, 0, this.codes.length, scores);
+      for (int secret = 0; secret < scores.length; secret += 1) {
+        this.feedbacks[guess][secret] = (byte) scores[secret];
+      }
+    }
+    for (int exact = 0; exact < space.length; exact += 1) {
+      for (int inexact = 0; exact + inexact <= space.length; inexact += 1) {
+        if (exact != space.length - 1 || inexact != 1) {
+          this.responses += 1;
+        }
+      }
+    }
+    this.table = new StrategyTable(solver.entries);
+    this.searched = new LongAdder();
+  }
+
+  // to determine whether this search is of the given code space
+  boolean matches(CodeSpace that) {
+    return this.space.length == that.length && this.space.colors == that.colors
+        && this.space.duplicates == that.duplicates;
+  }
+
+  // returns the code space indices of the given sorted codes
+  int[] indicesOf(long[] codes) {
+    int[] indices = new int[codes.length];
+    for (int i = 0; i < codes.length; i += 1) {
+      indices[i] = this.space.indexOf(codes[i]);
+    }
+    return indices;
+  }
+
+  // returns the least cost of breaking the given candidates and the guess that
+  // starts a strategy of that cost
+  StrategyBound solve(long[] history, int count, int[] candidates) {
+    if (candidates.length <= 2) {
+      return new StrategyBound(this.trivial(candidates.length), true, candidates[0]);
+    }
+    return this.searchSet(history, count, candidates, Integer.MAX_VALUE);
+  }
+
+  // returns the cost of breaking one or two codes, guessing one of them first
+  int trivial(int candidates) {
+    return candidates == 1 ? this.solver.leaf(1)
+        : this.solver.combine(this.solver.leaf(2), this.solver.extend(this.solver.leaf(1)));
+  }
+
+  // returns the least cost of breaking the given candidates, which are the codes
+  // consistent with the first count of the given guesses, if it is below the given
+  // bound, or a lower bound on it of at least the bound otherwise
+  int search(long[] history, int count, int[] candidates, int bound) {
+    if (candidates.length <= 2) {
+      return this.trivial(candidates.length);
+    }
+    return this.searchSet(history, count, candidates, bound).cost;
+  }
+
+  // returns what is known of the cost of breaking the given candidates, more than
+  // two of them, after searching them against the given bound as search does
+  StrategyBound searchSet(long[] history, int count, int[] candidates, int bound) {
+    int size = candidates.length;
+    CandidateSet key = new CandidateSet(candidates);
+    int lower = this.solver.lowerBound(size, this.responses);
+    StrategyBound known = this.table.get(key);
+    if (known != null) {
+      if (known.exact || known.cost >= bound) {
+        return known;
+      }
+      lower = Math.max(lower, known.cost);
+    }
+    if (lower >= bound) {
+      return new StrategyBound(lower, false, -1);
+    }
+    this.searched.increment();
+
+    // the guesses worth trying, by the lower bound each leaves, least first
+    int[] guesses = this.guesses(history, count);
+    long[] order = new long[guesses.length];
+    int usable = 0;
+    int solved = this.space.solved();
+    int[] sizes = new int[this.space.feedbacks()];
+    for (int i = 0; i < guesses.length; i += 1) {
+      byte[] row = this.feedbacks[guesses[i]];
+      Arrays.fill(sizes, 0);
+      for (int candidate : candidates) {
+        sizes[row[candidate] & 0xFF] += 1;
+      }
+      int cost = this.solver.leaf(size);
+      boolean splits = true;
+      for (int feedback = 0; feedback < sizes.length; feedback += 1) {
+        if (sizes[feedback] > 0 && feedback != solved) {
+          splits = splits && sizes[feedback] < size;
+          cost = this.solver.combine(cost,
+              this.solver.extend(this.bound(sizes[feedback])));
+        }
+      }
+      // a guess that leaves every code in one partition only wastes a guess
+      if (splits) {
+        order[usable] = ((long) cost << 32) | i;
+        usable += 1;
+      }
+    }
+    Arrays.sort(order, 0, usable);
+
+    SearchNode node = new SearchNode(bound);
+    long[] next = Arrays.copyOf(history, count + 1);
+    if (count < OptimalSolver.PARALLEL_DEPTH) {
+      SearchGuess[] tasks = new SearchGuess[usable];
+      for (int position = 0; position < usable; position += 1) {
+        tasks[position] = new SearchGuess(this, node, next, count, candidates,
+            guesses[(int) order[position]], (int) (order[position] >>> 32), position);
+      }
+      this.solver.pool.invoke(new SearchGuesses(tasks));
+    }
+    else {
+      for (int position = 0; position < usable; position += 1) {
+        int guessBound = (int) (order[position] >>> 32);
+        if (guessBound >= node.bound(position)) {
+          // the guesses left leave bounds at least as high
+          node.fail(guessBound);
+          break;
+        }
+        this.tryGuess(node, next, count, candidates, guesses[(int) order[position]],
+            position);
+      }
+    }
+
+    StrategyBound result = node.guess >= 0 ? new StrategyBound(node.best, true, node.guess)
+        : new StrategyBound(Math.max(lower, node.lower), false, -1);
+    this.table.put(key, result);
+    return result;
+  }
+
+  // searches the strategies that start with the given guess at the given position
+  // of the order of a node, offering it to the node if it beats the best so far
+  void tryGuess(SearchNode node, long[] next, int count, int[] candidates, int guess,
+      int position) {
+    int[][] parts = this.partition(guess, candidates);
+    int[] bounds = new int[parts.length];
+    // what the partitions after each one are bound to cost at least
+    int[] after = new int[parts.length + 1];
+    for (int k = parts.length - 1; k >= 0; k -= 1) {
+      bounds[k] = this.bound(parts[k].length);
+      after[k] = this.solver.combine(after[k + 1], this.solver.extend(bounds[k]));
+    }
+    long[] history = next.clone();
+    history[count] = this.codes[guess];
+    int cost = this.solver.leaf(candidates.length);
+    for (int k = 0; k < parts.length; k += 1) {
+      int others = this.solver.combine(cost, after[k + 1]);
+      int childBound = this.solver.childBound(node.bound(position), others);
+      int child = this.search(history, count + 1, parts[k], childBound);
+      if (child >= childBound) {
+        node.fail(this.solver.combine(others, this.solver.extend(child)));
+        return;
+      }
+      cost = this.solver.combine(cost, this.solver.extend(child));
+    }
+    node.offer(cost, position, guess);
+  }
+
+  // returns the lower bound on breaking the given number of codes, exact for one
+  // or two
+  int bound(int candidates) {
+    return candidates <= 2 ? this.trivial(candidates)
+        : this.solver.lowerBound(candidates, this.responses);
+  }
+
+  // splits the given candidates by the feedback the given guess gets from each,
+  // leaving out the one it breaks, largest partition first
+  int[][] partition(int guess, int[] candidates) {
+    byte[] row = this.feedbacks[guess];
+    int[] sizes = new int[this.space.feedbacks()];
+    for (int candidate : candidates) {
+      sizes[row[candidate] & 0xFF] += 1;
+    }
+    sizes[this.space.solved()] = 0;
+    int[][] byFeedback = new int[sizes.length][];
+    int count = 0;
+    for (int feedback = 0; feedback < sizes.length; feedback += 1) {
+      if (sizes[feedback] > 0) {
+        byFeedback[feedback] = new int[sizes[feedback]];
+        count += 1;
+      }
+    }
+    int[] filled = new int[sizes.length];
+    for (int candidate : candidates) {
+      int feedback = row[candidate] & 0xFF;
+      if (byFeedback[feedback] != null) {
+        byFeedback[feedback][filled[feedback]] = candidate;
+        filled[feedback] += 1;
+      }
+    }
+    int[][] parts = new int[count][];
+    count = 0;
+    for (int[] part : byFeedback) {
+      if (part != null) {
+        int k = count;
+        while (k > 0 && parts[k - 1].length < part.length) {
+          parts[k] = parts[k - 1];
+          k -= 1;
+        }
+        parts[k] = part;
+        count += 1;
+      }
+    }
+    return parts;
+  }
+
+  // returns the code space indices of the guesses worth trying after the first
+  // count of the given guesses: one of each set of codes the symmetries they
+  // leave map onto each other
+  int[] guesses(long[] history, int count) {
+    CodeSymmetry symmetry = new CodeSymmetry(this.space, history, count);
+    if (symmetry.reduces()) {
+      return this.indicesOf(symmetry.representatives(this.codes));
+    }
+    int[] all = new int[this.codes.length];
+    for (int i = 0; i < all.length; i += 1) {
+      all[i] = i;
+    }
+    return all;
+  }
+
+  // returns the most guesses the strategy found for the given candidates takes
+  int depth(long[] history, int count, int[] candidates) {
+    if (candidates.length == 1) {
+      return 1;
+    }
+    int guess = this.solve(history, count, candidates).guess;
+    long[] next = Arrays.copyOf(history, count + 1);
+    next[count] = this.codes[guess];
+    int depth = 1;
+    for (int[] part : this.partition(guess, candidates)) {
+      depth = Math.max(depth, 1 + this.depth(next, count + 1, part));
+    }
+    return depth;
+  }
+}
+
+// represents a set of codes, by sorted code space indices, as a key of the
+// transposition table: its size and two independent 64-bit hashes of it, the
+// first placing it in the table and the second verifying a match the first finds
+class CandidateSet {
+  int size;
+  long hash;
+  long check;
+
+  CandidateSet(int[] indices) {
+    this.size = indices.length;
+    long hash = indices.length;
+    long check = ~hash;
+    for (int index : indices) {
+      hash = (hash ^ index) * 0x9E3779B97F4A7C15L;
+      check = (check + index) * 0xC2B2AE3D27D4EB4FL;
+      check ^= check >>> 29;
+    }
+    this.hash = hash ^ (hash >>> 32);
+    this.check = check;
+  }
+}
+
+// represents the transposition table of a search, of a fixed number of entries
+// so the memory a search takes is bounded whatever the space: each entry holds
+// the hashes of a set of codes and what is known of its cost packed into longs,
+// entries fall into buckets of WAYS, and a set that finds its bucket full takes
+// the place of the smallest set there, since searching a smaller set again costs
+// the least
+class StrategyTable {
+  // the entries of a table unless given, 24 MB of them, the entries of a bucket,
+  // and the number of locks the buckets share
+  static final int ENTRIES = 1 << 20;
+  static final int WAYS = 4;
+  static final int LOCKS = 256;
+
+  long[] hashes;
+  long[] checks;
+  // the cost, whether it is exact, the guess plus one, and the size of each set
+  long[] values;
+  Object[] locks;
+  int buckets;
+  // the sets held, and the sets that took the place of another
+  LongAdder held;
+  LongAdder replaced;
+
+  StrategyTable(int entries) {
+    if (entries < WAYS) {
+      throw new IllegalArgumentException("Invalid table entries: " + Integer.toString(entries));
+    }
+    this.buckets = Integer.highestOneBit(entries / WAYS);
+    this.hashes = new long[this.buckets * WAYS];
+    this.checks = new long[this.buckets * WAYS];
+    this.values = new long[this.buckets * WAYS];
+    this.locks = new Object[LOCKS];
+    for (int i = 0; i < LOCKS; i += 1) {
+      this.locks[i] = new Object();
+    }
+    this.held = new LongAdder();
+    this.replaced = new LongAdder();
+  }
+
+  // returns what is held of the given set, or null
+  StrategyBound get(CandidateSet key) {
+    int bucket = (int) key.hash & (this.buckets - 1);
+    synchronized (this.locks[bucket & (LOCKS - 1)]) {
+      int at = this.find(bucket, key);
+      return at < 0 ? null : StrategyTable.unpack(this.values[at]);
+    }
+  }
+
+  // holds what is known of the given set, keeping what was held of it if that
+  // tells more
+  void put(CandidateSet key, StrategyBound bound) {
+    int bucket = (int) key.hash & (this.buckets - 1);
+    synchronized (this.locks[bucket & (LOCKS - 1)]) {
+      int at = this.find(bucket, key);
+      if (at >= 0) {
+        bound = StrategyBound.tighter(StrategyTable.unpack(this.values[at]), bound);
+      }
+      else {
+        at = bucket * WAYS;
+        for (int way = 1; way < WAYS; way += 1) {
+          if (this.size(at) > 0 && this.size(bucket * WAYS + way) < this.size(at)) {
+            at = bucket * WAYS + way;
+          }
+        }
+        if (this.size(at) > 0) {
+          this.replaced.increment();
+        }
+        else {
+          this.held.increment();
+        }
+        this.hashes[at] = key.hash;
+        this.checks[at] = key.check;
+      }
+      this.values[at] = (long) bound.cost << 31 | (bound.exact ? 1L << 30 : 0)
+          | (long) (bound.guess + 1) << 15 | key.size;
+    }
+  }
+
+  // returns the entry of the given bucket that holds the given set, or -1
+  int find(int bucket, CandidateSet key) {
+    for (int at = bucket * WAYS; at < (bucket + 1) * WAYS; at += 1) {
+      if (this.hashes[at] == key.hash && this.checks[at] == key.check
+          && this.size(at) == key.size) {
+        return at;
+      }
+    }
+    return -1;
+  }
+
+  // returns the size of the set held by the given entry, 0 if it is empty
+  int size(int at) {
+    return (int) (this.values[at] & 0x7FFF);
+  }
+
+  // returns the bound packed in the given value
+  static StrategyBound unpack(long value) {
+    return new StrategyBound((int) (value >>> 31), (value & 1L << 30) != 0,
+        (int) (value >>> 15 & 0x7FFF) - 1);
+  }
+
+  // describes the use of this table on one line
+  String describe() {
+    return String.format("%d of %d held, %d replaced", this.held.sum(), this.values.length,
+        this.replaced.sum());
+  }
+}
+
+// represents what is known of the cost of breaking a set of codes: either its
+// least cost and the guess that starts a strategy of that cost, or a lower bound
+class StrategyBound {
+  int cost;
+  boolean exact;
+  int guess;
+
+  StrategyBound(int cost, boolean exact, int guess) {
+    this.cost = cost;
+    this.exact = exact;
+    this.guess = guess;
+  }
+
+  // returns the more telling of the two
+  static StrategyBound tighter(StrategyBound a, StrategyBound b) {
+    if (a.exact || (!b.exact && a.cost >= b.cost)) {
+      return a;
+    }
+    return b;
+  }
+}
+
+// represents a set of codes being searched: the best cost found so far below the
+// bound it was searched with, with the guess and its position in the order the
+// guesses are tried in, and the least lower bound of the guesses given up on
+//
+// guesses searched in parallel may finish out of order, so a guess only beats
+// one of equal cost that comes after it, which makes the guess found the same
+// whatever the order
+class SearchNode {
+  int best;
+  int position;
+  int guess;
+  int lower;
+
+  SearchNode(int bound) {
+    this.best = bound;
+    this.position = -1;
+    this.guess = -1;
+    this.lower = Integer.MAX_VALUE;
+  }
+
+  // returns the bound the guess at the given position must stay below
+  synchronized int bound(int position) {
+    return this.guess >= 0 && position < this.position ? this.best + 1 : this.best;
+  }
+
+  // records the given guess and its cost if it beats the best so far
+  synchronized void offer(int cost, int position, int guess) {
+    if (cost < this.bound(position)) {
+      this.best = cost;
+      this.position = position;
+      this.guess = guess;
+    }
+    else {
+      this.lower = Math.min(this.lower, cost);
+    }
+  }
+
+  // records a lower bound on a guess given up on
+  synchronized void fail(int lower) {
+    this.lower = Math.min(this.lower, lower);
+  }
+}
+
+// searches the guesses of a node in parallel
+class SearchGuesses extends RecursiveAction {
+  SearchGuess[] tasks;
+
+  SearchGuesses(SearchGuess[] tasks) {
+    this.tasks = tasks;
+  }
+
+  // searches every guess, leaving the idle workers to steal them
+  protected void compute() {
+    invokeAll(this.tasks);
+  }
+}
+
+// searches the strategies that start with one guess of a node
+class SearchGuess extends RecursiveAction {
+  StrategySearch search;
+  SearchNode node;
+  long[] next;
+  int count;
+  int[] candidates;
+  int guess;
+  int guessBound;
+  int position;
+
+  SearchGuess(StrategySearch search, SearchNode node, long[] next, int count,
+      int[] candidates, int guess, int guessBound, int position) {
+    this.search = search;
+    this.node = node;
+    this.next = next;
+    this.count = count;
+    this.candidates = candidates;
+    this.guess = guess;
+    this.guessBound = guessBound;
+    this.position = position;
+  }
+
+  // searches the guess unless its bound already rules it out
+  protected void compute() {
+    if (this.guessBound >= this.node.bound(this.position)) {
+      this.node.fail(this.guessBound);
+    }
+    else {
+      this.search.tryGuess(this.node, this.next, this.count, this.candidates, this.guess,
+          this.position);
+    }
+  }
+}
+
+// searches a least costly strategy for a code space offline, writes it as a
+// complete opening book, and checks the book by playing every code with it,
+// reporting the progress of the search every PROGRESS_SECONDS
+class OptimalStrategyBuilder {
+  static final int PROGRESS_SECONDS = 30;
+
+  // searches and writes a strategy:
+  // length colors duplicates path [average|worst] [entries]
+  public static void main(String[] args) throws IOException {
+    CodeSpace space = new CodeSpace(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+        Boolean.parseBoolean(args[2]));
+    boolean worst = args.length > 4 && args[4].equals("worst");
+    OptimalSolver solver = worst ? new OptimalWorstCaseSolver() : new OptimalAverageSolver();
+    if (args.length > 5) {
+      solver.entries = Integer.parseInt(args[5]);
+    }
+    long started = System.nanoTime();
+    Thread progress = new Thread(() -> {
+      try {
+        while (true) {
+          Thread.sleep(PROGRESS_SECONDS * 1000L);
+          StrategySearch search = solver.search;
+          if (search == null) {
+            continue;
+          }
+          System.err.printf("%.0f s: %d sets of codes searched, table %s%n",
+              (System.nanoTime() - started) / 1e9, search.searched.sum(),
+              search.table.describe());
+        }
+      }
+      catch (InterruptedException e) {
+        // the search is over
+      }
+    });
+    progress.setDaemon(true);
+    progress.start();
+    int cost = solver.cost(space);
+    int depth = solver.depth(space);
+    double seconds = (System.nanoTime() - started) / 1e9;
+    progress.interrupt();
+    OpeningBook book = new OpeningBookBuilder(space, solver, depth).build(Paths.get(args[3]));
+    int[] played = OptimalStrategyBuilder.play(space, book);
+    System.out.printf("%s: %d codes, %d guesses in all, %.4f on average, %d at most%n",
+        worst ? "worst case" : "average", space.size(), played[0],
+        (double) played[0] / space.size(), played[1]);
+    System.out.printf("%d sets of codes searched in %.1f s; table %s; book of %d nodes%n",
+        solver.search.searched.sum(), seconds, solver.search.table.describe(), book.nodes);
+    if (played[0] < 0 || (worst ? played[1] : played[0]) != cost) {
+      System.out.println("the book does not play the strategy found, of cost " + cost);
+      System.exit(1);
+    }
+  }
+
+  // plays every code of the given space with the given book, returning the total
+  // and the most guesses taken, or -1 for both if the book leaves a code unbroken
+  static int[] play(CodeSpace space, OpeningBook book) {
+    int total = 0;
+    int most = 0;
+    long[] guesses = new long[space.size()];
+    int[] feedbacks = new int[space.size()];
+    for (long secret : space.enumerate()) {
+      int count = 0;
+      do {
+        long guess = book.guess(guesses, feedbacks, count);
+        if (guess < 0 || count == guesses.length) {
+          return new int[] { -1, -1 };
+        }
+        guesses[count] = guess;
+        feedbacks[count] = space.score(guess, secret);
+        count += 1;
+      } while (feedbacks[count - 1] != space.solved());
+      total += count;
+      most = Math.max(most, count);
+    }
+    return new int[] { total, most };
+  }
+}
@@ -0,0 +1,47 @@
+package mastermind;
+
+import javalib.funworld.*;
+
+// caches the layers of a game's scene so a frame only draws what changed: the
+// static layer of canvas, header, palette and empty grid is drawn once per
+// configuration, the submitted guesses and their feedback are drawn once each on
+// top of it, and only the guess being entered is drawn every frame
+class SceneCache {
+  // the configuration the static layer was drawn for
+  int length;
+  int guesses;
+  ILoColor colors;
+  WorldScene base;
+  // the game whose submitted guesses are drawn on the committed layer, and how
+  // many of them are
+  GameEngine engine;
+  WorldScene committed;
+  int drawn;
+
+  // draws the given game of the given configuration
+  WorldScene draw(Mastermind m, GameEngine engine) {
+    if (this.base == null || this.length != m.length || this.guesses != m.guesses
+        || this.colors != m.colors) {
+      this.length = m.length;
+      this.guesses = m.guesses;
+      this.colors = m.colors;
+      this.base = m.makeBaseScene();
+      this.engine = null;
+    }
+    if (this.engine != engine || this.drawn > engine.submitted) {
+      this.engine = engine;
+      this.committed = this.base;
+      this.drawn = 0;
+    }
+    while (this.drawn < engine.submitted) {
+      this.committed = m.drawSubmitted(this.committed, engine, this.drawn);
+      this.drawn += 1;
+    }
+    if (engine.isOver()) {
+      return this.committed;
+    }
+    else {
+      return m.drawActive(this.committed, engine);
+    }
+  }
+}
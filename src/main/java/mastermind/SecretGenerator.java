@@ -0,0 +1,110 @@
+package mastermind;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// draws secrets uniformly at random from a code space, reproducibly from a seed;
+// a generator must only be used by one thread at a time, so other threads take
+// their own generator from split()
+class SecretGenerator {
+  // the number of secrets drawn by one task of a parallel fill
+  static final int SECRETS_PER_TASK = 1 << 14;
+  // the palette indices 0 to 15 packed one per peg, in order
+  static final long IDENTITY = 0xFEDCBA9876543210L;
+
+  CodeSpace space;
+  SplittableRandom random;
+
+  SecretGenerator(CodeSpace space, SplittableRandom random) {
+    this.space = space;
+    this.random = random;
+  }
+
+  SecretGenerator(CodeSpace space, long seed) {
+    this(space, new SplittableRandom(seed));
+  }
+
+  SecretGenerator(CodeSpace space) {
+    this(space, new SplittableRandom());
+  }
+
+  // draws the next secret
+  long next() {
+    if (GameMetrics.ENABLED) {
+      GameMetrics.GLOBAL.drew(1);
+    }
+    return this.draw();
+  }
+
+  // draws the next secret without counting it
+  long draw() {
+    if (this.space.duplicates) {
+      long code = 0;
+      for (int i = 0; i < this.space.length; i += 1) {
+        code = this.space.withPeg(code, i, this.random.nextInt(this.space.colors));
+      }
+      return code;
+    }
+    else {
+      // shuffles the first pegs of the palette in place, Fisher-Yates style
+      long palette = IDENTITY;
+      for (int i = 0; i < this.space.length; i += 1) {
+        int j = i + this.random.nextInt(this.space.colors - i);
+        int atI = this.space.peg(palette, i);
+        palette = this.space.withPeg(this.space.withPeg(palette, i, this.space.peg(palette, j)),
+            j, atI);
+      }
+      return palette & this.space.pegMask;
+    }
+  }
+
+  // returns a new generator, independent of this one, for use by another thread
+  SecretGenerator split() {
+    return new SecretGenerator(this.space, this.random.split());
+  }
+
+  // fills the given range of the given array with secrets
+  void fill(long[] into, int from, int to) {
+    for (int i = from; i < to; i += 1) {
+      into[i] = this.draw();
+    }
+    if (GameMetrics.ENABLED) {
+      GameMetrics.GLOBAL.drew(to - from);
+    }
+  }
+
+  // fills the given array with secrets in parallel on the given pool; the result
+  // depends only on the state of this generator, not on the scheduling
+  void fill(long[] into, ForkJoinPool pool) {
+    pool.invoke(new FillSecrets(this.split(), into, 0, into.length));
+  }
+}
+
+// fills a range of an array with secrets, splitting it and its generator across
+// the pool
+class FillSecrets extends RecursiveAction {
+  SecretGenerator generator;
+  long[] into;
+  int from;
+  int to;
+
+  FillSecrets(SecretGenerator generator, long[] into, int from, int to) {
+    this.generator = generator;
+    this.into = into;
+    this.from = from;
+    this.to = to;
+  }
+
+  // draws the secrets of this range
+  protected void compute() {
+    if (this.to - this.from > SecretGenerator.SECRETS_PER_TASK) {
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new FillSecrets(this.generator.split(), this.into, this.from, middle),
+          new FillSecrets(this.generator, this.into, middle, this.to));
+    }
+    else {
+      this.generator.fill(this.into, this.from, this.to);
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package mastermind;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// represents a strategy for breaking a code
+interface ISolver {
+  // chooses the next guess in the given code space given the first count guesses
+  // made so far and the feedback each of them received
+  long nextGuess(CodeSpace space, long[] guesses, int[] feedbacks, int count);
+}
+
+// represents a strategy that tries every code as the next guess, ranks each one by
+// how it partitions the codes still consistent with the history by feedback, and
+// picks the best ranked one, preferring codes that could still be the secret;
+// given the history, it only ranks one code of each set the symmetries the history
+// leaves map onto each other, which picks the same guess
+abstract class PartitionSolver implements ISolver {
+  // the number of guesses ranked by one task
+  static final int GUESSES_PER_TASK = 64;
+
+  ForkJoinPool pool;
+
+  PartitionSolver(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  PartitionSolver() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  // ranks a guess by the sizes of the partitions it splits the given number of
+  // candidates into, where lower is better
+  abstract double rank(int[] partitions, int candidates);
+
+  // chooses the best ranked guess for the given history
+  public long nextGuess(CodeSpace space, long[] guesses, int[] feedbacks, int count) {
+    return this.nextGuessAfter(space, guesses, count,
+        space.consistent(guesses, feedbacks, count));
+  }
+
+  // chooses the best ranked guess for the codes the given tracker still holds
+  long nextGuess(CandidateTracker tracker) {
+    return this.nextGuessAfter(tracker.space, tracker.guesses, tracker.filtered,
+        tracker.candidates());
+  }
+
+  // chooses the best ranked guess for the given sorted candidates, ranking every
+  // code, since nothing is known of how the candidates came about
+  long nextGuess(CodeSpace space, long[] candidates) {
+    return this.choose(space, null, candidates);
+  }
+
+  // chooses the best ranked guess for the given sorted candidates, which are the
+  // codes consistent with the first count of the given guesses
+  long nextGuessAfter(CodeSpace space, long[] guesses, int count, long[] candidates) {
+    return this.choose(space, new CodeSymmetry(space, guesses, count), candidates);
+  }
+
+  // chooses the best ranked guess for the given sorted candidates, ranking one code
+  // of each set the given symmetries map onto each other, or every code if there
+  // are none
+  long choose(CodeSpace space, CodeSymmetry symmetry, long[] candidates) {
+    if (candidates.length == 0) {
+      throw new IllegalStateException("No code is consistent with the feedback");
+    }
+    else if (candidates.length <= 2) {
+      return candidates[0];
+    }
+    else if (symmetry == null) {
+      return this.best(space, space.enumerate(), candidates).guess;
+    }
+    else {
+      return this.best(space, symmetry.representatives(space.enumerate()), candidates).guess;
+    }
+  }
+
+  // ranks the given guesses against the given candidates in parallel and returns
+  // the best one
+  RankedGuess best(CodeSpace space, long[] guesses, long[] candidates) {
+    return this.pool.invoke(new RankGuesses(this, space, guesses, candidates, 0, guesses.length));
+  }
+
+  // ranks the given guess against the given sorted candidates, counting partition
+  // sizes into the given scratch array
+  RankedGuess rankGuess(CodeSpace space, long guess, long[] candidates, int[] partitions) {
+    return this.rankGuess(new BatchScorer(space), guess, candidates, partitions,
+        new int[candidates.length]);
+  }
+
+  // ranks the given guess against the given sorted candidates, scoring them in a
+  // batch into the given scratch array of feedbacks before counting partition
+  // sizes into the other
+  RankedGuess rankGuess(BatchScorer scorer, long guess, long[] candidates, int[] partitions,
+      int[] scores) {
+    Arrays.fill(partitions, 0);
+    scorer.score(guess, candidates, 0, candidates.length, scores);
+    for (int i = 0; i < candidates.length; i += 1) {
+      partitions[scores[i]] += 1;
+    }
+    return new RankedGuess(guess, this.rank(partitions, candidates.length),
+        Arrays.binarySearch(candidates, guess) >= 0);
+  }
+}
+
+// represents a guess together with how a solver ranked it
+class RankedGuess {
+  long guess;
+  double rank;
+  boolean candidate;
+
+  RankedGuess(long guess, double rank, boolean candidate) {
+    this.guess = guess;
+    this.rank = rank;
+    this.candidate = candidate;
+  }
+
+  // to determine whether this guess is strictly better than that one
+  boolean betterThan(RankedGuess that) {
+    return this.rank < that.rank || (this.rank == that.rank && this.candidate && !that.candidate);
+  }
+}
+
+// ranks a range of guesses, splitting it across the pool
+class RankGuesses extends RecursiveTask<RankedGuess> {
+  PartitionSolver solver;
+  CodeSpace space;
+  long[] guesses;
+  long[] candidates;
+  int from;
+  int to;
+
+  RankGuesses(PartitionSolver solver, CodeSpace space, long[] guesses, long[] candidates,
+      int from, int to) {
+    this.solver = solver;
+    this.space = space;
+    this.guesses = guesses;
+    this.candidates = candidates;
+    this.from = from;
+    this.to = to;
+  }
+
+  // returns the best ranked guess in this range, keeping the earliest of equals
+  protected RankedGuess compute() {
+    if (this.to - this.from > PartitionSolver.GUESSES_PER_TASK) {
+      int middle = (this.from + this.to) >>> 1;
+      RankGuesses right = new RankGuesses(this.solver, this.space, this.guesses,
+          this.candidates, middle, this.to);
+      right.fork();
+      RankedGuess left = new RankGuesses(this.solver, this.space, this.guesses,
+          this.candidates, this.from, middle).compute();
+      RankedGuess other = right.join();
+      return other.betterThan(left) ? other : left;
+    }
+    BatchScorer scorer = new BatchScorer(this.space);
+    int[] partitions = new int[this.space.feedbacks()];
+    int[] scores = new int[this.candidates.length];
+    RankedGuess best = null;
+    for (int i = this.from; i < this.to; i += 1) {
+      RankedGuess ranked = this.solver.rankGuess(scorer, this.guesses[i], this.candidates,
+          partitions, scores);
+      if (best == null || ranked.betterThan(best)) {
+        best = ranked;
+      }
+    }
+    if (GameMetrics.ENABLED) {
+      GameMetrics.GLOBAL.scored((long) (this.to - this.from) * this.candidates.length);
+    }
+    return best;
+  }
+}
+
+// Knuth's strategy: minimizes the size of the largest partition
+class MinimaxSolver extends PartitionSolver {
+  MinimaxSolver(ForkJoinPool pool) {
+    super(pool);
+  }
+
+  MinimaxSolver() {
+    super();
+  }
+
+  // ranks a guess by its largest partition
+  double rank(int[] partitions, int candidates) {
+    int max = 0;
+    for (int size : partitions) {
+      max = Math.max(max, size);
+    }
+    return max;
+  }
+}
+
+// maximizes the information gained, that is the entropy of the partition sizes
+class EntropySolver extends PartitionSolver {
+  EntropySolver(ForkJoinPool pool) {
+    super(pool);
+  }
+
+  EntropySolver() {
+    super();
+  }
+
+  // ranks a guess by the sum of n log n over its partitions, which decreases as
+  // the entropy log N - (sum of n log n) / N increases
+  double rank(int[] partitions, int candidates) {
+    double sum = 0;
+    for (int size : partitions) {
+      if (size > 1) {
+        sum += size * Math.log(size);
+      }
+    }
+    return sum;
+  }
+}
+
+// minimizes the expected number of candidates left after the guess
+class ExpectedSizeSolver extends PartitionSolver {
+  ExpectedSizeSolver(ForkJoinPool pool) {
+    super(pool);
+  }
+
+  ExpectedSizeSolver() {
+    super();
+  }
+
+  // ranks a guess by the sum of the squares of its partitions, which is the
+  // expected size of the partition the secret falls in times the candidates
+  double rank(int[] partitions, int candidates) {
+    double sum = 0;
+    for (int size : partitions) {
+      sum += (double) size * size;
+    }
+    return sum;
+  }
+}
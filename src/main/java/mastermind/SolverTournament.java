@@ -0,0 +1,264 @@
+package mastermind;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// plays solvers against the secrets of a configuration, every secret or a seeded
+// sample of them, in parallel across the games, and reports for each solver how
+// many guesses its games took, how many it won within the guesses the
+// configuration allows, and how fast it played
+class SolverTournament {
+  // the number of games played by one task
+  static final int GAMES_PER_TASK = 16;
+  // the most guesses a game is given before it counts as unbroken
+  static final int MAX_GUESSES = 64;
+
+  Mastermind mastermind;
+  CodeSpace space;
+  ForkJoinPool pool;
+
+  SolverTournament(Mastermind mastermind, ForkJoinPool pool) {
+    this.mastermind = mastermind;
+    this.space = mastermind.space();
+    this.pool = pool;
+  }
+
+  SolverTournament(Mastermind mastermind) {
+    this(mastermind, ForkJoinPool.commonPool());
+  }
+
+  // returns every secret of the configuration if there are no more than the given
+  // number of them, or that many drawn from the given seed otherwise
+  long[] secrets(int sample, long seed) {
+    if (sample < 1) {
+      throw new IllegalArgumentException("Invalid sample size: " + Integer.toString(sample));
+    }
+    long size = this.space.duplicates ? (long) Math.pow(this.space.colors, this.space.length)
+        : this.permutations();
+    if (size <= sample) {
+      return this.space.enumerate();
+    }
+    long[] secrets = new long[sample];
+    new SecretGenerator(this.space, seed).fill(secrets, this.pool);
+    return secrets;
+  }
+
+  // counts the codes of the configuration without duplicates, which may not fit
+  // in an int
+  long permutations() {
+    long size = 1;
+    for (int i = 0; i < this.space.length; i += 1) {
+      size *= this.space.colors - i;
+    }
+    return size;
+  }
+
+  // plays the given solver against each of the given secrets
+  TournamentResult play(String name, ISolver solver, long[] secrets) {
+    TournamentResult result = new TournamentResult(name, this.mastermind.guesses);
+    long started = System.nanoTime();
+    this.pool.invoke(new PlayGames(this, solver, secrets, 0, secrets.length, result));
+    result.nanos = System.nanoTime() - started;
+    return result;
+  }
+
+  // plays one game of the given solver against the given secret, returning the
+  // guesses it took, or MAX_GUESSES + 1 if it did not break the code
+  int play(ISolver solver, long secret, long[] guesses, int[] feedbacks) {
+    for (int count = 0; count < MAX_GUESSES; count += 1) {
+      guesses[count] = solver.nextGuess(this.space, guesses, feedbacks, count);
+      feedbacks[count] = this.space.score(guesses[count], secret);
+      if (feedbacks[count] == this.space.solved()) {
+        return count + 1;
+      }
+    }
+    return MAX_GUESSES + 1;
+  }
+
+  // returns the solver of the given name: minimax, entropy, expected, or the
+  // optimal average or worst
+  static ISolver solverNamed(String name) {
+    if (name.equals("minimax")) {
+      return new MinimaxSolver();
+    }
+    else if (name.equals("entropy")) {
+      return new EntropySolver();
+    }
+    else if (name.equals("expected")) {
+      return new ExpectedSizeSolver();
+    }
+    else if (name.equals("average")) {
+      return new OptimalAverageSolver();
+    }
+    else if (name.equals("worst")) {
+      return new OptimalWorstCaseSolver();
+    }
+    else {
+      throw new IllegalArgumentException("Invalid solver: " + name);
+    }
+  }
+
+  // writes the given results as CSV, one row per solver, with a column for each
+  // number of guesses up to the most any game took
+  static void writeCsv(List<TournamentResult> results, PrintStream out) {
+    int most = 0;
+    for (TournamentResult result : results) {
+      most = Math.max(most, result.worst());
+    }
+    StringBuilder header = new StringBuilder(
+        "solver,games,average,worst,win_rate,unbroken,games_per_second");
+    for (int guesses = 1; guesses <= most; guesses += 1) {
+      header.append(",guesses_").append(guesses);
+    }
+    out.println(header);
+    for (TournamentResult result : results) {
+      StringBuilder row = new StringBuilder(String.format("%s,%d,%.4f,%d,%.4f,%d,%.1f",
+          result.name, result.games(), result.average(), result.worst(), result.winRate(),
+          result.counts[MAX_GUESSES + 1], result.gamesPerSecond()));
+      for (int guesses = 1; guesses <= most; guesses += 1) {
+        row.append(',').append(result.counts[guesses]);
+      }
+      out.println(row);
+    }
+  }
+
+  // plays a tournament and writes its CSV to standard output and a summary per
+  // solver to standard error:
+  // length colors duplicates guesses solver,solver,... [sample [seed]]
+  public static void main(String[] args) {
+    Mastermind mastermind = new Mastermind(Boolean.parseBoolean(args[2]),
+        Integer.parseInt(args[0]), Integer.parseInt(args[3]),
+        new Utils().makePalette(Integer.parseInt(args[1])));
+    int sample = args.length > 5 ? Integer.parseInt(args[5]) : 100000;
+    long seed = args.length > 6 ? Long.parseLong(args[6]) : 1;
+    SolverTournament tournament = new SolverTournament(mastermind);
+    long[] secrets = tournament.secrets(sample, seed);
+    List<TournamentResult> results = new ArrayList<TournamentResult>();
+    for (String name : args[4].split(",")) {
+      TournamentResult result = tournament.play(name, SolverTournament.solverNamed(name),
+          secrets);
+      System.err.println(result.describe());
+      results.add(result);
+    }
+    SolverTournament.writeCsv(results, System.out);
+  }
+}
+
+// represents how a solver did over the games of a tournament: how many games
+// took each number of guesses, with unbroken games counted past the last
+class TournamentResult {
+  String name;
+  // the guesses the configuration allows
+  int allowed;
+  long[] counts;
+  long nanos;
+
+  TournamentResult(String name, int allowed) {
+    this.name = name;
+    this.allowed = allowed;
+    this.counts = new long[SolverTournament.MAX_GUESSES + 2];
+  }
+
+  // adds the counts of some games
+  synchronized void add(long[] counts) {
+    for (int i = 0; i < counts.length; i += 1) {
+      this.counts[i] += counts[i];
+    }
+  }
+
+  // returns the number of games played
+  long games() {
+    long games = 0;
+    for (long count : this.counts) {
+      games += count;
+    }
+    return games;
+  }
+
+  // returns the mean guesses of the games broken
+  double average() {
+    long total = 0;
+    long broken = 0;
+    for (int guesses = 1; guesses <= SolverTournament.MAX_GUESSES; guesses += 1) {
+      total += guesses * this.counts[guesses];
+      broken += this.counts[guesses];
+    }
+    return broken == 0 ? 0 : (double) total / broken;
+  }
+
+  // returns the most guesses a game took, or MAX_GUESSES + 1 if a game was not
+  // broken
+  int worst() {
+    for (int guesses = this.counts.length - 1; guesses > 0; guesses -= 1) {
+      if (this.counts[guesses] > 0) {
+        return guesses;
+      }
+    }
+    return 0;
+  }
+
+  // returns the fraction of games broken within the guesses allowed
+  double winRate() {
+    long won = 0;
+    for (int guesses = 1; guesses <= Math.min(this.allowed, SolverTournament.MAX_GUESSES);
+        guesses += 1) {
+      won += this.counts[guesses];
+    }
+    long games = this.games();
+    return games == 0 ? 0 : (double) won / games;
+  }
+
+  // returns the number of games played per second
+  double gamesPerSecond() {
+    return this.nanos == 0 ? 0 : this.games() * 1e9 / this.nanos;
+  }
+
+  // describes this result on one line
+  String describe() {
+    return String.format("%s: %d games, mean %.4f, worst %d, %.2f%% won in %d, %.1f games/s",
+        this.name, this.games(), this.average(), this.worst(), this.winRate() * 100,
+        this.allowed, this.gamesPerSecond());
+  }
+}
+
+// plays a range of the games of a tournament, splitting it across the pool
+class PlayGames extends RecursiveAction {
+  SolverTournament tournament;
+  ISolver solver;
+  long[] secrets;
+  int from;
+  int to;
+  TournamentResult result;
+
+  PlayGames(SolverTournament tournament, ISolver solver, long[] secrets, int from, int to,
+      TournamentResult result) {
+    this.tournament = tournament;
+    this.solver = solver;
+    this.secrets = secrets;
+    this.from = from;
+    this.to = to;
+    this.result = result;
+  }
+
+  // plays every game in this range, counting them before adding them to the result
+  protected void compute() {
+    if (this.to - this.from > SolverTournament.GAMES_PER_TASK) {
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new PlayGames(this.tournament, this.solver, this.secrets, this.from, middle,
+          this.result),
+          new PlayGames(this.tournament, this.solver, this.secrets, middle, this.to,
+              this.result));
+      return;
+    }
+    long[] counts = new long[SolverTournament.MAX_GUESSES + 2];
+    long[] guesses = new long[SolverTournament.MAX_GUESSES];
+    int[] feedbacks = new int[SolverTournament.MAX_GUESSES];
+    for (int i = this.from; i < this.to; i += 1) {
+      counts[this.tournament.play(this.solver, this.secrets[i], guesses, feedbacks)] += 1;
+    }
+    this.result.add(counts);
+  }
+}
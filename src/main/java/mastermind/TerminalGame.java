@@ -0,0 +1,348 @@
+package mastermind;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+// represents a grid of character cells drawn on an ANSI terminal, remembering
+// what it last sent so a flush only sends the cells that changed since, each as
+// a cursor move, a color change when needed and the character
+class TerminalScreen {
+  static final String CSI = "\u001b[";
+  // the style of cells in the terminal's own color
+  static final int DEFAULT = -1;
+  // the style of cells not yet sent, which matches no style drawn
+  static final int UNSENT = -2;
+
+  int width;
+  int height;
+  // the cells being drawn
+  char[] chars;
+  int[] styles;
+  // the cells as the terminal shows them
+  char[] shownChars;
+  int[] shownStyles;
+  // what the flush being built sends, and where it leaves the cursor and style
+  StringBuilder out;
+  int cursor;
+  int style;
+
+  TerminalScreen(int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.chars = new char[width * height];
+    this.styles = new int[width * height];
+    this.shownChars = new char[width * height];
+    this.shownStyles = new int[width * height];
+    this.out = new StringBuilder();
+    this.invalidate();
+    this.clear();
+  }
+
+  // forgets what the terminal shows, so the next flush sends every cell
+  void invalidate() {
+    Arrays.fill(this.shownStyles, UNSENT);
+    this.cursor = -1;
+    this.style = UNSENT;
+  }
+
+  // blanks every cell being drawn
+  void clear() {
+    Arrays.fill(this.chars, ' ');
+    Arrays.fill(this.styles, DEFAULT);
+  }
+
+  // draws the given character in the given style at the given cell, returning the
+  // column after it; cells off the screen are left out
+  int put(int row, int column, char c, int style) {
+    if (row >= 0 && row < this.height && column >= 0 && column < this.width) {
+      this.chars[row * this.width + column] = c;
+      this.styles[row * this.width + column] = style;
+    }
+    return column + 1;
+  }
+
+  // draws the given text in the given style from the given cell, returning the
+  // column after it
+  int print(int row, int column, String text, int style) {
+    for (int i = 0; i < text.length(); i += 1) {
+      column = this.put(row, column, text.charAt(i), style);
+    }
+    return column;
+  }
+
+  // returns what to send the terminal to show the cells drawn, which is empty if
+  // none changed since the last flush
+  String flush() {
+    this.out.setLength(0);
+    for (int cell = 0; cell < this.chars.length; cell += 1) {
+      if (this.chars[cell] != this.shownChars[cell]
+          || this.styles[cell] != this.shownStyles[cell]) {
+        if (this.cursor != cell) {
+          this.out.append(CSI).append(cell / this.width + 1).append(';')
+              .append(cell % this.width + 1).append('H');
+        }
+        if (this.style != this.styles[cell]) {
+          this.appendStyle(this.styles[cell]);
+        }
+        this.out.append(this.chars[cell]);
+        this.shownChars[cell] = this.chars[cell];
+        this.shownStyles[cell] = this.styles[cell];
+        // the cursor wraps past the last column on some terminals and not others
+        this.cursor = (cell + 1) % this.width == 0 ? -1 : cell + 1;
+      }
+    }
+    return this.out.toString();
+  }
+
+  // sends the given style: a 24-bit foreground color, or the default
+  void appendStyle(int style) {
+    if (style == DEFAULT) {
+      this.out.append(CSI).append("39m");
+    }
+    else {
+      this.out.append(CSI).append("38;2;").append((style >>> 16) & 0xFF).append(';')
+          .append((style >>> 8) & 0xFF).append(';').append(style & 0xFF).append('m');
+    }
+    this.style = style;
+  }
+}
+
+// plays a game on an ANSI terminal instead of a javalib window: the numbered
+// palette, a row per guess with its exact and inexact pegs, and a status line,
+// redrawn after each key by sending only the cells that changed, so it runs over
+// SSH on machines with no display
+class TerminalGame {
+  static final char PEG = '\u25CF';
+  static final char HOLE = '\u00B7';
+  static final char INEXACT = '\u25CB';
+  static final int EXACT_STYLE = Color.RED.getRGB() & 0xFFFFFF;
+  static final int HOLE_STYLE = 0x808080;
+  // the rows above the first guess
+  static final int GRID_ROW = 4;
+  // the controlling terminal, which keys are read from and stty sets
+  static final String TTY = "/dev/tty";
+
+  Mastermind mastermind;
+  GameEngine engine;
+  ColorKeys keys;
+  TerminalScreen screen;
+  // the style of each color of the palette
+  int[] palette;
+  // the text that only changes with the configuration, made once: the title, the
+  // color numbers, the row numbers plain and marked active, and the prompt
+  String title;
+  String[] numbers;
+  String[] rows;
+  String[] activeRows;
+  String prompt;
+  // the time each redraw took, in nanoseconds
+  Histogram redraws;
+
+  TerminalGame(Mastermind mastermind, GameEngine engine) {
+    this.mastermind = mastermind;
+    this.engine = engine;
+    this.keys = new ColorKeys(mastermind.colors.length());
+    Color[] colors = mastermind.colors.toArray();
+    this.palette = new int[colors.length];
+    this.numbers = new String[colors.length];
+    int paletteWidth = 0;
+    for (int i = 0; i < colors.length; i += 1) {
+      this.palette[i] = colors[i].getRGB() & 0xFFFFFF;
+      this.numbers[i] = Integer.toString(i + 1);
+      paletteWidth += this.numbers[i].length() + 3;
+    }
+    this.title = String.format("Mastermind: %d pegs, %d colors%s, %d guesses",
+        mastermind.length, colors.length, mastermind.duplicates ? "" : " without repeats",
+        mastermind.guesses);
+    this.rows = new String[mastermind.guesses];
+    this.activeRows = new String[mastermind.guesses];
+    for (int i = 0; i < mastermind.guesses; i += 1) {
+      this.rows[i] = String.format(" %2d", i + 1);
+      this.activeRows[i] = String.format(">%2d", i + 1);
+    }
+    this.prompt = String.format("1-%d: peg, backspace: undo, enter: guess, q: quit",
+        colors.length);
+    int width = Math.max(64, Math.max(paletteWidth, 40 + 3 * mastermind.length));
+    this.screen = new TerminalScreen(width, GRID_ROW + mastermind.guesses + 2);
+    this.redraws = new Histogram();
+  }
+
+  TerminalGame(Mastermind mastermind, long seed) {
+    this(mastermind, new GameEngine(mastermind, seed));
+  }
+
+  // applies the given key to the engine, as Game does
+  void onKey(String key) {
+    this.engine.onKey(key, this.keys);
+  }
+
+  // draws the game and returns what to send the terminal to show it
+  String redraw() {
+    long started = System.nanoTime();
+    this.draw();
+    String changes = this.screen.flush();
+    this.redraws.record(System.nanoTime() - started);
+    return changes;
+  }
+
+  // draws the game onto the screen
+  void draw() {
+    TerminalScreen screen = this.screen;
+    CodeSpace space = this.engine.space;
+    screen.clear();
+    screen.print(0, 0, this.title, TerminalScreen.DEFAULT);
+    int column = 0;
+    for (int color = 0; color < this.palette.length; color += 1) {
+      column = screen.print(2, column, this.numbers[color], TerminalScreen.DEFAULT);
+      column = screen.put(2, column + 1, PEG, this.palette[color]) + 1;
+    }
+    for (int i = 0; i < this.engine.guesses.length; i += 1) {
+      int row = GRID_ROW + i;
+      boolean active = i == this.engine.submitted && !this.engine.isOver();
+      screen.print(row, 0, active ? this.activeRows[i] : this.rows[i], TerminalScreen.DEFAULT);
+      if (i < this.engine.submitted) {
+        this.drawCode(row, this.engine.guesses[i], space.length);
+        PairOfNumbers pair = space.toPair(this.engine.feedbacks[i]);
+        column = 6 + 2 * space.length;
+        for (int k = 0; k < pair.first; k += 1) {
+          column = screen.put(row, column, PEG, EXACT_STYLE);
+        }
+        for (int k = 0; k < pair.second; k += 1) {
+          column = screen.put(row, column, INEXACT, TerminalScreen.DEFAULT);
+        }
+      }
+      else {
+        this.drawCode(row, this.engine.current, active ? this.engine.pegs : 0);
+      }
+    }
+    int status = GRID_ROW + this.engine.guesses.length + 1;
+    if (this.engine.isWon()) {
+      screen.print(status, 0, String.format("Solved in %d. n: new game, q: quit",
+          this.engine.submitted), TerminalScreen.DEFAULT);
+    }
+    else if (this.engine.isLost()) {
+      column = screen.print(status, 0, "Out of guesses, it was", TerminalScreen.DEFAULT);
+      this.drawCode(status, column + 1, this.engine.secret, space.length);
+      screen.print(status, column + 2 + 2 * space.length, "n: new game, q: quit",
+          TerminalScreen.DEFAULT);
+    }
+    else if (this.keys.typed > 0) {
+      screen.print(status, 0, "color: " + this.keys.selection, TerminalScreen.DEFAULT);
+    }
+    else {
+      screen.print(status, 0, this.prompt, TerminalScreen.DEFAULT);
+    }
+  }
+
+  // draws the first pegs of the given code in the guess column of the given row,
+  // and holes for the rest
+  void drawCode(int row, long code, int pegs) {
+    this.drawCode(row, 5, code, pegs);
+  }
+
+  // draws the first pegs of the given code from the given column, and holes for
+  // the rest
+  void drawCode(int row, int column, long code, int pegs) {
+    CodeSpace space = this.engine.space;
+    for (int j = 0; j < space.length; j += 1) {
+      if (j < pegs) {
+        this.screen.put(row, column + 2 * j, PEG, this.palette[space.peg(code, j)]);
+      }
+      else {
+        this.screen.put(row, column + 2 * j, HOLE, HOLE_STYLE);
+      }
+    }
+  }
+
+  // returns the key a byte read from a raw terminal stands for
+  static String keyOf(int b) {
+    if (b == '\r' || b == '\n') {
+      return "enter";
+    }
+    else if (b == 127 || b == '\b') {
+      return "backspace";
+    }
+    else if (b >= '0' && b <= '9') {
+      return KeyRecording.DIGITS[b - '0'];
+    }
+    else {
+      return String.valueOf((char) b);
+    }
+  }
+
+  // plays games on the terminal until q or ctrl-c, reading keys raw from the
+  // controlling terminal, which the JVM must have, so it must be started from a
+  // shell rather than through a build tool's daemon:
+  // length colors duplicates guesses
+  public static void main(String[] args) throws IOException, InterruptedException {
+    InputStream in;
+    try {
+      in = new FileInputStream(TTY);
+    }
+    catch (FileNotFoundException e) {
+      System.err.println("TerminalGame needs a terminal, but " + TTY + " cannot be opened ("
+          + e.getMessage() + "); start it with java from a shell, not through Gradle");
+      System.exit(1);
+      return;
+    }
+    Mastermind mastermind = new Mastermind(Boolean.parseBoolean(args[2]),
+        Integer.parseInt(args[0]), Integer.parseInt(args[3]),
+        new Utils().makePalette(Integer.parseInt(args[1])));
+    Random seeds = new Random();
+    TerminalGame game = new TerminalGame(mastermind, seeds.nextLong());
+    PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false,
+        StandardCharsets.UTF_8);
+    String saved = TerminalGame.stty("-g").trim();
+    TerminalGame.stty("raw", "-echo");
+    try {
+      out.print(TerminalScreen.CSI + "?25l" + TerminalScreen.CSI + "2J");
+      out.print(game.redraw());
+      out.flush();
+      for (int b = in.read(); b >= 0 && b != 'q' && b != 3; b = in.read()) {
+        if (b == 'n' && game.engine.isOver()) {
+          Histogram redraws = game.redraws;
+          game = new TerminalGame(mastermind, seeds.nextLong());
+          game.redraws = redraws;
+          out.print(TerminalScreen.CSI + "2J");
+        }
+        else {
+          game.onKey(TerminalGame.keyOf(b));
+        }
+        out.print(game.redraw());
+        out.flush();
+      }
+    }
+    finally {
+      TerminalGame.stty(saved);
+      out.print(TerminalScreen.CSI + "0m" + TerminalScreen.CSI + "?25h"
+          + TerminalScreen.CSI + (game.screen.height + 1) + ";1H");
+      out.printf("%d redraws, p50 %d ns, p99 %d ns%n", game.redraws.count.sum(),
+          game.redraws.percentile(0.5), game.redraws.percentile(0.99));
+      out.flush();
+    }
+  }
+
+  // runs stty on the controlling terminal with the given arguments, returning
+  // what it prints
+  static String stty(String... args) throws IOException, InterruptedException {
+    String[] command = new String[args.length + 1];
+    command[0] = "stty";
+    System.arraycopy(args, 0, command, 1, args.length);
+    Process process = new ProcessBuilder(command).redirectInput(new File(TTY))
+        .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    String output = new String(process.getInputStream().readAllBytes(),
+        StandardCharsets.UTF_8);
+    process.waitFor();
+    return output;
+  }
+}
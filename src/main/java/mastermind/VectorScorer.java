@@ -0,0 +1,58 @@
+package mastermind;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+// the Vector API kernel of BatchScorer: scores as many candidates per step as the
+// preferred vector holds longs, counting the pegs that differ with the same bit
+// tricks as CodeSpace.nonZeroPegs, lane by lane. this class is only loaded when
+// the jdk.incubator.vector module is present
+class VectorScorer {
+  static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+  // ints in as many lanes as LONGS has, for narrowing feedbacks
+  static final VectorSpecies<Integer> INTS = VectorScorer.supported()
+      ? VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2)) : null;
+
+  // to determine whether the preferred vector holds more than one long, so that
+  // feedbacks can be narrowed into a vector of ints with as many lanes
+  static boolean supported() {
+    return LONGS.length() > 1;
+  }
+
+  // scores the given guess against the candidates from index from on, a whole
+  // vector at a time, writing each feedback into the same index of the given
+  // array, and returns the index of the first candidate left unscored
+  static int score(CodeSpace space, long guess, long[] colors, int[] counts, int distinct,
+      long[] candidates, int from, int to, int[] into) {
+    long lowBits = CodeSpace.LOW_BITS & space.pegMask;
+    int i = from;
+    for (; i + LONGS.length() <= to; i += LONGS.length()) {
+      LongVector candidate = LongVector.fromArray(LONGS, candidates, i);
+      LongVector exact = VectorScorer.samePegs(candidate.lanewise(VectorOperators.XOR, guess),
+          lowBits, space.length);
+      LongVector common = LongVector.zero(LONGS);
+      for (int c = 0; c < distinct; c += 1) {
+        LongVector count = VectorScorer.samePegs(
+            candidate.lanewise(VectorOperators.XOR, colors[c]), lowBits, space.length);
+        common = common.add(count.min(counts[c]));
+      }
+      // feedback = exact << 4 | (common - exact)
+      LongVector feedback = exact.lanewise(VectorOperators.LSHL, 4).add(common.sub(exact));
+      ((IntVector) feedback.convertShape(VectorOperators.L2I, INTS, 0)).intoArray(into, i);
+    }
+    return i;
+  }
+
+  // counts, lane by lane, the pegs of the given words that are zero: folding
+  // leaves one bit per non-zero peg, and multiplying by LOW_BITS sums those bits
+  // into the top peg, which cannot overflow as there are at most 15 pegs
+  static LongVector samePegs(LongVector word, long lowBits, int length) {
+    LongVector folded = word.or(word.lanewise(VectorOperators.LSHR, 1));
+    folded = folded.or(folded.lanewise(VectorOperators.LSHR, 2)).and(lowBits);
+    LongVector nonZero = folded.mul(CodeSpace.LOW_BITS).lanewise(VectorOperators.LSHR, 60);
+    return nonZero.neg().add(length);
+  }
+}